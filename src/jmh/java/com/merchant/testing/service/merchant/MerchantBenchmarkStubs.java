@@ -0,0 +1,153 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.repository.MerchantReadRepository;
+import com.merchant.testing.repository.MerchantRepository;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+
+/**
+ * In-memory clients for the benchmarks: map lookups in place of network calls, so the numbers
+ * are the cost of our own mapping and fall-through code.
+ */
+final class MerchantBenchmarkStubs {
+
+    private MerchantBenchmarkStubs() {
+    }
+
+    static DynamoDbClient dynamoDbClient(Map<String, Map<String, AttributeValue>> items) {
+        return new DynamoDbClient() {
+            @Override
+            public GetItemResponse getItem(GetItemRequest request) {
+                Map<String, AttributeValue> item = items.get(request.key().get("id").s());
+                return item != null ? GetItemResponse.builder().item(item).build() : GetItemResponse.builder().build();
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Serves puts, listings and whole or ranged GETs, buffered or streamed, from the map; missing keys throw as S3 does.
+     */
+    static S3Client s3Client(NavigableMap<String, byte[]> objects) {
+        return new S3Client() {
+            @Override
+            public PutObjectResponse putObject(PutObjectRequest request, RequestBody requestBody) {
+                try (InputStream content = requestBody.contentStreamProvider().newStream()) {
+                    objects.put(request.key(), content.readAllBytes());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return PutObjectResponse.builder().build();
+            }
+
+            @Override
+            public ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+                return ListObjectsV2Response.builder()
+                        .contents(objects.tailMap(request.prefix()).keySet().stream()
+                                .takeWhile(key -> key.startsWith(request.prefix()))
+                                .map(key -> S3Object.builder().key(key).build())
+                                .toList())
+                        .isTruncated(false)
+                        .build();
+            }
+
+            @Override
+            public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+                return new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                        AbortableInputStream.create(new ByteArrayInputStream(getObjectAsBytes(request).asByteArrayUnsafe())));
+            }
+
+            @Override
+            public ResponseBytes<GetObjectResponse> getObjectAsBytes(GetObjectRequest request) {
+                byte[] content = objects.get(request.key());
+                if (content == null) {
+                    throw NoSuchKeyException.builder().message(request.key()).build();
+                }
+                if (request.range() != null) {
+                    String[] range = request.range().substring("bytes=".length()).split("-");
+                    content = Arrays.copyOfRange(content, Integer.parseInt(range[0]), Integer.parseInt(range[1]) + 1);
+                }
+                return ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), content);
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Answers {@code findById} and {@code findByEmail} from the map.
+     */
+    static MerchantReadRepository merchantReadRepository(Map<Long, Merchant> merchants) {
+        return new MerchantReadRepository(new SimpleDriverDataSource(), null, Duration.ZERO) {
+            @Override
+            public Optional<Merchant> findById(long id) {
+                return Optional.ofNullable(merchants.get(id));
+            }
+
+            @Override
+            public Optional<Merchant> findByEmail(String email) {
+                return merchants.values().stream()
+                        .filter(merchant -> email.equals(merchant.getEmail()))
+                        .findFirst();
+            }
+        };
+    }
+
+    /**
+     * Answers {@code findById} and {@code findByEmail}; any other repository call fails.
+     */
+    static MerchantRepository merchantRepository(Map<Long, Merchant> merchants) {
+        return (MerchantRepository) Proxy.newProxyInstance(MerchantRepository.class.getClassLoader(),
+                new Class<?>[]{MerchantRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(merchants.get((Long) args[0]));
+                    case "findByEmail" -> merchants.values().stream()
+                            .filter(merchant -> args[0].equals(merchant.getEmail()))
+                            .findFirst();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
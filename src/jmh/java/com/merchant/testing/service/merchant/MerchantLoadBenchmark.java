@@ -0,0 +1,119 @@
+package com.merchant.testing.service.merchant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.merchant.testing.config.AppConfig;
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import com.merchant.testing.repository.MerchantRepository;
+import com.merchant.testing.service.aws.DynamoDbService;
+import com.merchant.testing.service.aws.S3StorageService;
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MerchantLoadServiceStrategy} in sequential mode over in-memory tiers, with each merchant
+ * stored only in the tier named by the benchmark, so every call falls through the tiers above it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MerchantLoadBenchmark {
+    private static final String IN_DYNAMODB = "1";
+    private static final String IN_POSTGRES = "2";
+    private static final String IN_S3 = "3";
+    private static final String NOWHERE = "4";
+
+    private ExecutorService executor;
+    private MerchantLoadServiceStrategy strategy;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new AppConfig().objectMapper();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DynamoDbService dynamoDbService = new DynamoDbService(MerchantBenchmarkStubs.dynamoDbClient(
+                Map.of(IN_DYNAMODB, MerchantReplicator.toItem(merchant(IN_DYNAMODB)))),
+                new Bulkhead("dynamodb", Integer.MAX_VALUE, Duration.ZERO, meterRegistry));
+        Map<Long, Merchant> inPostgres = Map.of(Long.parseLong(IN_POSTGRES), merchant(IN_POSTGRES));
+        MerchantRepository merchantRepository = MerchantBenchmarkStubs.merchantRepository(inPostgres);
+        S3StorageService s3StorageService = new S3StorageService(MerchantBenchmarkStubs.s3Client(new ConcurrentSkipListMap<>()),
+                new Bulkhead("s3", Integer.MAX_VALUE, Duration.ZERO, meterRegistry));
+        MerchantSegmentStore merchantSegmentStore = new MerchantSegmentStore(s3StorageService, null, objectMapper, executor, 65536, 16);
+        merchantSegmentStore.write(1L, List.of(merchant(IN_S3)), List.of());
+        merchantSegmentStore.refresh();
+        strategy = new MerchantLoadServiceStrategy(
+                new MerchantLoadServiceS3(merchantSegmentStore),
+                new MerchantLoadServicePostgres(MerchantBenchmarkStubs.merchantReadRepository(inPostgres)),
+                new MerchantLoadServiceDynamoDB(dynamoDbService),
+                new MerchantLoadServiceSnapshot(new DriverManagerDataSource(), null, meterRegistry, false, null, 1),
+                new MerchantTierFilters(merchantRepository, dynamoDbService, meterRegistry, false, 1, 0.01),
+                executor, MerchantLoadMode.SEQUENTIAL, Duration.ZERO,
+                new MerchantTierMetrics(meterRegistry),
+                new MerchantTierOrdering(meterRegistry, List.of(MerchantTier.values()), false, 0.05, 100, 0.1, 0),
+                new MerchantTierGuards(meterRegistry, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1), 20, 0.5, Duration.ofSeconds(5), 3),
+                Duration.ofSeconds(1), Duration.ofSeconds(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public Optional<Merchant> hitDynamoDb() {
+        return strategy.loadMerchant(IN_DYNAMODB);
+    }
+
+    @Benchmark
+    public Optional<Merchant> fallThroughToPostgres() {
+        return strategy.loadMerchant(IN_POSTGRES);
+    }
+
+    @Benchmark
+    public Optional<Merchant> fallThroughToS3() {
+        return strategy.loadMerchant(IN_S3);
+    }
+
+    /**
+     * The S3 segment index answers a miss without a GET.
+     */
+    @Benchmark
+    public Optional<Merchant> missEverywhere() {
+        return strategy.loadMerchant(NOWHERE);
+    }
+
+    private static Merchant merchant(String id) {
+        return MerchantBuilder.aMerchant()
+                .withId(Long.parseLong(id))
+                .withName("John Doe")
+                .withEmail("merchant" + id + "@example.com")
+                .withBusinessType(BusinessTypeEnum.SMALL)
+                .build();
+    }
+}
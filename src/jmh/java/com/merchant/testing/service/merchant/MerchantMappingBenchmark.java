@@ -0,0 +1,78 @@
+package com.merchant.testing.service.merchant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.merchant.testing.config.AppConfig;
+import com.merchant.testing.controller.bean.MerchantResponseBean;
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-merchant mapping costs on the read path: DynamoDB item and S3 segment record to {@link Merchant},
+ * and {@link Merchant} to the response bean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MerchantMappingBenchmark {
+    private Map<String, AttributeValue> item;
+    private byte[] segmentRecord;
+    private Merchant merchant;
+    private MerchantSegmentStore merchantSegmentStore;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        item = Map.of(
+                "id", AttributeValue.builder().s("123").build(),
+                "name", AttributeValue.builder().s("John Doe").build(),
+                "email", AttributeValue.builder().s("john@example.com").build(),
+                "businessType", AttributeValue.builder().s("SMALL").build(),
+                "phonetics", AttributeValue.builder().s("/dʒɒn dəʊ/").build());
+        merchant = MerchantLoadServiceDynamoDB.toMerchant(item);
+        segmentRecord = MerchantSegmentCodec.deflate(new AppConfig().objectMapper().writeValueAsBytes(merchant));
+        merchantSegmentStore = new MerchantSegmentStore(null, null, new AppConfig().objectMapper(), null, 0, 1);
+    }
+
+    @Benchmark
+    public Merchant dynamoDbToMerchant() {
+        return MerchantLoadServiceDynamoDB.toMerchant(item);
+    }
+
+    @Benchmark
+    public Merchant s3DecodeSegmentRecord() {
+        return merchantSegmentStore.decode(segmentRecord, 0, segmentRecord.length);
+    }
+
+    @Benchmark
+    public MerchantResponseBean responseBeanFrom() {
+        return MerchantResponseBean.from(merchant);
+    }
+
+    @Benchmark
+    public Merchant merchantBuilderBuild() {
+        return MerchantBuilder.aMerchant()
+                .withId(123L)
+                .withName("John Doe")
+                .withEmail("john@example.com")
+                .withBusinessType(BusinessTypeEnum.SMALL)
+                .withPhonetics("/dʒɒn dəʊ/")
+                .build();
+    }
+}
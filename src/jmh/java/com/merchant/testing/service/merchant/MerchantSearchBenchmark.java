@@ -0,0 +1,63 @@
+package com.merchant.testing.service.merchant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches of a {@link MerchantSearchIndex} over {@code merchants} names drawn from small word
+ * lists, so that every word is shared by many names, with queries misspelt the way users type them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class MerchantSearchBenchmark {
+    private static final String[] FIRST = {"John", "Maria", "Giuseppe", "Anna", "Luca", "Sofia", "Marco", "Giulia",
+            "Peter", "Claire", "Ahmed", "Yuki", "Olga", "Carlos", "Fatima", "Noah"};
+    private static final String[] LAST = {"Smith", "Rossi", "Bianchi", "Müller", "Dubois", "García", "Kowalski", "Tanaka",
+            "Johnson", "Ferrari", "Schmidt", "Novak", "Silva", "Costa", "Esposito", "Moreau"};
+    private static final String[] TRADE = {"Bakery", "Caffè", "Pizzeria", "Hardware", "Florist", "Books", "Tailoring",
+            "Pharmacy", "Garage", "Gelateria", "Butcher", "Barber", "Studio", "Market", "Osteria", "Laundry"};
+    private static final String[] QUERIES = {"jon smyth bakery", "guiseppe rosi", "mueller florist", "caffe esposito",
+            "carlos garcia garage", "yuky tanaka", "pizeria", "clair dubois studio"};
+
+    @Param("1000000")
+    private int merchants;
+
+    @Param("20000")
+    private int maxPostings;
+
+    private MerchantSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new MerchantSearchIndex();
+        for (long id = 1; id <= merchants; id++) {
+            index.load(id, FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)] + " "
+                    + TRADE[random.nextInt(TRADE.length)] + " " + random.nextInt(1000));
+        }
+        index.finishLoad();
+    }
+
+    @Benchmark
+    public List<MerchantSearchIndex.Hit> search() {
+        return index.search(QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)], 10, maxPostings);
+    }
+}
@@ -0,0 +1,83 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in a {@link MerchantSnapshot} of {@code merchants} merchants at random ids and emails.
+ * Run with {@code -t} above one to see how lookups scale across threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MerchantSnapshotBenchmark {
+    @Param("1000000")
+    private int merchants;
+
+    private Path directory;
+    private MerchantSnapshot snapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("merchant-snapshot-benchmark");
+        LocalDateTime now = LocalDateTime.now();
+        try (MerchantSnapshot.Writer writer = new MerchantSnapshot.Writer(directory.resolve("merchants.snapshot"))) {
+            for (long id = 1; id <= merchants; id++) {
+                writer.add(MerchantBuilder.aMerchant()
+                        .withId(id)
+                        .withName("Merchant " + id)
+                        .withEmail("merchant" + id + "@example.com")
+                        .withBusinessType(BusinessTypeEnum.SMALL)
+                        .withCreatedAt(now)
+                        .withUpdatedAt(now)
+                        .build());
+            }
+            snapshot = writer.finish(0);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot.path());
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Optional<Merchant> findById() {
+        return snapshot.findById(ThreadLocalRandom.current().nextLong(1, merchants + 1L));
+    }
+
+    @Benchmark
+    public Optional<Merchant> findByEmail() {
+        return snapshot.findByEmail("merchant" + ThreadLocalRandom.current().nextLong(1, merchants + 1L) + "@example.com");
+    }
+
+    @Benchmark
+    public Optional<Merchant> findMissingId() {
+        return snapshot.findById(merchants + ThreadLocalRandom.current().nextLong(1, merchants + 1L));
+    }
+}
@@ -0,0 +1,57 @@
+package com.merchant.testing.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for dictionaryapi.dev: answers every {@code /api/v2/entries/en/{word}} with a
+ * single entry after the configured delay.
+ */
+final class DictionaryApiStub implements AutoCloseable {
+    private static final String ENTRIES_PATH = "/api/v2/entries/en/";
+
+    private final HttpServer server;
+
+    private DictionaryApiStub(HttpServer server) {
+        this.server = server;
+    }
+
+    static DictionaryApiStub start(Duration latency) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(ENTRIES_PATH, exchange -> respond(exchange, latency));
+        server.start();
+        return new DictionaryApiStub(server);
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange, Duration latency) throws IOException {
+        try (exchange) {
+            Thread.sleep(latency);
+            String word = exchange.getRequestURI().getPath().substring(ENTRIES_PATH.length());
+            byte[] body = ("[{\"word\":\"" + word + "\",\"phonetic\":\"/" + word + "/\"}]").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
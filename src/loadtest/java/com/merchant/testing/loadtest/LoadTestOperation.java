@@ -0,0 +1,9 @@
+package com.merchant.testing.loadtest;
+
+/**
+ * The {@code MerchantController} calls a load-test mix is made of, e.g.
+ * {@code --loadtest.mix=CREATE:1,GET_BY_ID:6,GET_BY_EMAIL:2,LIST:1,UPDATE:1}.
+ */
+enum LoadTestOperation {
+    CREATE, GET_BY_ID, GET_BY_EMAIL, LIST, UPDATE
+}
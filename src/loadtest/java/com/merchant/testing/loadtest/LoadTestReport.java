@@ -0,0 +1,83 @@
+package com.merchant.testing.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency in microseconds and error counts per operation. Latencies are measured from the
+ * intended send time of each request, so time spent queued behind a slow server is included.
+ */
+final class LoadTestReport {
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<LoadTestOperation, Histogram> latencies = new EnumMap<>(LoadTestOperation.class);
+    private final Map<LoadTestOperation, LongAdder> errors = new EnumMap<>(LoadTestOperation.class);
+
+    LoadTestReport() {
+        for (LoadTestOperation operation : LoadTestOperation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(LoadTestOperation operation, long latencyNanos, boolean success) {
+        latencies.get(operation).recordValue(Math.max(1, latencyNanos / 1000));
+        if (!success) {
+            errors.get(operation).increment();
+        }
+    }
+
+    void reset() {
+        latencies.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    void print(PrintStream out, Duration elapsed) {
+        out.printf(Locale.ROOT, "%-14s %10s %10s %10s %10s %10s %10s %8s%n",
+                "operation", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        for (LoadTestOperation operation : LoadTestOperation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            out.printf(Locale.ROOT, "%-14s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                    operation,
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / (elapsed.toNanos() / 1e9),
+                    histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                    histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                    histogram.getMaxValue() / MICROS_PER_MILLI,
+                    errors.get(operation).sum());
+        }
+    }
+
+    /**
+     * Writes one {@code <operation>.hgrm} percentile distribution per operation, in milliseconds,
+     * which can be plotted with the HdrHistogram plotter.
+     */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (LoadTestOperation operation : LoadTestOperation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(operation.name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+}
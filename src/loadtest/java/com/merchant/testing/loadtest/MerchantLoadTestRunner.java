@@ -0,0 +1,146 @@
+package com.merchant.testing.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.merchant.testing.MerchantTestingApplication;
+import com.merchant.testing.config.LocalStackAwsConfig;
+import com.merchant.testing.config.TestContainersConfig;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application against the Testcontainers Postgres and LocalStack used by the tests and
+ * a local dictionary stub, then drives an open-model request mix at the REST API and writes HDR
+ * latency histograms. Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="..."};
+ * every option is a {@code --name=value} argument, which is also passed on to the application:
+ * <ul>
+ *     <li>{@code loadtest.rate}: mean requests per second (default 200)</li>
+ *     <li>{@code loadtest.warmup} / {@code loadtest.duration}: ISO-8601 durations (PT10S / PT60S)</li>
+ *     <li>{@code loadtest.mix}: operation weights (CREATE:1,GET_BY_ID:6,GET_BY_EMAIL:2,LIST:1,UPDATE:1)</li>
+ *     <li>{@code loadtest.seed-merchants}: merchants created before the run (500)</li>
+ *     <li>{@code loadtest.latency.dynamodb} / {@code loadtest.latency.s3} / {@code loadtest.latency.dictionary}:
+ *     latency added to each call of that dependency (PT0S)</li>
+ *     <li>{@code loadtest.report-dir}: where the {@code .hgrm} files go (target/loadtest)</li>
+ * </ul>
+ * The load is generated in the same JVM as the server, so compare runs made on the same machine.
+ */
+public final class MerchantLoadTestRunner {
+
+    private MerchantLoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        StandardEnvironment options = new StandardEnvironment();
+        options.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+
+        try (DictionaryApiStub dictionary = DictionaryApiStub.start(
+                options.getProperty("loadtest.latency.dictionary", Duration.class, Duration.ZERO))) {
+            String[] applicationArgs = Stream.concat(Stream.of(
+                    "--server.port=0",
+                    "--external.api.base-url=" + dictionary.baseUrl(),
+                    "--spring.jpa.show-sql=false"), Stream.of(args)).toArray(String[]::new);
+            try (ConfigurableApplicationContext context = SpringApplication.from(MerchantTestingApplication::main)
+                    .with(TestContainersConfig.class, LocalStackAwsConfig.class, TierLatencyInjector.class)
+                    .run(applicationArgs)
+                    .getApplicationContext();
+                 ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                createAwsResources(context);
+                Environment environment = context.getEnvironment();
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .executor(clientExecutor)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+                URI baseUrl = URI.create("http://localhost:" + environment.getRequiredProperty("local.server.port"));
+                run(environment, new OpenModelLoadDriver(httpClient, baseUrl, context.getBean(ObjectMapper.class), mix(environment)));
+            }
+        }
+    }
+
+    private static void run(Environment environment, OpenModelLoadDriver driver) throws Exception {
+        double rate = environment.getProperty("loadtest.rate", Double.class, 200.0);
+        Duration warmup = environment.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(10));
+        Duration duration = environment.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(60));
+        Path reportDir = Path.of(environment.getProperty("loadtest.report-dir", "target/loadtest"));
+
+        driver.seed(environment.getProperty("loadtest.seed-merchants", Integer.class, 500));
+        LoadTestReport report = new LoadTestReport();
+        driver.run(rate, warmup, report);
+        report.reset();
+        driver.run(rate, duration, report);
+
+        System.out.printf("%nOpen model at %.1f req/s for %s%n", rate, duration);
+        report.print(System.out, duration);
+        report.write(reportDir);
+        System.out.println("Histograms written to " + reportDir.toAbsolutePath());
+    }
+
+    private static Map<LoadTestOperation, Integer> mix(Environment environment) {
+        Map<LoadTestOperation, Integer> mix = new EnumMap<>(LoadTestOperation.class);
+        for (String entry : environment.getProperty("loadtest.mix", "CREATE:1,GET_BY_ID:6,GET_BY_EMAIL:2,LIST:1,UPDATE:1").split(",")) {
+            String[] operationAndWeight = entry.trim().split(":");
+            mix.put(LoadTestOperation.valueOf(operationAndWeight[0].trim()), Integer.parseInt(operationAndWeight[1].trim()));
+        }
+        return mix;
+    }
+
+    /**
+     * The bucket and table terraform creates outside tests, including the email index the
+     * DynamoDB tier queries.
+     */
+    private static void createAwsResources(ConfigurableApplicationContext context) {
+        Environment environment = context.getEnvironment();
+        context.getBean(S3Client.class).createBucket(request -> request.bucket(environment.getRequiredProperty("aws.s3.bucket")));
+        context.getBean(DynamoDbClient.class).createTable(request -> request
+                .tableName(environment.getRequiredProperty("aws.dynamodb.table"))
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .attributeDefinitions(
+                        attribute("id"),
+                        attribute("merchantName"),
+                        attribute("email"))
+                .keySchema(hashKey("id"))
+                .globalSecondaryIndexes(
+                        GlobalSecondaryIndex.builder()
+                                .indexName("MerchantNameIndex")
+                                .keySchema(hashKey("merchantName"))
+                                .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                                .build(),
+                        GlobalSecondaryIndex.builder()
+                                .indexName(environment.getRequiredProperty("aws.dynamodb.email-index"))
+                                .keySchema(hashKey("email"))
+                                .projection(Projection.builder()
+                                        .projectionType(ProjectionType.INCLUDE)
+                                        .nonKeyAttributes("name", "businessType", "phonetics", "updatedAt")
+                                        .build())
+                                .build()));
+    }
+
+    private static AttributeDefinition attribute(String name) {
+        return AttributeDefinition.builder().attributeName(name).attributeType(ScalarAttributeType.S).build();
+    }
+
+    private static KeySchemaElement hashKey(String name) {
+        return KeySchemaElement.builder().attributeName(name).keyType(KeyType.HASH).build();
+    }
+}
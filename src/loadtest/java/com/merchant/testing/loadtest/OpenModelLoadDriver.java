@@ -0,0 +1,158 @@
+package com.merchant.testing.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests arrive as a Poisson process at a fixed mean rate, whether or not
+ * earlier requests have completed, so a slow server builds a queue instead of slowing the load
+ * down. Each arrival picks an operation at random according to the mix weights.
+ */
+final class OpenModelLoadDriver {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final URI merchantsUrl;
+    private final ObjectMapper objectMapper;
+    private final List<LoadTestOperation> weightedOperations = new ArrayList<>();
+    private final List<SeededMerchant> merchants = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong sequence = new AtomicLong();
+
+    record SeededMerchant(String id, String email) {
+    }
+
+    OpenModelLoadDriver(HttpClient httpClient, URI baseUrl, ObjectMapper objectMapper, Map<LoadTestOperation, Integer> mix) {
+        this.httpClient = httpClient;
+        this.merchantsUrl = baseUrl.resolve("/api/merchants");
+        this.objectMapper = objectMapper;
+        mix.forEach((operation, weight) -> weightedOperations.addAll(Collections.nCopies(weight, operation)));
+        if (weightedOperations.isEmpty()) {
+            throw new IllegalArgumentException("The load-test mix has no operation with a positive weight");
+        }
+    }
+
+    /**
+     * Creates the merchants that reads and updates pick from, a few at a time.
+     */
+    void seed(int count) {
+        List<CompletableFuture<HttpResponse<String>>> creates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            creates.add(send(createRequest()).thenApply(this::remember));
+            if (creates.size() == 32) {
+                creates.forEach(CompletableFuture::join);
+                creates.clear();
+            }
+        }
+        creates.forEach(CompletableFuture::join);
+        if (merchants.isEmpty()) {
+            throw new IllegalStateException("Could not create any merchant to run the load test against");
+        }
+    }
+
+    /**
+     * Issues requests at {@code ratePerSecond} for {@code duration} and waits for the stragglers.
+     */
+    void run(double ratePerSecond, Duration duration, LoadTestReport report) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intendedStart = start;
+        while (intendedStart < end) {
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadTestOperation operation = weightedOperations.get(random.nextInt(weightedOperations.size()));
+            long sentAt = intendedStart;
+            CompletableFuture<?> call = send(request(operation, random)).handle((response, error) -> {
+                boolean success = error == null && response.statusCode() < 400;
+                report.record(operation, System.nanoTime() - sentAt, success);
+                if (success && operation == LoadTestOperation.CREATE) {
+                    remember(response);
+                }
+                return null;
+            });
+            inFlight.add(call);
+            call.whenComplete((ignored, error) -> inFlight.remove(call));
+            intendedStart += (long) (-Math.log(1 - random.nextDouble()) / ratePerSecond * 1e9);
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private HttpRequest request(LoadTestOperation operation, ThreadLocalRandom random) {
+        SeededMerchant merchant = merchants.get(random.nextInt(merchants.size()));
+        return switch (operation) {
+            case CREATE -> createRequest();
+            case GET_BY_ID -> get(merchantsUrl + "/" + merchant.id());
+            case GET_BY_EMAIL -> get(merchantsUrl + "/email/" + URLEncoder.encode(merchant.email(), StandardCharsets.UTF_8));
+            case LIST -> get(merchantsUrl + "?limit=20&after=" + merchant.id());
+            case UPDATE -> HttpRequest.newBuilder(URI.create(merchantsUrl + "/" + merchant.id()))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .PUT(json(Map.of("name", "Load Test " + sequence.incrementAndGet(), "businessType", "MEDIUM")))
+                    .build();
+        };
+    }
+
+    private HttpRequest createRequest() {
+        long n = sequence.incrementAndGet();
+        return HttpRequest.newBuilder(merchantsUrl)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(json(Map.of(
+                        "name", "Load Test " + n,
+                        "email", "loadtest-" + UUID.randomUUID() + "@example.com",
+                        "businessType", "SMALL")))
+                .build();
+    }
+
+    private HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest.BodyPublisher json(Map<String, String> body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> remember(HttpResponse<String> response) {
+        if (response.statusCode() == 201) {
+            try {
+                JsonNode merchant = objectMapper.readTree(response.body());
+                merchants.add(new SeededMerchant(merchant.get("id").asText(), merchant.get("email").asText()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return response;
+    }
+}
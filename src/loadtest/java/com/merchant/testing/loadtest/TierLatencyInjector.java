@@ -0,0 +1,79 @@
+package com.merchant.testing.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds {@code loadtest.latency.dynamodb} / {@code loadtest.latency.s3} to every call made through
+ * the sync and async AWS clients, to see how a slow tier shows up in the API percentiles.
+ * Sync calls sleep before the request; async calls are started after the delay without holding
+ * a thread.
+ */
+class TierLatencyInjector implements BeanPostProcessor {
+    private static final Set<String> UNDELAYED = Set.of("close", "serviceName", "serviceClientConfiguration",
+            "utilities", "waiter", "toString", "hashCode", "equals");
+
+    private final Duration dynamoDbLatency;
+    private final Duration s3Latency;
+
+    TierLatencyInjector(Environment environment) {
+        this.dynamoDbLatency = environment.getProperty("loadtest.latency.dynamodb", Duration.class, Duration.ZERO);
+        this.s3Latency = environment.getProperty("loadtest.latency.s3", Duration.class, Duration.ZERO);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return switch (bean) {
+            case DynamoDbClient client when !dynamoDbLatency.isZero() -> delaying(DynamoDbClient.class, client, dynamoDbLatency);
+            case DynamoDbAsyncClient client when !dynamoDbLatency.isZero() -> delaying(DynamoDbAsyncClient.class, client, dynamoDbLatency);
+            case S3Client client when !s3Latency.isZero() -> delaying(S3Client.class, client, s3Latency);
+            case S3AsyncClient client when !s3Latency.isZero() -> delaying(S3AsyncClient.class, client, s3Latency);
+            default -> bean;
+        };
+    }
+
+    private static <T> T delaying(Class<T> type, T client, Duration latency) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (UNDELAYED.contains(method.getName())) {
+                return invoke(method, client, args);
+            }
+            if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+                return CompletableFuture.runAsync(() -> {
+                }, CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS))
+                        .thenCompose(ignored -> (CompletableFuture<?>) invokeUnchecked(method, client, args));
+            }
+            Thread.sleep(latency);
+            return invoke(method, client, args);
+        }));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object invokeUnchecked(Method method, Object target, Object[] args) {
+        try {
+            return invoke(method, target, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,16 +3,33 @@ package com.merchant.testing.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import java.time.Duration;
+
 @Configuration
 public class AwsConfig {
 
     @Value("${aws.region}")
     private String awsRegion;
 
+    @Value("${aws.async.max-concurrency:200}")
+    private int asyncMaxConcurrency;
+
+    @Value("${aws.async.max-pending-connection-acquires:10000}")
+    private int asyncMaxPendingConnectionAcquires;
+
+    @Value("${aws.async.connection-acquisition-timeout:PT2S}")
+    private Duration asyncConnectionAcquisitionTimeout;
+
+    @Value("${aws.async.connection-max-idle-time:PT60S}")
+    private Duration asyncConnectionMaxIdleTime;
+
     @Bean
     public S3Client s3Client() {
         return S3Client.builder()
@@ -26,4 +43,32 @@ public class AwsConfig {
                 .region(Region.of(awsRegion))
                 .build();
     }
+
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        return S3AsyncClient.builder()
+                .region(Region.of(awsRegion))
+                .httpClientBuilder(asyncHttpClient())
+                .build();
+    }
+
+    @Bean
+    public DynamoDbAsyncClient dynamoDbAsyncClient() {
+        return DynamoDbAsyncClient.builder()
+                .region(Region.of(awsRegion))
+                .httpClientBuilder(asyncHttpClient())
+                .build();
+    }
+
+    /**
+     * Connection pool settings for the async clients. Each client gets its own Netty pool, closed with the client.
+     * Requests beyond {@code max-concurrency} wait for a connection instead of opening new ones.
+     */
+    private NettyNioAsyncHttpClient.Builder asyncHttpClient() {
+        return NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(asyncMaxConcurrency)
+                .maxPendingConnectionAcquires(asyncMaxPendingConnectionAcquires)
+                .connectionAcquisitionTimeout(asyncConnectionAcquisitionTimeout)
+                .connectionMaxIdleTime(asyncConnectionMaxIdleTime);
+    }
 }
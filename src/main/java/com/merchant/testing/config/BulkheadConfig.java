@@ -0,0 +1,99 @@
+package com.merchant.testing.config;
+
+import com.merchant.testing.repository.MerchantRepository;
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import com.merchant.testing.service.bulkhead.BulkheadTransactionListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * One {@link Bulkhead} per backend. Keep each limit at or below the backend client's own pool
+ * size, so calls queue in the bulkhead, where the wait is measured and bounded, rather than in the pool.
+ * <p>
+ * The Postgres bulkhead covers every transaction, JPA or JDBC, through
+ * {@link #postgresTransactionBulkhead}, and the calls made outside one through
+ * {@link MerchantRepository}, {@code MerchantReadRepository} and {@code MerchantPhoneticRepository}.
+ * What is left are the single statements the background jobs run outside a transaction (the
+ * phonetics backlog page and count, the outbox count); Hikari's pool is kept a few connections
+ * above the bulkhead's limit for them.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    public Bulkhead dynamoDbBulkhead(MeterRegistry meterRegistry,
+                                     @Value("${merchant.bulkhead.dynamodb.max-concurrent:50}") int maxConcurrent,
+                                     @Value("${merchant.bulkhead.dynamodb.max-wait:PT1S}") Duration maxWait) {
+        return new Bulkhead("dynamodb", maxConcurrent, maxWait, meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead s3Bulkhead(MeterRegistry meterRegistry,
+                               @Value("${merchant.bulkhead.s3.max-concurrent:50}") int maxConcurrent,
+                               @Value("${merchant.bulkhead.s3.max-wait:PT1S}") Duration maxWait) {
+        return new Bulkhead("s3", maxConcurrent, maxWait, meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead postgresBulkhead(MeterRegistry meterRegistry,
+                                     @Value("${merchant.bulkhead.postgres.max-concurrent:10}") int maxConcurrent,
+                                     @Value("${merchant.bulkhead.postgres.max-wait:PT1S}") Duration maxWait) {
+        return new Bulkhead("postgres", maxConcurrent, maxWait, meterRegistry);
+    }
+
+    /**
+     * Streamed exports, each holding a Postgres permit until its reader is done; see
+     * {@code MerchantExportService}.
+     */
+    @Bean
+    public Bulkhead exportBulkhead(MeterRegistry meterRegistry,
+                                   @Value("${merchant.bulkhead.export.max-concurrent:2}") int maxConcurrent,
+                                   @Value("${merchant.bulkhead.export.max-wait:PT0S}") Duration maxWait) {
+        return new Bulkhead("export", maxConcurrent, maxWait, meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead dictionaryApiBulkhead(MeterRegistry meterRegistry,
+                                          @Value("${merchant.bulkhead.dictionary-api.max-concurrent:8}") int maxConcurrent,
+                                          @Value("${merchant.bulkhead.dictionary-api.max-wait:PT2S}") Duration maxWait) {
+        return new Bulkhead("dictionary-api", maxConcurrent, maxWait, meterRegistry);
+    }
+
+    /**
+     * Holds a Postgres permit for each transaction, taken before it checks out a connection.
+     * Boot registers it on the transaction manager.
+     */
+    @Bean
+    public TransactionExecutionListener postgresTransactionBulkhead(@Qualifier("postgresBulkhead") Bulkhead postgresBulkhead) {
+        return new BulkheadTransactionListener(postgresBulkhead);
+    }
+
+    /**
+     * Runs every {@link MerchantRepository} call inside the Postgres bulkhead. The bulkhead is
+     * looked up on first use so this post-processor does not pull the meter registry in early.
+     */
+    @Bean
+    public static BeanPostProcessor merchantRepositoryBulkhead(@Qualifier("postgresBulkhead") ObjectProvider<Bulkhead> postgresBulkhead) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof MerchantRepository)) {
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.addAdvice((MethodInterceptor) invocation -> postgresBulkhead.getObject().call(invocation::proceed));
+                return proxyFactory.getProxy();
+            }
+        };
+    }
+}
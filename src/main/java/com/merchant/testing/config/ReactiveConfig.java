@@ -0,0 +1,57 @@
+package com.merchant.testing.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The {@code reactive} profile keeps Tomcat and JDBC on the classpath, so two of Boot's defaults
+ * are overridden here: its reactive server would run on Tomcat rather than Netty, and its
+ * DataSource backs off as soon as an R2DBC ConnectionFactory exists, which would take JPA and
+ * Flyway down with it. The other two overrides are exclusions in the properties: the R2DBC
+ * transaction manager, so {@code @Transactional} keeps meaning JPA, and R2DBC as a whole outside
+ * this profile.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Where the reactive API runs the calls that still block (JPA writes, JDBC batches, S3 uploads):
+     * the virtual threads of the load executor, so they never occupy an event loop. The bulkheads
+     * still bound how many reach each backend. Not disposed on shutdown: the executor bean is closed
+     * on its own, after it has drained.
+     */
+    @Bean
+    public Scheduler merchantBlockingScheduler(@Qualifier("merchantLoadExecutor") ExecutorService merchantLoadExecutor) {
+        return Schedulers.fromExecutorService(merchantLoadExecutor, "merchant-blocking");
+    }
+}
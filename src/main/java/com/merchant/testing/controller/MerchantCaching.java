@@ -0,0 +1,40 @@
+package com.merchant.testing.controller;
+
+import com.merchant.testing.controller.bean.MerchantResponseBean;
+import com.merchant.testing.entity.Merchant;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+
+/**
+ * HTTP validators for single-merchant responses. The ETag is strong and derived from the id and
+ * {@code updatedAt}, which every write moves; phonetics enrichment leaves it alone, but phonetics
+ * are not part of the response. Both MVC and WebFlux answer a GET whose {@code If-None-Match} or
+ * {@code If-Modified-Since} matches a returned entity with 304, without serialising its body, so a
+ * revalidation that hits the near cache never reaches a tier or Jackson.
+ */
+final class MerchantCaching {
+
+    private MerchantCaching() {
+    }
+
+    static ResponseEntity<MerchantResponseBean> ok(Merchant merchant, CacheControl cacheControl) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl);
+        LocalDateTime updatedAt = merchant.getUpdatedAt();
+        // merchants replicated before updatedAt was, and not written since, have no version
+        if (updatedAt != null) {
+            response.eTag(eTag(merchant.getId(), updatedAt))
+                    .lastModified(updatedAt.atZone(ZoneId.systemDefault()));
+        }
+        return response.body(MerchantResponseBean.from(merchant));
+    }
+
+    static String eTag(Long id, LocalDateTime updatedAt) {
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.get(ChronoField.MICRO_OF_SECOND);
+        return "\"" + id + "-" + Long.toHexString(micros) + "\"";
+    }
+}
@@ -1,24 +1,56 @@
 package com.merchant.testing.controller;
 
+import com.merchant.testing.controller.bean.MerchantBatchGetBean;
+import com.merchant.testing.controller.bean.MerchantExportResponseBean;
+import com.merchant.testing.controller.bean.MerchantPageResponseBean;
 import com.merchant.testing.controller.bean.MerchantResponseBean;
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
 import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.service.merchant.MerchantBulkService;
+import com.merchant.testing.service.merchant.MerchantCountService;
+import com.merchant.testing.service.merchant.MerchantExportService;
+import com.merchant.testing.service.merchant.MerchantSearchService;
 import com.merchant.testing.service.merchant.MerchantService;
+import com.merchant.testing.service.merchant.bean.MerchantCountsBean;
 import com.merchant.testing.service.merchant.bean.MerchantCreateBean;
+import com.merchant.testing.service.merchant.bean.MerchantSearchHitBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/merchants")
 public class MerchantController {
 
     private final MerchantService merchantService;
+    private final MerchantExportService merchantExportService;
+    private final MerchantBulkService merchantBulkService;
+    private final MerchantSearchService merchantSearchService;
+    private final MerchantCountService merchantCountService;
+    private final CacheControl merchantCacheControl;
 
-    public MerchantController(MerchantService merchantService) {
+    public MerchantController(MerchantService merchantService, MerchantExportService merchantExportService,
+                              MerchantBulkService merchantBulkService, MerchantSearchService merchantSearchService,
+                              MerchantCountService merchantCountService,
+                              @Value("${merchant.http.max-age:PT10S}") Duration maxAge) {
         this.merchantService = merchantService;
+        this.merchantExportService = merchantExportService;
+        this.merchantBulkService = merchantBulkService;
+        this.merchantSearchService = merchantSearchService;
+        this.merchantCountService = merchantCountService;
+        this.merchantCacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
     }
 
     @PostMapping
@@ -31,29 +63,85 @@ public class MerchantController {
         }
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createMerchants(InputStream merchants) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outcomes -> merchantBulkService.createMerchants(merchants, outcomes));
+    }
+
     @GetMapping
-    public ResponseEntity<List<MerchantResponseBean>> getAllMerchants() {
-        List<MerchantResponseBean> merchants = merchantService.getAllMerchants()
-                .stream()
-                .map(MerchantResponseBean::from)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(merchants);
+    public ResponseEntity<MerchantPageResponseBean> getMerchants(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) BusinessTypeEnum businessType,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            List<MerchantResponseBean> merchants = merchantService.getMerchantsPage(after, businessType, limit)
+                    .stream()
+                    .map(MerchantResponseBean::from)
+                    .collect(Collectors.toList());
+            String nextCursor = merchants.size() == limit ? merchants.getLast().id() : null;
+            return ResponseEntity.ok(new MerchantPageResponseBean(merchants, nextCursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/counts")
+    public MerchantCountsBean getMerchantCounts() {
+        return merchantCountService.getMerchantCounts();
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<MerchantSearchHitBean>> searchMerchants(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(merchantSearchService.searchMerchants(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMerchants() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(merchantExportService::exportMerchants);
+    }
+
+    @PostMapping("/export/s3")
+    public ResponseEntity<MerchantExportResponseBean> exportMerchantsToS3() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(new MerchantExportResponseBean(merchantExportService.exportMerchantsToS3()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MerchantResponseBean> getMerchantById(@PathVariable Long id) {
-        return merchantService.getMerchantById(id)
-                .map(MerchantResponseBean::from)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public CompletableFuture<ResponseEntity<MerchantResponseBean>> getMerchantById(@PathVariable Long id) {
+        return merchantService.getMerchantByIdAsync(id)
+                .thenApply(merchant -> merchant
+                        .map(found -> MerchantCaching.ok(found, merchantCacheControl))
+                        .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<MerchantResponseBean> getMerchantByEmail(@PathVariable String email) {
-        return merchantService.getMerchantByEmail(email)
-                .map(MerchantResponseBean::from)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public CompletableFuture<ResponseEntity<MerchantResponseBean>> getMerchantByEmail(@PathVariable String email) {
+        return merchantService.getMerchantByEmailAsync(email)
+                .thenApply(merchant -> merchant
+                        .map(found -> MerchantCaching.ok(found, merchantCacheControl))
+                        .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @PostMapping("/batch-get")
+    public ResponseEntity<List<MerchantResponseBean>> getMerchantsByIds(@RequestBody MerchantBatchGetBean request) {
+        try {
+            List<MerchantResponseBean> merchants = merchantService.getMerchantsByIds(request.ids())
+                    .stream()
+                    .map(MerchantResponseBean::from)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(merchants);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{id}")
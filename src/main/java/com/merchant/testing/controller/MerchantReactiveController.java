@@ -0,0 +1,159 @@
+package com.merchant.testing.controller;
+
+import com.merchant.testing.controller.bean.MerchantBatchGetBean;
+import com.merchant.testing.controller.bean.MerchantExportResponseBean;
+import com.merchant.testing.controller.bean.MerchantPageResponseBean;
+import com.merchant.testing.controller.bean.MerchantResponseBean;
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.service.merchant.MerchantCountService;
+import com.merchant.testing.service.merchant.MerchantReactiveService;
+import com.merchant.testing.service.merchant.MerchantSearchService;
+import com.merchant.testing.service.merchant.bean.MerchantCountsBean;
+import com.merchant.testing.service.merchant.bean.MerchantCreateBean;
+import com.merchant.testing.service.merchant.bean.MerchantSearchHitBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The routes of {@link MerchantController} on WebFlux, for the {@code reactive} profile.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/merchants")
+public class MerchantReactiveController {
+
+    private final MerchantReactiveService merchantReactiveService;
+    private final MerchantSearchService merchantSearchService;
+    private final MerchantCountService merchantCountService;
+    private final CacheControl merchantCacheControl;
+
+    public MerchantReactiveController(MerchantReactiveService merchantReactiveService, MerchantSearchService merchantSearchService,
+                                      MerchantCountService merchantCountService,
+                                      @Value("${merchant.http.max-age:PT10S}") Duration maxAge) {
+        this.merchantReactiveService = merchantReactiveService;
+        this.merchantSearchService = merchantSearchService;
+        this.merchantCountService = merchantCountService;
+        this.merchantCacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<MerchantResponseBean>> createMerchant(@RequestBody MerchantCreateBean merchant) {
+        return merchantReactiveService.createMerchant(merchant)
+                .map(createdMerchant -> ResponseEntity.status(HttpStatus.CREATED).body(MerchantResponseBean.from(createdMerchant)))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> createMerchants(@RequestBody Flux<DataBuffer> merchants, ServerWebExchange exchange) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(merchantReactiveService.createMerchants(merchants, exchange.getResponse().bufferFactory()));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<MerchantPageResponseBean>> getMerchants(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) BusinessTypeEnum businessType,
+            @RequestParam(defaultValue = "100") int limit) {
+        return merchantReactiveService.getMerchantsPage(after, businessType, limit)
+                .map(MerchantResponseBean::from)
+                .collectList()
+                .map(merchants -> ResponseEntity.ok(new MerchantPageResponseBean(merchants,
+                        merchants.size() == limit ? merchants.getLast().id() : null)))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Answered from memory without blocking, so it runs on the event loop.
+     */
+    @GetMapping("/counts")
+    public MerchantCountsBean getMerchantCounts() {
+        return merchantCountService.getMerchantCounts();
+    }
+
+    /**
+     * Answered from memory without blocking, so it runs on the event loop.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<MerchantSearchHitBean>> searchMerchants(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(merchantSearchService.searchMerchants(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * A JSON array written element by element as rows arrive; demand from the connection flows
+     * back to the query, so a slow client slows the read instead of filling memory.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<MerchantResponseBean> exportMerchants() {
+        return merchantReactiveService.streamMerchants().map(MerchantResponseBean::from);
+    }
+
+    /**
+     * The same stream as NDJSON, one merchant per line.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MerchantResponseBean> streamMerchants() {
+        return merchantReactiveService.streamMerchants().map(MerchantResponseBean::from);
+    }
+
+    @PostMapping("/export/s3")
+    public Mono<ResponseEntity<MerchantExportResponseBean>> exportMerchantsToS3() {
+        return merchantReactiveService.exportMerchantsToS3()
+                .map(key -> ResponseEntity.status(HttpStatus.CREATED).body(new MerchantExportResponseBean(key)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<MerchantResponseBean>> getMerchantById(@PathVariable Long id) {
+        return merchantReactiveService.getMerchantById(id)
+                .map(merchant -> MerchantCaching.ok(merchant, merchantCacheControl))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/email/{email}")
+    public Mono<ResponseEntity<MerchantResponseBean>> getMerchantByEmail(@PathVariable String email) {
+        return merchantReactiveService.getMerchantByEmail(email)
+                .map(merchant -> MerchantCaching.ok(merchant, merchantCacheControl))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/batch-get")
+    public Mono<ResponseEntity<List<MerchantResponseBean>>> getMerchantsByIds(@RequestBody MerchantBatchGetBean request) {
+        return merchantReactiveService.getMerchantsByIds(request.ids())
+                .map(merchants -> ResponseEntity.ok(merchants.stream().map(MerchantResponseBean::from).toList()))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<MerchantResponseBean>> updateMerchant(
+            @PathVariable Long id,
+            @RequestBody Merchant merchantDetails) {
+        return merchantReactiveService.updateMerchant(id, merchantDetails)
+                .map(updatedMerchant -> ResponseEntity.ok(MerchantResponseBean.from(updatedMerchant)))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteMerchant(@PathVariable Long id) {
+        return merchantReactiveService.deleteMerchant(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
@@ -0,0 +1,6 @@
+package com.merchant.testing.controller.bean;
+
+import java.util.List;
+
+public record MerchantBatchGetBean(List<Long> ids) {
+}
@@ -0,0 +1,7 @@
+package com.merchant.testing.controller.bean;
+
+/**
+ * Where an export to S3 was written: the object key within {@code aws.s3.bucket}.
+ */
+public record MerchantExportResponseBean(String key) {
+}
@@ -0,0 +1,10 @@
+package com.merchant.testing.controller.bean;
+
+import java.util.List;
+
+/**
+ * One keyset page of merchants. {@code nextCursor} is the value to pass as {@code after}
+ * for the next page, or null when this is the last page.
+ */
+public record MerchantPageResponseBean(List<MerchantResponseBean> merchants, String nextCursor) {
+}
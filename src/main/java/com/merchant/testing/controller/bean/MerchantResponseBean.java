@@ -2,6 +2,7 @@ package com.merchant.testing.controller.bean;
 
 import com.merchant.testing.domain.enums.BusinessTypeEnum;
 import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.repository.MerchantView;
 
 public record MerchantResponseBean(String id,
                                    BusinessTypeEnum businessType,
@@ -22,4 +23,8 @@ public record MerchantResponseBean(String id,
                 merchant.getName()
         );
     }
+
+    public static MerchantResponseBean from(MerchantView merchant) {
+        return new MerchantResponseBean(merchant.id().toString(), merchant.businessType(), merchant.email(), merchant.name());
+    }
 }
@@ -3,13 +3,22 @@ package com.merchant.testing.entity;
 import com.merchant.testing.domain.enums.BusinessTypeEnum;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "merchants")
 public class Merchant {
 
+    /**
+     * Ids are handed out from merchants_id_seq in blocks of this size (pooled-lo), so a batch of
+     * inserts needs one sequence call per block and Hibernate can batch the inserts themselves.
+     * Must match the sequence increment set in V3__Pooled_merchant_ids.sql.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "merchants_id_seq")
+    @SequenceGenerator(name = "merchants_id_seq", sequenceName = "merchants_id_seq", allocationSize = Merchant.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -18,6 +27,7 @@ public class Merchant {
     @Column(nullable = false, unique = true)
     private String email;
 
+    @Enumerated(EnumType.STRING)
     @Column(name = "business_type")
     private BusinessTypeEnum businessType;
 
@@ -30,15 +40,16 @@ public class Merchant {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Postgres keeps microseconds; truncating here makes the ETag of a write's response match later reads
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     // Constructors
@@ -76,6 +87,10 @@ public class Merchant {
         this.email = email;
     }
 
+    public String getPhonetics() {
+        return phonetics;
+    }
+
     public void setPhonetics(String phonetics) {
         this.phonetics = phonetics;
     }
@@ -0,0 +1,116 @@
+package com.merchant.testing.repository;
+
+import com.merchant.testing.entity.Merchant;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain JDBC access for bulk merchant writes that do not fit through the JPA repository.
+ */
+@Repository
+public class MerchantBulkRepository {
+    private static final String ALLOCATE_ID_BLOCKS = "SELECT nextval('merchants_id_seq') FROM generate_series(1, ?)";
+    private static final String INSERT_IGNORING_DUPLICATE_EMAILS = """
+            INSERT INTO merchants (id, name, email, business_type, created_at, updated_at)
+            SELECT batch.id, batch.name, batch.email, batch.business_type, now(), now()
+            FROM unnest(?, ?, ?, ?) AS batch(id, name, email, business_type)
+            ON CONFLICT (email) DO NOTHING
+            RETURNING id
+            """;
+    private static final String FIND_MISSING_PHONETICS =
+            "SELECT id, name FROM merchants WHERE phonetics IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String COUNT_MISSING_PHONETICS =
+            "SELECT count(*) AS pending, min(created_at) AS oldest_created_at FROM merchants WHERE phonetics IS NULL";
+    private static final String UPDATE_PHONETICS = "UPDATE merchants SET phonetics = ? WHERE id = ? AND phonetics IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MerchantBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserves {@code count} merchant ids with one sequence call per block of
+     * {@link Merchant#ID_ALLOCATION_SIZE}, using the same pooled-lo layout as Hibernate.
+     */
+    public List<Long> allocateIds(int count) {
+        int blocks = (count + Merchant.ID_ALLOCATION_SIZE - 1) / Merchant.ID_ALLOCATION_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(ALLOCATE_ID_BLOCKS, Long.class, blocks);
+        List<Long> ids = new ArrayList<>(count);
+        for (Long blockStart : blockStarts) {
+            for (int i = 0; i < Merchant.ID_ALLOCATION_SIZE && ids.size() < count; i++) {
+                ids.add(blockStart + i);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts all rows in a single statement. Rows whose email already exists, in the table or
+     * earlier in the same batch, are skipped; the ids of the rows actually inserted are returned.
+     */
+    public Set<Long> insertIgnoringDuplicateEmails(List<Merchant> merchants) {
+        Long[] ids = merchants.stream().map(Merchant::getId).toArray(Long[]::new);
+        String[] names = merchants.stream().map(Merchant::getName).toArray(String[]::new);
+        String[] emails = merchants.stream().map(Merchant::getEmail).toArray(String[]::new);
+        String[] businessTypes = merchants.stream()
+                .map(merchant -> merchant.getBusinessType() != null ? merchant.getBusinessType().name() : null)
+                .toArray(String[]::new);
+
+        Set<Long> inserted = new HashSet<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_IGNORING_DUPLICATE_EMAILS);
+            Array[] arrays = {
+                    connection.createArrayOf("bigint", ids),
+                    connection.createArrayOf("varchar", names),
+                    connection.createArrayOf("varchar", emails),
+                    connection.createArrayOf("varchar", businessTypes)
+            };
+            for (int i = 0; i < arrays.length; i++) {
+                statement.setArray(i + 1, arrays[i]);
+            }
+            return statement;
+        }, resultSet -> {
+            inserted.add(resultSet.getLong("id"));
+        });
+        return inserted;
+    }
+
+    /**
+     * Keyset page of merchants whose phonetics have not been looked up yet, ordered by id.
+     */
+    public List<MerchantNameView> findMissingPhonetics(long afterId, int limit) {
+        return jdbcTemplate.query(FIND_MISSING_PHONETICS,
+                (resultSet, rowNum) -> new MerchantNameView(resultSet.getLong("id"), resultSet.getString("name")),
+                afterId, limit);
+    }
+
+    public MerchantPhoneticsBacklog countMissingPhonetics() {
+        return jdbcTemplate.queryForObject(COUNT_MISSING_PHONETICS, (resultSet, rowNum) -> {
+            Timestamp oldestCreatedAt = resultSet.getTimestamp("oldest_created_at");
+            return new MerchantPhoneticsBacklog(resultSet.getLong("pending"),
+                    oldestCreatedAt != null ? oldestCreatedAt.toLocalDateTime() : null);
+        });
+    }
+
+    /**
+     * Writes the phonetics of several merchants in one JDBC batch. Rows that already have
+     * phonetics are left alone. {@code updated_at} is not touched: enrichment is not a change
+     * made by the merchant.
+     */
+    public void updatePhonetics(Map<Long, String> phoneticsById) {
+        List<Object[]> rows = phoneticsById.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate(UPDATE_PHONETICS, rows);
+    }
+}
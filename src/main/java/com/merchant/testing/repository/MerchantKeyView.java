@@ -0,0 +1,4 @@
+package com.merchant.testing.repository;
+
+public record MerchantKeyView(Long id, String email) {
+}
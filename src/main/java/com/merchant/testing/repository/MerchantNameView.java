@@ -0,0 +1,4 @@
+package com.merchant.testing.repository;
+
+public record MerchantNameView(Long id, String name) {
+}
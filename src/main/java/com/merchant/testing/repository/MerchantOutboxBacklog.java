@@ -0,0 +1,9 @@
+package com.merchant.testing.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox rows not yet replicated; {@code oldestCreatedAt} is {@code null} when there are none.
+ */
+public record MerchantOutboxBacklog(long pending, LocalDateTime oldestCreatedAt) {
+}
@@ -0,0 +1,6 @@
+package com.merchant.testing.repository;
+
+import java.time.LocalDateTime;
+
+public record MerchantOutboxEntry(Long id, Long merchantId, String email, LocalDateTime createdAt) {
+}
@@ -0,0 +1,81 @@
+package com.merchant.testing.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transactional outbox of merchant changes waiting to be replicated to DynamoDB and S3.
+ */
+@Repository
+public class MerchantOutboxRepository {
+    /**
+     * Advisory lock taken by the replicator for the length of one batch transaction, so only one
+     * node drains the outbox at a time and per-merchant order is kept.
+     */
+    private static final long REPLICATION_LOCK_KEY = 0x6d65726368616e74L;
+    private static final String APPEND = "INSERT INTO merchant_outbox (merchant_id, email, created_at) VALUES (?, ?, now())";
+    private static final String FIND_BATCH = "SELECT id, merchant_id, email, created_at FROM merchant_outbox ORDER BY id LIMIT ?";
+    private static final String DELETE_BY_IDS = "DELETE FROM merchant_outbox WHERE id = ANY(?)";
+    private static final String COUNT_PENDING =
+            "SELECT count(*) AS pending, min(created_at) AS oldest_created_at FROM merchant_outbox";
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(?)";
+    private static final String NEXT_SEGMENT_ID = "SELECT nextval('merchant_segment_id_seq')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MerchantOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void append(Long merchantId, String email) {
+        jdbcTemplate.update(APPEND, merchantId, email);
+    }
+
+    public List<MerchantOutboxEntry> findBatch(int limit) {
+        return jdbcTemplate.query(FIND_BATCH, (resultSet, rowNum) -> new MerchantOutboxEntry(
+                resultSet.getLong("id"),
+                resultSet.getLong("merchant_id"),
+                resultSet.getString("email"),
+                resultSet.getTimestamp("created_at").toLocalDateTime()), limit);
+    }
+
+    /**
+     * Deletes exactly the given rows. Rows with lower ids may still be committing, so this must
+     * not be turned into a range delete.
+     */
+    public void deleteByIds(Collection<Long> ids) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_BY_IDS);
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        });
+    }
+
+    public MerchantOutboxBacklog countPending() {
+        return jdbcTemplate.queryForObject(COUNT_PENDING, (resultSet, rowNum) -> {
+            Timestamp oldestCreatedAt = resultSet.getTimestamp("oldest_created_at");
+            return new MerchantOutboxBacklog(resultSet.getLong("pending"),
+                    oldestCreatedAt != null ? oldestCreatedAt.toLocalDateTime() : null);
+        });
+    }
+
+    /**
+     * Name for the next S3 segment. Drawn under the replication lock, so every segment gets a
+     * higher name than all segments written before it, whatever outbox ids it holds.
+     */
+    public long nextSegmentId() {
+        return jdbcTemplate.queryForObject(NEXT_SEGMENT_ID, Long.class);
+    }
+
+    /**
+     * Must be called inside a transaction; the lock is released when it ends.
+     */
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class, REPLICATION_LOCK_KEY));
+    }
+}
@@ -0,0 +1,10 @@
+package com.merchant.testing.repository;
+
+import java.time.Instant;
+
+/**
+ * Result of a dictionary lookup for a merchant name. A {@code null} phonetic records that the
+ * dictionary has no entry for the word.
+ */
+public record MerchantPhoneticEntry(String word, String phonetic, Instant fetchedAt) {
+}
@@ -0,0 +1,44 @@
+package com.merchant.testing.repository;
+
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+/**
+ * Persistent copy of the phonetics cache, so a restart does not have to ask the dictionary
+ * again for every name it already knows.
+ */
+@Repository
+public class MerchantPhoneticRepository {
+    private static final String FIND_BY_WORD = "SELECT word, phonetic, fetched_at FROM merchant_phonetics WHERE word = ?";
+    private static final String UPSERT = """
+            INSERT INTO merchant_phonetics (word, phonetic, fetched_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (word) DO UPDATE SET phonetic = EXCLUDED.phonetic, fetched_at = EXCLUDED.fetched_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Bulkhead postgresBulkhead;
+
+    public MerchantPhoneticRepository(JdbcTemplate jdbcTemplate, @Qualifier("postgresBulkhead") Bulkhead postgresBulkhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgresBulkhead = postgresBulkhead;
+    }
+
+    public Optional<MerchantPhoneticEntry> findByWord(String word) {
+        return postgresBulkhead.call(() -> jdbcTemplate.query(FIND_BY_WORD, (resultSet, rowNum) -> new MerchantPhoneticEntry(
+                        resultSet.getString("word"),
+                        resultSet.getString("phonetic"),
+                        resultSet.getTimestamp("fetched_at").toInstant()), word)
+                .stream()
+                .findFirst());
+    }
+
+    public void save(MerchantPhoneticEntry entry) {
+        postgresBulkhead.run(() -> jdbcTemplate.update(UPSERT, entry.word(), entry.phonetic(), Timestamp.from(entry.fetchedAt())));
+    }
+}
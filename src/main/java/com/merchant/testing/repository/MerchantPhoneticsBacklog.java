@@ -0,0 +1,9 @@
+package com.merchant.testing.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Merchants still waiting for phonetics; {@code oldestCreatedAt} is {@code null} when there are none.
+ */
+public record MerchantPhoneticsBacklog(long pending, LocalDateTime oldestCreatedAt) {
+}
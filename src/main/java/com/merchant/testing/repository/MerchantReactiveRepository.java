@@ -0,0 +1,108 @@
+package com.merchant.testing.repository;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking reads of the merchants table over R2DBC, for the {@code reactive} profile.
+ * Writes still go through JPA.
+ */
+@Repository
+@Profile("reactive")
+public class MerchantReactiveRepository {
+    private static final String COLUMNS = "id, name, email, business_type, phonetics, created_at, updated_at";
+    private static final String FIND_BY_ID = "SELECT " + COLUMNS + " FROM merchants WHERE id = :id";
+    private static final String FIND_BY_EMAIL = "SELECT " + COLUMNS + " FROM merchants WHERE email = :email";
+    private static final String FIND_PAGE = "SELECT id, name, email, business_type FROM merchants WHERE id > :afterId ORDER BY id LIMIT :limit";
+    private static final String FIND_PAGE_BY_BUSINESS_TYPE =
+            "SELECT id, name, email, business_type FROM merchants WHERE business_type = :businessType AND id > :afterId ORDER BY id LIMIT :limit";
+    private static final String FIND_ALL = "SELECT " + COLUMNS + " FROM merchants ORDER BY id";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public MerchantReactiveRepository(ConnectionFactory connectionFactory,
+                                      @Value("${merchant.export.fetch-size:1000}") int fetchSize) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<Merchant> findById(long id) {
+        return databaseClient.sql(FIND_BY_ID)
+                .bind("id", id)
+                .map(MerchantReactiveRepository::toMerchant)
+                .one();
+    }
+
+    public Mono<Merchant> findByEmail(String email) {
+        return databaseClient.sql(FIND_BY_EMAIL)
+                .bind("email", email)
+                .map(MerchantReactiveRepository::toMerchant)
+                .one();
+    }
+
+    /**
+     * Keyset page of merchants ordered by id, starting after {@code afterId} (exclusive).
+     */
+    public Flux<MerchantView> findPage(long afterId, int limit) {
+        return databaseClient.sql(FIND_PAGE)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(MerchantReactiveRepository::toView)
+                .all();
+    }
+
+    /**
+     * Keyset page of the merchants of one business type, ordered by id.
+     */
+    public Flux<MerchantView> findPageByBusinessType(BusinessTypeEnum businessType, long afterId, int limit) {
+        return databaseClient.sql(FIND_PAGE_BY_BUSINESS_TYPE)
+                .bind("businessType", businessType.name())
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(MerchantReactiveRepository::toView)
+                .all();
+    }
+
+    /**
+     * Every merchant ordered by id. Rows are fetched {@code merchant.export.fetch-size} at a time
+     * as the subscriber asks for them, so a slow consumer holds back the query instead of
+     * buffering the table.
+     */
+    public Flux<Merchant> findAll() {
+        return databaseClient.sql(FIND_ALL)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(MerchantReactiveRepository::toMerchant)
+                .all();
+    }
+
+    private static MerchantView toView(Readable row) {
+        String businessType = row.get("business_type", String.class);
+        return new MerchantView(row.get("id", Long.class), row.get("name", String.class), row.get("email", String.class),
+                businessType != null ? BusinessTypeEnum.valueOf(businessType) : null);
+    }
+
+    private static Merchant toMerchant(Readable row) {
+        String businessType = row.get("business_type", String.class);
+        return MerchantBuilder.aMerchant()
+                .withId(row.get("id", Long.class))
+                .withName(row.get("name", String.class))
+                .withEmail(row.get("email", String.class))
+                .withBusinessType(businessType != null ? BusinessTypeEnum.valueOf(businessType) : null)
+                .withPhonetics(row.get("phonetics", String.class))
+                .withCreatedAt(row.get("created_at", LocalDateTime.class))
+                .withUpdatedAt(row.get("updated_at", LocalDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.merchant.testing.repository;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Plain JDBC reads for the merchant read path. Rows are mapped straight into detached merchants
+ * or {@link MerchantView}s: no persistence context, dirty-checking snapshot or flush, and no
+ * transaction beyond the statement itself. Calls run inside the Postgres bulkhead, like those
+ * of {@link MerchantRepository}.
+ * <p>
+ * Every statement carries a JDBC query timeout of {@code merchant.read.query-timeout}, so a lookup
+ * its caller has given up on is cancelled by Postgres instead of holding its connection. JDBC
+ * counts whole seconds, so the timeout is rounded up; callers wait on shorter deadlines of their
+ * own and leave the statement to finish or time out rather than interrupt it.
+ */
+@Repository
+public class MerchantReadRepository {
+    private static final String MERCHANT_COLUMNS = "SELECT id, name, email, business_type, phonetics, created_at, updated_at FROM merchants";
+    private static final String FIND_BY_ID = MERCHANT_COLUMNS + " WHERE id = ?";
+    private static final String FIND_BY_EMAIL = MERCHANT_COLUMNS + " WHERE email = ?";
+    private static final String FIND_ALL_BY_ID = MERCHANT_COLUMNS + " WHERE id = ANY(?)";
+    private static final String FIND_PAGE = "SELECT id, name, email, business_type FROM merchants WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String FIND_PAGE_BY_BUSINESS_TYPE =
+            "SELECT id, name, email, business_type FROM merchants WHERE business_type = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String COUNT_BY_BUSINESS_TYPE = "SELECT business_type, count(*) AS merchants FROM merchants GROUP BY business_type";
+
+    private static final RowMapper<Merchant> MERCHANT_MAPPER = (resultSet, rowNum) -> MerchantBuilder.aMerchant()
+            .withId(resultSet.getLong("id"))
+            .withName(resultSet.getString("name"))
+            .withEmail(resultSet.getString("email"))
+            .withBusinessType(businessType(resultSet.getString("business_type")))
+            .withPhonetics(resultSet.getString("phonetics"))
+            .withCreatedAt(toLocalDateTime(resultSet.getTimestamp("created_at")))
+            .withUpdatedAt(toLocalDateTime(resultSet.getTimestamp("updated_at")))
+            .build();
+    private static final RowMapper<MerchantView> VIEW_MAPPER = (resultSet, rowNum) -> new MerchantView(
+            resultSet.getLong("id"),
+            resultSet.getString("name"),
+            resultSet.getString("email"),
+            businessType(resultSet.getString("business_type")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Bulkhead postgresBulkhead;
+
+    public MerchantReadRepository(DataSource dataSource, @Qualifier("postgresBulkhead") Bulkhead postgresBulkhead,
+                                  @Value("${merchant.read.query-timeout:PT1S}") Duration queryTimeout) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout((int) Math.ceil(queryTimeout.toMillis() / 1000.0));
+        this.postgresBulkhead = postgresBulkhead;
+    }
+
+    public Optional<Merchant> findById(long id) {
+        return postgresBulkhead.call(() -> jdbcTemplate.query(FIND_BY_ID, MERCHANT_MAPPER, id).stream().findFirst());
+    }
+
+    public Optional<Merchant> findByEmail(String email) {
+        return postgresBulkhead.call(() -> jdbcTemplate.query(FIND_BY_EMAIL, MERCHANT_MAPPER, email).stream().findFirst());
+    }
+
+    public List<Merchant> findAllById(Collection<Long> ids) {
+        Long[] idArray = ids.toArray(Long[]::new);
+        return postgresBulkhead.call(() -> jdbcTemplate.query(FIND_ALL_BY_ID,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", idArray)),
+                MERCHANT_MAPPER));
+    }
+
+    /**
+     * Keyset page of merchants ordered by id, starting after {@code afterId} (exclusive), with
+     * only the columns a listing shows.
+     */
+    public List<MerchantView> findPage(long afterId, int limit) {
+        return postgresBulkhead.call(() -> jdbcTemplate.query(FIND_PAGE, VIEW_MAPPER, afterId, limit));
+    }
+
+    /**
+     * Keyset page of the merchants of one business type, ordered by id, served from
+     * {@code idx_merchants_business_type_id}.
+     */
+    public List<MerchantView> findPageByBusinessType(BusinessTypeEnum businessType, long afterId, int limit) {
+        return postgresBulkhead.call(() -> jdbcTemplate.query(FIND_PAGE_BY_BUSINESS_TYPE, VIEW_MAPPER, businessType.name(), afterId, limit));
+    }
+
+    /**
+     * Merchants per business type; those without one are counted under the null key.
+     */
+    public Map<BusinessTypeEnum, Long> countByBusinessType() {
+        return postgresBulkhead.call(() -> {
+            Map<BusinessTypeEnum, Long> counts = new HashMap<>();
+            jdbcTemplate.query(COUNT_BY_BUSINESS_TYPE, (RowCallbackHandler) resultSet ->
+                    counts.put(businessType(resultSet.getString("business_type")), resultSet.getLong("merchants")));
+            return counts;
+        });
+    }
+
+    private static BusinessTypeEnum businessType(String businessType) {
+        return businessType != null ? BusinessTypeEnum.valueOf(businessType) : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -1,10 +1,20 @@
 package com.merchant.testing.repository;
 
 import com.merchant.testing.entity.Merchant;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 public interface MerchantRepository extends JpaRepository<Merchant, Long> {
@@ -12,4 +22,23 @@ public interface MerchantRepository extends JpaRepository<Merchant, Long> {
     Optional<Merchant> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    /**
+     * Reads the merchant with {@code SELECT ... FOR UPDATE}, so that concurrent writes to it in
+     * other transactions wait until this one ends and then see what it wrote.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select m from Merchant m where m.id = :id")
+    Optional<Merchant> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select new com.merchant.testing.repository.MerchantKeyView(m.id, m.email) from Merchant m")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<MerchantKeyView> streamAllKeys();
+
+    @Transactional(readOnly = true)
+    default void forEachKey(Consumer<MerchantKeyView> consumer) {
+        try (Stream<MerchantKeyView> keys = streamAllKeys()) {
+            keys.forEach(consumer);
+        }
+    }
 }
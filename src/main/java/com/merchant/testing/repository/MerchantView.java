@@ -0,0 +1,6 @@
+package com.merchant.testing.repository;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+
+public record MerchantView(Long id, String name, String email, BusinessTypeEnum businessType) {
+}
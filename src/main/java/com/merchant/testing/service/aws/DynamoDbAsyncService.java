@@ -0,0 +1,80 @@
+package com.merchant.testing.service.aws;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link DynamoDbService}. The returned futures complete on the
+ * SDK's completion executor, never on the caller's thread.
+ */
+@Service
+public class DynamoDbAsyncService {
+
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+
+    @Value("${aws.dynamodb.table}")
+    private String tableName;
+
+    @Value("${aws.dynamodb.email-index:MerchantEmailIndex}")
+    private String emailIndexName;
+
+    public DynamoDbAsyncService(DynamoDbAsyncClient dynamoDbAsyncClient) {
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+    }
+
+    public CompletableFuture<Void> putItem(String id, String merchantName) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("id", AttributeValue.builder().s(id).build());
+        item.put("merchantName", AttributeValue.builder().s(merchantName).build());
+
+        PutItemRequest request = PutItemRequest.builder()
+                .tableName(tableName)
+                .item(item)
+                .build();
+
+        return dynamoDbAsyncClient.putItem(request).thenApply(response -> null);
+    }
+
+    /**
+     * Completes with {@code null} when there is no item with the given id.
+     */
+    public CompletableFuture<Map<String, AttributeValue>> getItem(String id) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("id", AttributeValue.builder().s(id).build());
+
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(tableName)
+                .key(key)
+                .build();
+
+        return dynamoDbAsyncClient.getItem(request)
+                .thenApply(response -> response.hasItem() ? response.item() : null);
+    }
+
+    /**
+     * Completes with {@code null} when no item has the email. See {@link DynamoDbService#queryItemByEmail(String)}.
+     */
+    public CompletableFuture<Map<String, AttributeValue>> queryItemByEmail(String email) {
+        QueryRequest request = QueryRequest.builder()
+                .tableName(tableName)
+                .indexName(emailIndexName)
+                .keyConditionExpression("email = :email")
+                .expressionAttributeValues(Map.of(":email", AttributeValue.builder().s(email).build()))
+                .projectionExpression(DynamoDbService.MERCHANT_PROJECTION)
+                .expressionAttributeNames(DynamoDbService.MERCHANT_PROJECTION_NAMES)
+                .limit(1)
+                .build();
+
+        return dynamoDbAsyncClient.query(request)
+                .thenApply(response -> response.hasItems() && !response.items().isEmpty() ? response.items().getFirst() : null);
+    }
+}
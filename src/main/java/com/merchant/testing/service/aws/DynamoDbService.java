@@ -1,23 +1,46 @@
 package com.merchant.testing.service.aws;
 
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class DynamoDbService {
 
+    private static final int BATCH_GET_MAX_KEYS = 100;
+    private static final int BATCH_WRITE_MAX_REQUESTS = 25;
+    private static final int BATCH_MAX_ATTEMPTS = 5;
+    private static final long BATCH_BASE_BACKOFF_MILLIS = 25;
+
+    /**
+     * Attributes read back for a merchant; {@code name} is a reserved word, hence the placeholder.
+     * {@code updatedAt} versions the merchant for HTTP validators.
+     */
+    static final String MERCHANT_PROJECTION = "id, #n, email, businessType, phonetics, updatedAt";
+    static final Map<String, String> MERCHANT_PROJECTION_NAMES = Map.of("#n", "name");
+
     private final DynamoDbClient dynamoDbClient;
+    private final Bulkhead dynamoDbBulkhead;
 
     @Value("${aws.dynamodb.table}")
     private String tableName;
 
-    public DynamoDbService(DynamoDbClient dynamoDbClient) {
+    @Value("${aws.dynamodb.email-index:MerchantEmailIndex}")
+    private String emailIndexName;
+
+    public DynamoDbService(DynamoDbClient dynamoDbClient, @Qualifier("dynamoDbBulkhead") Bulkhead dynamoDbBulkhead) {
         this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbBulkhead = dynamoDbBulkhead;
     }
 
     public void putItem(String id, String merchantName) {
@@ -30,15 +53,32 @@ public class DynamoDbService {
                 .item(item)
                 .build();
 
-        dynamoDbClient.putItem(request);
+        dynamoDbBulkhead.run(() -> dynamoDbClient.putItem(request));
     }
-    public Map<String, AttributeValue> queryItem(Map<String, String> filter) {
-        Map<String, AttributeValue> item = new HashMap<>();
-        for (Map.Entry<String, String> entry : filter.entrySet()) {
-            item.put(entry.getKey(), AttributeValue.builder().s(entry.getValue()).build());
-        }
-        return item;
+    /**
+     * Looks the merchant up on the email index. Returns {@code null} when no item has the email.
+     * The index is eventually consistent, so an item written moments ago may not be found yet.
+     */
+    public Map<String, AttributeValue> queryItemByEmail(String email) {
+        QueryResponse response = dynamoDbBulkhead.call(() -> dynamoDbClient.query(emailQuery(email)));
+        return response.hasItems() && !response.items().isEmpty() ? response.items().getFirst() : null;
+    }
+
+    private QueryRequest emailQuery(String email) {
+        return QueryRequest.builder()
+                .tableName(tableName)
+                .indexName(emailIndexName)
+                .keyConditionExpression("email = :email")
+                .expressionAttributeValues(Map.of(":email", AttributeValue.builder().s(email).build()))
+                .projectionExpression(MERCHANT_PROJECTION)
+                .expressionAttributeNames(MERCHANT_PROJECTION_NAMES)
+                .limit(1)
+                .build();
     }
+
+    /**
+     * Returns {@code null} when there is no item with the given id.
+     */
     public Map<String, AttributeValue> getItem(String id) {
         Map<String, AttributeValue> key = new HashMap<>();
         key.put("id", AttributeValue.builder().s(id).build());
@@ -48,7 +88,91 @@ public class DynamoDbService {
                 .key(key)
                 .build();
 
-        GetItemResponse response = dynamoDbClient.getItem(request);
-        return response.item();
+        GetItemResponse response = dynamoDbBulkhead.call(() -> dynamoDbClient.getItem(request));
+        return response.hasItem() ? response.item() : null;
+    }
+
+    /**
+     * Reads the given ids with BatchGetItem, 100 keys per request, retrying unprocessed keys
+     * with exponential backoff. Keys still unprocessed after the last attempt are left out of
+     * the result, so callers see them as misses.
+     */
+    public List<Map<String, AttributeValue>> batchGetItems(Collection<String> ids) {
+        List<Map<String, AttributeValue>> items = new ArrayList<>(ids.size());
+        List<Map<String, AttributeValue>> keys = ids.stream()
+                .distinct()
+                .map(id -> Map.of("id", AttributeValue.builder().s(id).build()))
+                .toList();
+
+        for (int from = 0; from < keys.size(); from += BATCH_GET_MAX_KEYS) {
+            Map<String, KeysAndAttributes> requestItems = new HashMap<>();
+            requestItems.put(tableName, KeysAndAttributes.builder()
+                    .keys(keys.subList(from, Math.min(from + BATCH_GET_MAX_KEYS, keys.size())))
+                    .build());
+
+            for (int attempt = 0; !requestItems.isEmpty() && attempt < BATCH_MAX_ATTEMPTS; attempt++) {
+                if (attempt > 0) {
+                    backoff(attempt);
+                }
+                BatchGetItemRequest request = BatchGetItemRequest.builder()
+                        .requestItems(requestItems)
+                        .build();
+                BatchGetItemResponse response = dynamoDbBulkhead.call(() -> dynamoDbClient.batchGetItem(request));
+                items.addAll(response.responses().getOrDefault(tableName, List.of()));
+                requestItems = response.unprocessedKeys();
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Puts and deletes items with BatchWriteItem, 25 requests per call, retrying unprocessed
+     * requests with exponential backoff. Unlike reads, writes are never dropped silently: if some
+     * are still unprocessed after the last attempt this throws. A key must not appear twice.
+     */
+    public void batchWriteItems(Collection<Map<String, AttributeValue>> items, Collection<String> deletedIds) {
+        List<WriteRequest> writes = new ArrayList<>(items.size() + deletedIds.size());
+        items.forEach(item -> writes.add(WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(item).build())
+                .build()));
+        deletedIds.forEach(id -> writes.add(WriteRequest.builder()
+                .deleteRequest(DeleteRequest.builder().key(Map.of("id", AttributeValue.builder().s(id).build())).build())
+                .build()));
+
+        for (int from = 0; from < writes.size(); from += BATCH_WRITE_MAX_REQUESTS) {
+            Map<String, List<WriteRequest>> requestItems = new HashMap<>();
+            requestItems.put(tableName, writes.subList(from, Math.min(from + BATCH_WRITE_MAX_REQUESTS, writes.size())));
+
+            for (int attempt = 0; !requestItems.isEmpty(); attempt++) {
+                if (attempt == BATCH_MAX_ATTEMPTS) {
+                    throw new IllegalStateException("DynamoDB batch write still has unprocessed items after " + attempt + " attempts");
+                }
+                if (attempt > 0) {
+                    backoff(attempt);
+                }
+                BatchWriteItemRequest request = BatchWriteItemRequest.builder()
+                        .requestItems(requestItems)
+                        .build();
+                requestItems = dynamoDbBulkhead.call(() -> dynamoDbClient.batchWriteItem(request)).unprocessedItems();
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(BATCH_BASE_BACKOFF_MILLIS << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying DynamoDB batch", e);
+        }
+    }
+
+    public void scanItems(String projectionExpression, Consumer<Map<String, AttributeValue>> consumer) {
+        ScanRequest request = ScanRequest.builder()
+                .tableName(tableName)
+                .projectionExpression(projectionExpression)
+                .build();
+
+        dynamoDbBulkhead.run(() -> dynamoDbClient.scanPaginator(request).items().forEach(consumer));
     }
 }
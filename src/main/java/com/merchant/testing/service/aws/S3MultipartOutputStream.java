@@ -0,0 +1,165 @@
+package com.merchant.testing.service.aws;
+
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uploads what is written to it in parts of a fixed size, holding at most one part in memory. An
+ * object that fits in one part is sent with a plain PUT; a larger one becomes a multipart upload,
+ * started when the first part fills up. Closing does nothing: the owner calls {@link #complete()}
+ * once everything is written, or {@link #abort()} on failure, so a writer that closes its stream
+ * while failing cannot publish a truncated object.
+ */
+final class S3MultipartOutputStream extends OutputStream {
+    private static final Logger log = LoggerFactory.getLogger(S3MultipartOutputStream.class);
+    /**
+     * Every part but the last must be at least this large.
+     */
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final String CONTENT_TYPE = "application/octet-stream";
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final S3Client s3Client;
+    private final Bulkhead s3Bulkhead;
+    private final String bucketName;
+    private final String key;
+    private final int partSize;
+    private byte[] part = new byte[INITIAL_BUFFER_SIZE];
+    private final List<CompletedPart> completedParts = new ArrayList<>();
+    private int buffered;
+    private String uploadId;
+    private boolean finished;
+
+    S3MultipartOutputStream(S3Client s3Client, Bulkhead s3Bulkhead, String bucketName, String key, int partSize) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("S3 multipart parts must be at least " + MIN_PART_SIZE + " bytes, got " + partSize);
+        }
+        this.s3Client = s3Client;
+        this.s3Bulkhead = s3Bulkhead;
+        this.bucketName = bucketName;
+        this.key = key;
+        this.partSize = partSize;
+    }
+
+    @Override
+    public void write(int b) {
+        if (buffered == part.length) {
+            makeRoom();
+        }
+        part[buffered++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            if (buffered == part.length) {
+                makeRoom();
+            }
+            int copied = Math.min(length, part.length - buffered);
+            System.arraycopy(bytes, offset, part, buffered, copied);
+            buffered += copied;
+            offset += copied;
+            length -= copied;
+        }
+    }
+
+    void complete() {
+        if (uploadId == null) {
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build();
+            RequestBody body = bufferedBody();
+            s3Bulkhead.run(() -> s3Client.putObject(request, body));
+            finished = true;
+            return;
+        }
+        uploadPart();
+        CompleteMultipartUploadRequest request = CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                .build();
+        s3Bulkhead.run(() -> s3Client.completeMultipartUpload(request));
+        finished = true;
+    }
+
+    /**
+     * Discards the parts uploaded so far. Failing to abort is logged rather than thrown, so it
+     * does not hide the error that caused it; a bucket lifecycle rule should clean up leftovers.
+     */
+    void abort() {
+        if (finished || uploadId == null) {
+            return;
+        }
+        finished = true;
+        AbortMultipartUploadRequest request = AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .build();
+        try {
+            s3Bulkhead.run(() -> s3Client.abortMultipartUpload(request));
+        } catch (RuntimeException e) {
+            log.warn("Failed to abort multipart upload {} of {}", uploadId, key, e);
+        }
+    }
+
+    /**
+     * The buffer grows up to a part, so small objects do not cost a whole part of heap.
+     */
+    private void makeRoom() {
+        if (part.length < partSize) {
+            part = Arrays.copyOf(part, Math.min(part.length * 2, partSize));
+        } else {
+            uploadPart();
+        }
+    }
+
+    private void uploadPart() {
+        if (uploadId == null) {
+            CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build();
+            uploadId = s3Bulkhead.call(() -> s3Client.createMultipartUpload(request)).uploadId();
+        }
+        int partNumber = completedParts.size() + 1;
+        UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .build();
+        RequestBody body = bufferedBody();
+        String eTag = s3Bulkhead.call(() -> s3Client.uploadPart(request, body)).eTag();
+        completedParts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+        buffered = 0;
+    }
+
+    /**
+     * Reads the part buffer in place; the upload is synchronous, so the buffer is not reused before it is sent.
+     */
+    private RequestBody bufferedBody() {
+        byte[] content = part;
+        int length = buffered;
+        return RequestBody.fromContentProvider(() -> new ByteArrayInputStream(content, 0, length), length, CONTENT_TYPE);
+    }
+}
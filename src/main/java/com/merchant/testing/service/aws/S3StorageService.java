@@ -1,39 +1,173 @@
 package com.merchant.testing.service.aws;
 
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 @Service
 public class S3StorageService {
 
+    private static final int DELETE_OBJECTS_MAX_KEYS = 1000;
+
     private final S3Client s3Client;
+    private final Bulkhead s3Bulkhead;
 
     @Value("${aws.s3.bucket}")
     private String bucketName;
 
-    public S3StorageService(S3Client s3Client) {
+    @Value("${aws.s3.multipart-part-size:8MB}")
+    private DataSize multipartPartSize = DataSize.ofMegabytes(8);
+
+    public S3StorageService(S3Client s3Client, @Qualifier("s3Bulkhead") Bulkhead s3Bulkhead) {
         this.s3Client = s3Client;
+        this.s3Bulkhead = s3Bulkhead;
     }
 
-    public void uploadFile(String key, String content) {
+    public void uploadBytes(String key, byte[] content) {
         PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                 .bucket(bucketName)
                 .key(key)
                 .build();
 
-        s3Client.putObject(putObjectRequest, RequestBody.fromString(content));
+        s3Bulkhead.run(() -> s3Client.putObject(putObjectRequest, RequestBody.fromBytes(content)));
+    }
+
+    /**
+     * Streams whatever {@code writer} writes to the object, holding one part of
+     * {@code aws.s3.multipart-part-size} in memory; larger objects go up as a multipart upload.
+     * The object appears only if the writer returns normally.
+     */
+    public void write(String key, StreamWriter writer) {
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3Client, s3Bulkhead, bucketName, key,
+                Math.toIntExact(multipartPartSize.toBytes()));
+        try {
+            writer.write(out);
+            out.complete();
+        } catch (IOException e) {
+            out.abort();
+            throw new UncheckedIOException("Failed to write S3 object " + key, e);
+        } catch (RuntimeException e) {
+            out.abort();
+            throw e;
+        }
+    }
+
+    public void upload(String key, InputStream content) {
+        write(key, content::transferTo);
+    }
+
+    /**
+     * All keys under the prefix, in lexicographic order.
+     */
+    public List<String> listKeys(String prefix) {
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .build();
+
+        return s3Bulkhead.call(() -> s3Client.listObjectsV2Paginator(request).contents().stream()
+                .map(S3Object::key)
+                .toList());
+    }
+
+    /**
+     * Deletes the given keys with DeleteObjects, up to 1000 keys per request. Missing keys are not an error.
+     */
+    public void deleteFiles(List<String> keys) {
+        for (int from = 0; from < keys.size(); from += DELETE_OBJECTS_MAX_KEYS) {
+            List<ObjectIdentifier> objects = keys.subList(from, Math.min(from + DELETE_OBJECTS_MAX_KEYS, keys.size()))
+                    .stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(objects).quiet(true).build())
+                    .build();
+            DeleteObjectsResponse response = s3Bulkhead.call(() -> s3Client.deleteObjects(request));
+            if (response.hasErrors() && !response.errors().isEmpty()) {
+                throw new IllegalStateException("Failed to delete " + response.errors().size() + " S3 objects, first: "
+                        + response.errors().getFirst().key() + " " + response.errors().getFirst().code());
+            }
+        }
+    }
+
+    public byte[] downloadBytes(String key) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+
+        return s3Bulkhead.call(() -> s3Client.getObjectAsBytes(getObjectRequest)).asByteArray();
+    }
+
+    /**
+     * Hands the object's content to {@code reader} as it arrives, without buffering it.
+     */
+    public <T> T read(String key, StreamReader<T> reader) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+
+        return read(getObjectRequest, reader);
     }
 
-    public String downloadFile(String key) {
+    /**
+     * Hands {@code length} bytes starting at {@code offset}, fetched with a single ranged GET, to {@code reader}.
+     */
+    public <T> T readRange(String key, long offset, int length, StreamReader<T> reader) {
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(key)
+                .range(byteRange(offset, length))
                 .build();
 
-        return s3Client.getObjectAsBytes(getObjectRequest).asUtf8String();
+        return read(getObjectRequest, reader);
+    }
+
+    private <T> T read(GetObjectRequest getObjectRequest, StreamReader<T> reader) {
+        try {
+            return s3Bulkhead.call(() -> {
+                try (ResponseInputStream<GetObjectResponse> content = s3Client.getObject(getObjectRequest)) {
+                    return reader.read(content);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read S3 object " + getObjectRequest.key(), e);
+        }
+    }
+
+    static String byteRange(long offset, int length) {
+        return "bytes=" + offset + "-" + (offset + length - 1);
+    }
+
+    @FunctionalInterface
+    public interface StreamReader<T> {
+        T read(InputStream content) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface StreamWriter {
+        void write(OutputStream content) throws IOException;
     }
 }
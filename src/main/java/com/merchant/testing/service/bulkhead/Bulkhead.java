@@ -0,0 +1,109 @@
+package com.merchant.testing.service.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semaphore bulkhead in front of one backend: at most {@code maxConcurrent} calls run at a time,
+ * and further callers queue in arrival order for up to {@code maxWait} before being rejected with
+ * {@link BulkheadFullException}. With virtual threads a burst costs almost nothing to start, so
+ * this is what keeps it from piling onto the backend's own connection pool.
+ * <p>
+ * A call made by a thread that already holds a permit of the same bulkhead runs straight away,
+ * so nested calls cannot deadlock on it.
+ */
+public final class Bulkhead {
+    private final String backend;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final ThreadLocal<Boolean> holdsPermit = new ThreadLocal<>();
+    private final Timer waits;
+    private final Counter rejections;
+
+    public Bulkhead(String backend, int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        this.backend = backend;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.waits = Timer.builder("bulkhead.wait")
+                .description("Time spent queueing for a permit by calls that got one")
+                .tag("backend", backend)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejections = Counter.builder("bulkhead.rejections")
+                .description("Calls rejected after waiting the maximum time for a permit")
+                .tag("backend", backend)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.active", this, bulkhead -> bulkhead.maxConcurrent - bulkhead.permits.availablePermits())
+                .tag("backend", backend)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", permits, Semaphore::getQueueLength)
+                .tag("backend", backend)
+                .register(meterRegistry);
+    }
+
+    public <T, E extends Throwable> T call(Call<T, E> call) throws E {
+        if (!enter()) {
+            return call.call();
+        }
+        try {
+            return call.call();
+        } finally {
+            exit();
+        }
+    }
+
+    public void run(Runnable runnable) {
+        call(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Takes a permit for work that spans several calls, such as a transaction, and holds it for
+     * this thread until {@link #exit()}. Returns {@code false}, taking nothing, if this thread
+     * already holds a permit; only a {@code true} must be matched by an {@code exit()}.
+     */
+    public boolean enter() {
+        if (holdsPermit.get() != null) {
+            return false;
+        }
+        acquire();
+        holdsPermit.set(Boolean.TRUE);
+        return true;
+    }
+
+    public void exit() {
+        holdsPermit.remove();
+        permits.release();
+    }
+
+    private void acquire() {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + backend + " permit", e);
+        }
+        if (!acquired) {
+            rejections.increment();
+            throw new BulkheadFullException(backend, maxConcurrent, maxWait);
+        }
+        waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @FunctionalInterface
+    public interface Call<T, E extends Throwable> {
+        T call() throws E;
+    }
+}
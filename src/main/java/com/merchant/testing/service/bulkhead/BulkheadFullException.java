@@ -0,0 +1,17 @@
+package com.merchant.testing.service.bulkhead;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+/**
+ * A backend is saturated; answered with 503 so clients back off instead of timing out.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String backend, int maxConcurrent, Duration maxWait) {
+        super("All " + maxConcurrent + " " + backend + " permits still taken after " + maxWait);
+    }
+}
@@ -0,0 +1,56 @@
+package com.merchant.testing.service.bulkhead;
+
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds a permit of a {@link Bulkhead} for the whole of each transaction: taken before the
+ * transaction begins, so before it checks out a connection, and given back once it has committed
+ * or rolled back. Calls made inside the transaction then run on that permit, so a transaction never
+ * waits for a permit while holding a connection, and everything it runs is bounded, whichever
+ * repository or template it goes through.
+ */
+public final class BulkheadTransactionListener implements TransactionExecutionListener {
+    private final Bulkhead bulkhead;
+    private final Set<TransactionExecution> holding = ConcurrentHashMap.newKeySet();
+
+    public BulkheadTransactionListener(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public void beforeBegin(TransactionExecution transaction) {
+        if (bulkhead.enter()) {
+            holding.add(transaction);
+        }
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null) {
+            release(transaction);
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        release(transaction);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        release(transaction);
+    }
+
+    /**
+     * A failed commit is followed by a rollback, so the permit may be released twice over.
+     */
+    private void release(TransactionExecution transaction) {
+        if (holding.remove(transaction)) {
+            bulkhead.exit();
+        }
+    }
+}
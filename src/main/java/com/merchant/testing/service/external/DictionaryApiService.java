@@ -1,50 +1,120 @@
 package com.merchant.testing.service.external;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class DictionaryApiService {
+    private static final int NOT_FOUND = 404;
 
     private final OkHttpClient httpClient;
     private final String baseUrl;
     private final ObjectMapper objectMapper;
+    private final Bulkhead dictionaryApiBulkhead;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer found;
+    private final Timer notFound;
+    private final Timer failed;
 
-    public DictionaryApiService(OkHttpClient httpClient, @Value("external.api.base-url") String baseUrl, ObjectMapper objectMapper) {
+    public DictionaryApiService(OkHttpClient httpClient, @Value("${external.api.base-url}") String baseUrl, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry, @Qualifier("dictionaryApiBulkhead") Bulkhead dictionaryApiBulkhead) {
         this.httpClient = httpClient;
         this.baseUrl = baseUrl;
         this.objectMapper = objectMapper;
+        this.dictionaryApiBulkhead = dictionaryApiBulkhead;
+        this.found = requestTimer(meterRegistry, "found");
+        this.notFound = requestTimer(meterRegistry, "not_found");
+        this.failed = requestTimer(meterRegistry, "error");
+        Gauge.builder("dictionary.api.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
     }
 
+    /**
+     * Dictionary entries for the word, keeping only their plain text fields. An empty list
+     * means the dictionary has no entry for the word.
+     */
     public List<Map<String, String>> getDictionary(String word) {
         try {
-            return List.of(objectMapper.readValue(fetchData("/api/v2/entries/en/" + word), new TypeReference<Map<String, String>[]>() {
-            }));
+            String body = dictionaryApiBulkhead.call(() -> fetchData(word));
+            if (body == null) {
+                return List.of();
+            }
+            List<Map<String, String>> entries = new ArrayList<>();
+            for (JsonNode entry : objectMapper.readTree(body)) {
+                Map<String, String> fields = new HashMap<>();
+                entry.fields().forEachRemaining(field -> {
+                    if (field.getValue().isTextual()) {
+                        fields.put(field.getKey(), field.getValue().asText());
+                    }
+                });
+                entries.add(fields);
+            }
+            return entries;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private String fetchData(String endpoint) throws IOException {
+    private String fetchData(String word) throws IOException {
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        Timer outcome = failed;
+        try {
+            String body = call(word);
+            outcome = body != null ? found : notFound;
+            return body;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private String call(String word) throws IOException {
+        HttpUrl url = HttpUrl.get(baseUrl).newBuilder()
+                .addPathSegments("api/v2/entries/en")
+                .addPathSegment(word)
+                .build();
         Request request = new Request.Builder()
-                .url(baseUrl + endpoint)
+                .url(url)
                 .get()
                 .build();
 
         try (Response response = httpClient.newCall(request).execute()) {
+            if (response.code() == NOT_FOUND) {
+                return null;
+            }
             if (!response.isSuccessful()) {
                 throw new IOException("Unexpected response code: " + response);
             }
             return response.body() != null ? response.body().string() : "";
         }
     }
+
+    private static Timer requestTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("dictionary.api.requests")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,163 @@
+package com.merchant.testing.service.merchant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import com.merchant.testing.repository.MerchantBulkRepository;
+import com.merchant.testing.service.merchant.bean.MerchantBulkOutcomeBean;
+import com.merchant.testing.service.merchant.bean.MerchantCreateBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk merchant creation from NDJSON. Lines are parsed one at a time and written in batches of
+ * {@code merchant.bulk.batch-size}: one sequence call per id block and one
+ * {@code INSERT ... ON CONFLICT (email) DO NOTHING} per batch. One outcome line is streamed back
+ * per input line, in input order, after each batch commits.
+ * <p>
+ * Each batch is inserted in its own transaction, which its events are published in, so the
+ * outbox rows written for them commit or roll back with the merchants.
+ * <p>
+ * Phonetics are not looked up here; {@link MerchantPhoneticEnrichmentService} fills them in afterwards.
+ */
+@Service
+public class MerchantBulkService {
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final MerchantBulkRepository merchantBulkRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+
+    public MerchantBulkService(MerchantBulkRepository merchantBulkRepository, ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                               @Value("${merchant.bulk.batch-size:500}") int batchSize) {
+        this.merchantBulkRepository = merchantBulkRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public void createMerchants(InputStream ndjson, OutputStream outcomes) throws IOException {
+        ObjectReader merchantReader = objectMapper.readerFor(MerchantCreateBean.class);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        try (SequenceWriter outcomeWriter = objectMapper.writerFor(MerchantBulkOutcomeBean.class)
+                .withRootValueSeparator("\n")
+                .writeValues(outcomes)) {
+            List<BulkRow> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(parse(merchantReader, lineNumber, line));
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, outcomeWriter);
+                }
+            }
+            writeBatch(batch, outcomeWriter);
+        }
+    }
+
+    private BulkRow parse(ObjectReader merchantReader, long lineNumber, String line) {
+        MerchantCreateBean merchantCreateBean;
+        try {
+            merchantCreateBean = merchantReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return BulkRow.rejected(MerchantBulkOutcomeBean.invalid(lineNumber, e.getOriginalMessage()));
+        }
+        String error = validate(merchantCreateBean);
+        if (error != null) {
+            return BulkRow.rejected(MerchantBulkOutcomeBean.invalid(lineNumber, error));
+        }
+        return BulkRow.accepted(lineNumber, MerchantBuilder.aMerchant()
+                .withName(merchantCreateBean.name())
+                .withEmail(merchantCreateBean.email())
+                .withBusinessType(merchantCreateBean.businessType())
+                .build());
+    }
+
+    private String validate(MerchantCreateBean merchantCreateBean) {
+        if (merchantCreateBean == null) {
+            return "Merchant must not be null";
+        }
+        if (merchantCreateBean.name() == null || merchantCreateBean.name().isBlank()) {
+            return "Merchant name is required";
+        }
+        if (merchantCreateBean.email() == null || merchantCreateBean.email().isBlank()) {
+            return "Merchant email is required";
+        }
+        if (merchantCreateBean.name().length() > MAX_COLUMN_LENGTH || merchantCreateBean.email().length() > MAX_COLUMN_LENGTH) {
+            return "Merchant name and email must be at most " + MAX_COLUMN_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private void writeBatch(List<BulkRow> batch, SequenceWriter outcomeWriter) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Merchant> merchants = batch.stream()
+                .filter(row -> row.merchant() != null)
+                .map(BulkRow::merchant)
+                .toList();
+        Set<Long> inserted = merchants.isEmpty() ? Set.of() : batchTransaction.execute(status -> insert(merchants));
+
+        for (BulkRow row : batch) {
+            if (row.merchant() == null) {
+                outcomeWriter.write(row.outcome());
+            } else if (inserted.contains(row.merchant().getId())) {
+                outcomeWriter.write(MerchantBulkOutcomeBean.created(row.line(), row.merchant().getId()));
+            } else {
+                outcomeWriter.write(MerchantBulkOutcomeBean.duplicate(row.line()));
+            }
+        }
+        outcomeWriter.flush();
+        batch.clear();
+    }
+
+    private Set<Long> insert(List<Merchant> merchants) {
+        Iterator<Long> ids = merchantBulkRepository.allocateIds(merchants.size()).iterator();
+        merchants.forEach(merchant -> merchant.setId(ids.next()));
+        Set<Long> inserted = merchantBulkRepository.insertIgnoringDuplicateEmails(merchants);
+        for (Merchant merchant : merchants) {
+            if (inserted.contains(merchant.getId())) {
+                eventPublisher.publishEvent(new MerchantChangedEvent(MerchantChangedEvent.ChangeType.CREATED, merchant.getId(), merchant.getEmail(), merchant.getName()));
+                eventPublisher.publishEvent(MerchantCountChangedEvent.created(merchant.getBusinessType()));
+            }
+        }
+        return inserted;
+    }
+
+    private record BulkRow(long line, Merchant merchant, MerchantBulkOutcomeBean outcome) {
+
+        static BulkRow accepted(long line, Merchant merchant) {
+            return new BulkRow(line, merchant, null);
+        }
+
+        static BulkRow rejected(MerchantBulkOutcomeBean outcome) {
+            return new BulkRow(outcome.line(), null, outcome);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.merchant.testing.service.merchant;
+
+/**
+ * A committed merchant write. {@code email} and {@code name} are the merchant's values after the
+ * write, or null when the write did not set them (deletes, phonetics enrichment).
+ */
+record MerchantChangedEvent(ChangeType changeType, Long merchantId, String email, String name) {
+
+    enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
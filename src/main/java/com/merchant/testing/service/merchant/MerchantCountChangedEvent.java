@@ -0,0 +1,23 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+
+/**
+ * A committed write that changes the merchant counts: {@code total} merchants were added (or
+ * removed, when negative), and one merchant left {@code removedFrom} and joined {@code addedTo}.
+ * Either business type is null when the merchant has none on that side of the write.
+ */
+record MerchantCountChangedEvent(int total, BusinessTypeEnum removedFrom, BusinessTypeEnum addedTo) {
+
+    static MerchantCountChangedEvent created(BusinessTypeEnum businessType) {
+        return new MerchantCountChangedEvent(1, null, businessType);
+    }
+
+    static MerchantCountChangedEvent deleted(BusinessTypeEnum businessType) {
+        return new MerchantCountChangedEvent(-1, businessType, null);
+    }
+
+    static MerchantCountChangedEvent retyped(BusinessTypeEnum from, BusinessTypeEnum to) {
+        return new MerchantCountChangedEvent(0, from, to);
+    }
+}
@@ -0,0 +1,112 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.repository.MerchantReadRepository;
+import com.merchant.testing.service.merchant.bean.MerchantCountsBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Merchant counts per business type, held in memory so that reading them never reaches the
+ * database. They are counted with a {@code GROUP BY} at startup and every
+ * {@code merchant.counts.refresh-interval}, and moved by every write committed on this node in
+ * between. Writes made by other nodes are only seen after the next refresh, and a write that
+ * commits while the refresh query runs may be counted twice until the one after.
+ */
+@Service
+public class MerchantCountService {
+    private static final Logger log = LoggerFactory.getLogger(MerchantCountService.class);
+    private static final BusinessTypeEnum[] BUSINESS_TYPES = BusinessTypeEnum.values();
+
+    private final MerchantReadRepository merchantReadRepository;
+    private final long[] counts = new long[BUSINESS_TYPES.length];
+    private long total;
+    private boolean loaded;
+    /** Changes committed while a refresh query runs, added on top of its result; null otherwise. */
+    private long[] pendingCounts;
+    private long pendingTotal;
+
+    public MerchantCountService(MerchantReadRepository merchantReadRepository, MeterRegistry meterRegistry) {
+        this.merchantReadRepository = merchantReadRepository;
+        for (BusinessTypeEnum businessType : BUSINESS_TYPES) {
+            Gauge.builder("merchant.count", this, service -> service.count(businessType))
+                    .tag("business_type", businessType.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public synchronized MerchantCountsBean getMerchantCounts() {
+        if (!loaded) {
+            throw new MerchantUnavailableException("Merchant counts have not been loaded yet");
+        }
+        Map<BusinessTypeEnum, Long> businessTypes = new EnumMap<>(BusinessTypeEnum.class);
+        for (BusinessTypeEnum businessType : BUSINESS_TYPES) {
+            businessTypes.put(businessType, counts[businessType.ordinal()]);
+        }
+        return new MerchantCountsBean(total, businessTypes);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    synchronized void onMerchantCountChanged(MerchantCountChangedEvent event) {
+        total += event.total();
+        move(counts, event);
+        if (pendingCounts != null) {
+            pendingTotal += event.total();
+            move(pendingCounts, event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${merchant.counts.refresh-interval:PT15M}")
+    void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh the merchant counts, keeping the previous ones", e);
+        }
+    }
+
+    void refresh() {
+        synchronized (this) {
+            pendingCounts = new long[BUSINESS_TYPES.length];
+            pendingTotal = 0;
+        }
+        try {
+            Map<BusinessTypeEnum, Long> counted = merchantReadRepository.countByBusinessType();
+            synchronized (this) {
+                total = pendingTotal;
+                for (Long count : counted.values()) {
+                    total += count;
+                }
+                for (BusinessTypeEnum businessType : BUSINESS_TYPES) {
+                    counts[businessType.ordinal()] = counted.getOrDefault(businessType, 0L) + pendingCounts[businessType.ordinal()];
+                }
+                loaded = true;
+            }
+        } finally {
+            synchronized (this) {
+                pendingCounts = null;
+            }
+        }
+    }
+
+    private synchronized long count(BusinessTypeEnum businessType) {
+        return counts[businessType.ordinal()];
+    }
+
+    private static void move(long[] counts, MerchantCountChangedEvent event) {
+        if (event.removedFrom() != null) {
+            counts[event.removedFrom().ordinal()]--;
+        }
+        if (event.addedTo() != null) {
+            counts[event.addedTo().ordinal()]++;
+        }
+    }
+}
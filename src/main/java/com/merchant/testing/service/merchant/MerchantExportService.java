@@ -0,0 +1,100 @@
+package com.merchant.testing.service.merchant;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.merchant.testing.controller.bean.MerchantResponseBean;
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.service.aws.S3StorageService;
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Streams the whole merchants table as a JSON array. Rows are read through a forward-only
+ * JDBC cursor ({@code merchant.export.fetch-size} rows per round trip, which Postgres only
+ * honours inside a transaction) and written as they arrive, so memory stays flat whatever
+ * the table size, whether the array goes to an HTTP response or to S3.
+ * <p>
+ * That transaction stays open, holding a connection and a Postgres bulkhead permit, for as long
+ * as the reader takes, slow HTTP clients included. Exports therefore also take a permit of their
+ * own {@code export} bulkhead ({@code merchant.bulkhead.export.*}), kept well below the Postgres
+ * one, so they cannot starve lookups; an export beyond it is rejected with a 503 before it starts.
+ */
+@Service
+public class MerchantExportService {
+    private static final String EXPORT_QUERY = "SELECT id, business_type, email, name FROM merchants ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter merchantWriter;
+    private final S3StorageService s3StorageService;
+    private final String s3Prefix;
+    private final Bulkhead exportBulkhead;
+
+    public MerchantExportService(DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                 S3StorageService s3StorageService,
+                                 @Qualifier("exportBulkhead") Bulkhead exportBulkhead,
+                                 @Value("${merchant.export.fetch-size:1000}") int fetchSize,
+                                 @Value("${merchant.export.s3-prefix:merchant-exports/}") String s3Prefix) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.merchantWriter = objectMapper.writerFor(MerchantResponseBean.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.s3StorageService = s3StorageService;
+        this.s3Prefix = s3Prefix;
+        this.exportBulkhead = exportBulkhead;
+    }
+
+    /**
+     * Streams the export into a new S3 object, uploaded in parts as it is written, and returns its key.
+     */
+    public String exportMerchantsToS3() {
+        String key = s3Prefix + "merchants-" + System.currentTimeMillis() + ".json";
+        s3StorageService.write(key, this::exportMerchants);
+        return key;
+    }
+
+    public void exportMerchants(OutputStream outputStream) throws IOException {
+        exportBulkhead.call(() -> {
+            writeMerchants(outputStream);
+            return null;
+        });
+    }
+
+    private void writeMerchants(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_QUERY, resultSet -> {
+                String businessType = resultSet.getString("business_type");
+                MerchantResponseBean merchant = new MerchantResponseBean(
+                        resultSet.getString("id"),
+                        businessType != null ? BusinessTypeEnum.valueOf(businessType) : null,
+                        resultSet.getString("email"),
+                        resultSet.getString("name"));
+                try {
+                    merchantWriter.writeValue(generator, merchant);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
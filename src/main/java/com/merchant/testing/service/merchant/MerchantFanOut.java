@@ -0,0 +1,70 @@
+package com.merchant.testing.service.merchant;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a batch of blocking calls on an executor, at most {@code maxConcurrent} at a time, and
+ * waits for all of them.
+ * <p>
+ * Calls are never interrupted: interrupting a JDBC or SDK call closes its connection, which the
+ * pool then has to replace. After the first failure the calls that have not started are skipped
+ * and the running ones are waited for, so none is still writing to shared state once
+ * {@link #runAll} returns. Only an interrupt of the waiting thread returns before they finish.
+ */
+final class MerchantFanOut {
+
+    private MerchantFanOut() {
+    }
+
+    static void runAll(ExecutorService executor, int maxConcurrent, Collection<? extends Runnable> calls)
+            throws InterruptedException, ExecutionException {
+        Semaphore permits = new Semaphore(maxConcurrent);
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>(calls.size());
+        try {
+            for (Runnable call : calls) {
+                futures.add(executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        if (!stopped.get()) {
+                            call.run();
+                        }
+                    } catch (RuntimeException | Error e) {
+                        stopped.set(true);
+                        throw e;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        } catch (RuntimeException e) {
+            stopped.set(true);
+            throw e;
+        }
+        ExecutionException failure = null;
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    stopped.set(true);
+                    failure = failure != null ? failure : e;
+                }
+            }
+        } catch (InterruptedException e) {
+            stopped.set(true);
+            futures.forEach(future -> future.cancel(false));
+            throw e;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.merchant.testing.service.merchant;
+
+enum MerchantLoadMode {
+    /**
+     * Ask one tier at a time, in priority order.
+     */
+    SEQUENTIAL,
+    /**
+     * Ask every tier at once and keep the highest-priority hit.
+     */
+    PARALLEL,
+    /**
+     * Start the next tier only when the current one misses or has not answered within the hedge delay.
+     */
+    HEDGED
+}
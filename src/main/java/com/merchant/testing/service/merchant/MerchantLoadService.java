@@ -2,9 +2,16 @@ package com.merchant.testing.service.merchant;
 
 import com.merchant.testing.entity.Merchant;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface MerchantLoadService {
     Optional<Merchant> loadMerchant(String merchantId);
     Optional<Merchant> loadMerchantByEmail(String email);
+
+    /**
+     * Loads every merchant that can be found, keyed by merchant id. Ids that are not found are absent from the map.
+     */
+    Map<String, Merchant> loadMerchants(Collection<String> merchantIds);
 }
@@ -0,0 +1,208 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.repository.MerchantReactiveRepository;
+import com.merchant.testing.service.aws.DynamoDbAsyncService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Non-blocking counterpart of {@link MerchantLoadServiceStrategy}: the tiers are tried in the same
+ * order, each one chained on the previous miss. The snapshot is read in place and DynamoDB and S3 go
+ * through the Netty-based async clients, so no thread waits on them. Postgres goes through R2DBC
+ * under the {@code reactive} profile; otherwise it is JDBC on the load executor.
+ * <p>
+ * Calls go through the same {@link MerchantTierGuards} breakers and per-tier timeouts, within
+ * {@code merchant.load.deadline}. A call that times out is abandoned, not cancelled: its client
+ * gives up on its own. Tiers are never hedged or raced.
+ */
+@Service
+class MerchantLoadServiceAsync {
+    private final MerchantLoadServiceSnapshot merchantLoadServiceSnapshot;
+    private final DynamoDbAsyncService dynamoDbAsyncService;
+    private final MerchantSegmentStore merchantSegmentStore;
+    private final MerchantLoadServicePostgres merchantLoadServicePostgres;
+    private final MerchantTierFilters merchantTierFilters;
+    private final ExecutorService merchantLoadExecutor;
+    private final MerchantTierMetrics merchantTierMetrics;
+    private final MerchantTierOrdering merchantTierOrdering;
+    private final MerchantReactiveRepository merchantReactiveRepository;
+    private final MerchantTierGuards merchantTierGuards;
+    private final Duration deadline;
+
+    public MerchantLoadServiceAsync(MerchantLoadServiceSnapshot merchantLoadServiceSnapshot,
+                                    DynamoDbAsyncService dynamoDbAsyncService, MerchantSegmentStore merchantSegmentStore,
+                                    MerchantLoadServicePostgres merchantLoadServicePostgres,
+                                    MerchantTierFilters merchantTierFilters,
+                                    @Qualifier("merchantLoadExecutor") ExecutorService merchantLoadExecutor,
+                                    MerchantTierMetrics merchantTierMetrics,
+                                    MerchantTierOrdering merchantTierOrdering,
+                                    Optional<MerchantReactiveRepository> merchantReactiveRepository,
+                                    MerchantTierGuards merchantTierGuards,
+                                    @Value("${merchant.load.deadline:PT0.5S}") Duration deadline) {
+        this.merchantLoadServiceSnapshot = merchantLoadServiceSnapshot;
+        this.dynamoDbAsyncService = dynamoDbAsyncService;
+        this.merchantSegmentStore = merchantSegmentStore;
+        this.merchantLoadServicePostgres = merchantLoadServicePostgres;
+        this.merchantTierFilters = merchantTierFilters;
+        this.merchantLoadExecutor = merchantLoadExecutor;
+        this.merchantTierMetrics = merchantTierMetrics;
+        this.merchantTierOrdering = merchantTierOrdering;
+        this.merchantReactiveRepository = merchantReactiveRepository.orElse(null);
+        this.merchantTierGuards = merchantTierGuards;
+        this.deadline = deadline;
+    }
+
+    public CompletableFuture<Optional<Merchant>> loadMerchant(String merchantId) {
+        List<MerchantTier> candidates = merchantTierOrdering.order().stream()
+                .filter(this::isAvailable)
+                .filter(tier -> merchantTierFilters.mightContainId(tier, merchantId))
+                .toList();
+        return load(candidates, MerchantTierMetrics.Operation.ID, tier -> switch (tier) {
+            case SNAPSHOT -> CompletableFuture.completedFuture(merchantLoadServiceSnapshot.loadMerchant(merchantId));
+            case DYNAMODB -> dynamoDbAsyncService.getItem(merchantId)
+                    .thenApply(item -> Optional.ofNullable(item).map(MerchantLoadServiceDynamoDB::toMerchant));
+            case POSTGRES -> merchantReactiveRepository != null
+                    ? merchantReactiveRepository.findById(Long.parseLong(merchantId)).map(Optional::of).defaultIfEmpty(Optional.empty()).toFuture()
+                    : CompletableFuture.supplyAsync(() -> merchantLoadServicePostgres.loadMerchant(merchantId), merchantLoadExecutor);
+            case S3 -> merchantSegmentStore.findByIdAsync(merchantId);
+        });
+    }
+
+    public CompletableFuture<Optional<Merchant>> loadMerchantByEmail(String email) {
+        List<MerchantTier> candidates = merchantTierOrdering.order().stream()
+                .filter(this::isAvailable)
+                .filter(tier -> merchantTierFilters.mightContainEmail(tier, email))
+                .toList();
+        return load(candidates, MerchantTierMetrics.Operation.EMAIL, tier -> switch (tier) {
+            case SNAPSHOT -> CompletableFuture.completedFuture(merchantLoadServiceSnapshot.loadMerchantByEmail(email));
+            case DYNAMODB -> dynamoDbAsyncService.queryItemByEmail(email)
+                    .thenApply(item -> Optional.ofNullable(item).map(MerchantLoadServiceDynamoDB::toMerchant));
+            case POSTGRES -> merchantReactiveRepository != null
+                    ? merchantReactiveRepository.findByEmail(email).map(Optional::of).defaultIfEmpty(Optional.empty()).toFuture()
+                    : CompletableFuture.supplyAsync(() -> merchantLoadServicePostgres.loadMerchantByEmail(email), merchantLoadExecutor);
+            case S3 -> merchantSegmentStore.findByEmailAsync(email);
+        });
+    }
+
+    private boolean isAvailable(MerchantTier tier) {
+        return tier != MerchantTier.SNAPSHOT || merchantLoadServiceSnapshot.isLoaded();
+    }
+
+    private CompletableFuture<Optional<Merchant>> load(List<MerchantTier> candidates, MerchantTierMetrics.Operation operation,
+                                                       Function<MerchantTier, CompletableFuture<Optional<Merchant>>> call) {
+        // Postgres ruled out by its filter is as good as a miss from Postgres
+        boolean authoritative = !candidates.contains(MerchantTier.POSTGRES);
+        return new Attempt(candidates, operation, call, System.nanoTime() + deadline.toNanos(), authoritative).next(0);
+    }
+
+    /**
+     * One lookup across the candidate tiers, each call chained on the previous one's miss, failure
+     * or time-out. The outcome is decided as in {@link MerchantLoadServiceStrategy}: only a miss from
+     * Postgres makes the lookup a miss, and it ends the lookup.
+     */
+    private final class Attempt {
+        private final List<MerchantTier> candidates;
+        private final MerchantTierMetrics.Operation operation;
+        private final Function<MerchantTier, CompletableFuture<Optional<Merchant>>> call;
+        private final long deadlineNanos;
+        private boolean answered;
+        private boolean authoritative;
+        private RuntimeException failure;
+
+        private Attempt(List<MerchantTier> candidates, MerchantTierMetrics.Operation operation,
+                        Function<MerchantTier, CompletableFuture<Optional<Merchant>>> call, long deadlineNanos, boolean authoritative) {
+            this.candidates = candidates;
+            this.operation = operation;
+            this.call = call;
+            this.deadlineNanos = deadlineNanos;
+            this.authoritative = authoritative;
+        }
+
+        /**
+         * Calls the first candidate, from {@code index} on, that its breaker lets through, unless the
+         * deadline has passed.
+         */
+        private CompletableFuture<Optional<Merchant>> next(int index) {
+            while (index < candidates.size()) {
+                long now = System.nanoTime();
+                if (deadlineNanos - now <= 0) {
+                    break;
+                }
+                MerchantTier tier = candidates.get(index++);
+                if (merchantTierGuards.tryAcquire(tier)) {
+                    Duration timeout = merchantTierGuards.timeout(tier);
+                    long timeoutNanos = timeout == null ? deadlineNanos - now : Math.min(timeout.toNanos(), deadlineNanos - now);
+                    int following = index;
+                    return callTier(tier).orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                            .handle((merchant, error) -> settle(tier, now, merchant, error, following))
+                            .thenCompose(Function.identity());
+                }
+            }
+            return finish();
+        }
+
+        private CompletableFuture<Optional<Merchant>> callTier(MerchantTier tier) {
+            try {
+                return merchantTierMetrics.recordAsync(tier, operation, () -> call.apply(tier));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        private CompletableFuture<Optional<Merchant>> settle(MerchantTier tier, long startNanos, Optional<Merchant> merchant,
+                                                            Throwable error, int following) {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            if (error != null) {
+                merchantTierGuards.onFailure(tier);
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof TimeoutException) {
+                    merchantTierOrdering.record(tier, elapsedNanos, false);
+                    failure = failure != null ? failure : new MerchantUnavailableException("Merchant tier " + tier
+                            + " did not answer within " + Duration.ofNanos(elapsedNanos), cause);
+                } else {
+                    failure = failure != null ? failure : cause instanceof RuntimeException runtime ? runtime
+                            : new MerchantUnavailableException("Merchant tier " + tier + " failed", cause);
+                }
+                return next(following);
+            }
+            merchantTierGuards.onSuccess(tier);
+            merchantTierOrdering.record(tier, elapsedNanos, merchant.isPresent());
+            answered = true;
+            if (merchant.isPresent()) {
+                merchantTierMetrics.recordServed(Optional.of(tier));
+                return CompletableFuture.completedFuture(merchant);
+            }
+            merchantTierFilters.recordMiss(tier);
+            if (tier == MerchantTier.POSTGRES) {
+                authoritative = true;
+                return finish();
+            }
+            return next(following);
+        }
+
+        private CompletableFuture<Optional<Merchant>> finish() {
+            if (authoritative) {
+                merchantTierMetrics.recordServed(Optional.empty());
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+            if (answered) {
+                return CompletableFuture.failedFuture(
+                        new MerchantUnavailableException("Merchant lookup missed every replica and Postgres did not answer", failure));
+            }
+            return CompletableFuture.failedFuture(failure != null ? failure
+                    : new MerchantUnavailableException("Every merchant tier is unavailable: " + candidates));
+        }
+    }
+}
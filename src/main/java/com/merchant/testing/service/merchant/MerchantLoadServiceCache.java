@@ -0,0 +1,162 @@
+package com.merchant.testing.service.merchant;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.merchant.testing.entity.Merchant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded near cache in front of {@link MerchantLoadServiceStrategy}.
+ * Merchants are cached by id; email lookups resolve to an id first so an
+ * invalidation by id is enough to drop both entries.
+ * <p>
+ * A merchant changed on this node is invalidated once the change commits, and for
+ * {@code merchant.cache.invalidation-window} after that no lookup of it is cached. That covers a
+ * lookup which read the old row before the commit, and DynamoDB and S3 answering with the old row
+ * until the outbox has replicated the change; keep the window above the replication lag. Changes
+ * made by other nodes are not seen here until the entry expires, so keep {@code merchant.cache.ttl}
+ * within the staleness you can accept.
+ */
+@Service
+class MerchantLoadServiceCache implements MerchantLoadService {
+    private final MerchantLoadServiceStrategy merchantLoadServiceStrategy;
+    private final MerchantLoadServiceAsync merchantLoadServiceAsync;
+    private final Cache<String, Merchant> merchantsById;
+    private final Cache<String, String> merchantIdsByEmail;
+    private final Cache<String, Boolean> recentlyInvalidated;
+
+    public MerchantLoadServiceCache(MerchantLoadServiceStrategy merchantLoadServiceStrategy,
+                                    MerchantLoadServiceAsync merchantLoadServiceAsync,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${merchant.cache.maximum-size:10000}") long maximumSize,
+                                    @Value("${merchant.cache.ttl:PT5M}") Duration ttl,
+                                    @Value("${merchant.cache.invalidation-window:PT10S}") Duration invalidationWindow) {
+        this.merchantLoadServiceStrategy = merchantLoadServiceStrategy;
+        this.merchantLoadServiceAsync = merchantLoadServiceAsync;
+        this.merchantsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.merchantIdsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.recentlyInvalidated = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(invalidationWindow)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, merchantsById, "merchants.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, merchantIdsByEmail, "merchants.by-email");
+    }
+
+    @Override
+    public Optional<Merchant> loadMerchant(String merchantId) {
+        Merchant cached = merchantsById.getIfPresent(merchantId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Merchant> merchant = merchantLoadServiceStrategy.loadMerchant(merchantId);
+        merchant.ifPresent(this::put);
+        return merchant;
+    }
+
+    @Override
+    public Optional<Merchant> loadMerchantByEmail(String email) {
+        String merchantId = merchantIdsByEmail.getIfPresent(email);
+        if (merchantId != null) {
+            Merchant cached = merchantsById.getIfPresent(merchantId);
+            if (cached != null && email.equals(cached.getEmail())) {
+                return Optional.of(cached);
+            }
+        }
+        Optional<Merchant> merchant = merchantLoadServiceStrategy.loadMerchantByEmail(email);
+        merchant.ifPresent(this::put);
+        return merchant;
+    }
+
+    /**
+     * Same as {@link #loadMerchant(String)}, but a cache miss is loaded through {@link MerchantLoadServiceAsync}.
+     */
+    CompletableFuture<Optional<Merchant>> loadMerchantAsync(String merchantId) {
+        Merchant cached = merchantsById.getIfPresent(merchantId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+        return merchantLoadServiceAsync.loadMerchant(merchantId).thenApply(this::putIfPresent);
+    }
+
+    CompletableFuture<Optional<Merchant>> loadMerchantByEmailAsync(String email) {
+        String merchantId = merchantIdsByEmail.getIfPresent(email);
+        if (merchantId != null) {
+            Merchant cached = merchantsById.getIfPresent(merchantId);
+            if (cached != null && email.equals(cached.getEmail())) {
+                return CompletableFuture.completedFuture(Optional.of(cached));
+            }
+        }
+        return merchantLoadServiceAsync.loadMerchantByEmail(email).thenApply(this::putIfPresent);
+    }
+
+    @Override
+    public Map<String, Merchant> loadMerchants(Collection<String> merchantIds) {
+        Map<String, Merchant> merchants = new HashMap<>(merchantsById.getAllPresent(merchantIds));
+        List<String> missing = merchantIds.stream()
+                .filter(merchantId -> !merchants.containsKey(merchantId))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            Map<String, Merchant> loaded = merchantLoadServiceStrategy.loadMerchants(missing);
+            loaded.values().forEach(this::put);
+            merchants.putAll(loaded);
+        }
+        return merchants;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onMerchantChanged(MerchantChangedEvent event) {
+        if (event.changeType() != MerchantChangedEvent.ChangeType.CREATED) {
+            invalidate(event.merchantId());
+        }
+    }
+
+    void invalidate(Long merchantId) {
+        recentlyInvalidated.put(merchantId.toString(), Boolean.TRUE);
+        Merchant cached = merchantsById.getIfPresent(merchantId.toString());
+        merchantsById.invalidate(merchantId.toString());
+        if (cached != null && cached.getEmail() != null) {
+            merchantIdsByEmail.invalidate(cached.getEmail());
+        }
+    }
+
+    private Optional<Merchant> putIfPresent(Optional<Merchant> merchant) {
+        merchant.ifPresent(this::put);
+        return merchant;
+    }
+
+    private void put(Merchant merchant) {
+        if (merchant.getId() == null) {
+            return;
+        }
+        String merchantId = merchant.getId().toString();
+        if (recentlyInvalidated.getIfPresent(merchantId) != null) {
+            return;
+        }
+        merchantsById.put(merchantId, merchant);
+        if (merchant.getEmail() != null) {
+            merchantIdsByEmail.put(merchant.getEmail(), merchantId);
+        }
+    }
+}
@@ -8,8 +8,12 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 class MerchantLoadServiceDynamoDB implements MerchantLoadService {
@@ -23,23 +27,41 @@ class MerchantLoadServiceDynamoDB implements MerchantLoadService {
     @Override
     public Optional<Merchant> loadMerchant(String merchantId) {
         return Optional.ofNullable(dynamoDbService.getItem(merchantId))
-                .map(this::toMerchant);
+                .map(MerchantLoadServiceDynamoDB::toMerchant);
 
     }
 
-    private Merchant toMerchant(@NotNull Map<String, AttributeValue> stringAttributeValueMap) {
+    @Override
+    public Map<String, Merchant> loadMerchants(Collection<String> merchantIds) {
+        return dynamoDbService.batchGetItems(merchantIds).stream()
+                .map(MerchantLoadServiceDynamoDB::toMerchant)
+                .collect(Collectors.toMap(merchant -> merchant.getId().toString(), Function.identity()));
+    }
+
+    /**
+     * Attributes other than {@code id} may be missing on older items; they map to {@code null}.
+     */
+    static Merchant toMerchant(@NotNull Map<String, AttributeValue> stringAttributeValueMap) {
+        String businessType = stringValue(stringAttributeValueMap, "businessType");
+        String updatedAt = stringValue(stringAttributeValueMap, "updatedAt");
         return MerchantBuilder.aMerchant()
                 .withId(Long.parseLong(stringAttributeValueMap.get("id").s()))
-                .withName(stringAttributeValueMap.get("name").s())
-                .withEmail(stringAttributeValueMap.get("email").s())
-                .withBusinessType(BusinessTypeEnum.valueOf(stringAttributeValueMap.get("businessType").s().toUpperCase()))
-                .withPhonetics(stringAttributeValueMap.get("phonetics").s())
+                .withName(stringValue(stringAttributeValueMap, "name"))
+                .withEmail(stringValue(stringAttributeValueMap, "email"))
+                .withBusinessType(businessType != null ? BusinessTypeEnum.valueOf(businessType.toUpperCase()) : null)
+                .withPhonetics(stringValue(stringAttributeValueMap, "phonetics"))
+                .withUpdatedAt(updatedAt != null ? LocalDateTime.parse(updatedAt) : null)
                 .build();
     }
 
+    private static String stringValue(Map<String, AttributeValue> item, String attribute) {
+        AttributeValue value = item.get(attribute);
+        return value != null ? value.s() : null;
+    }
+
     @Override
     public Optional<Merchant> loadMerchantByEmail(String email) {
-        return Optional.ofNullable(dynamoDbService.queryItem(Map.of("email", email)))
-                .map(this::toMerchant);
+        return Optional.ofNullable(dynamoDbService.queryItemByEmail(email))
+                .map(MerchantLoadServiceDynamoDB::toMerchant);
     }
 }
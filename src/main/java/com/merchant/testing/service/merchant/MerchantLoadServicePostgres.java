@@ -1,26 +1,40 @@
 package com.merchant.testing.service.merchant;
 
 import com.merchant.testing.entity.Merchant;
-import com.merchant.testing.repository.MerchantRepository;
+import com.merchant.testing.repository.MerchantReadRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Reads through {@link MerchantReadRepository} rather than JPA: the merchant is handed to the
+ * cache and the response mapping, never changed, so a managed entity would be pure overhead.
+ */
 @Service
 class MerchantLoadServicePostgres implements MerchantLoadService {
-    private final MerchantRepository merchantRepository;
+    private final MerchantReadRepository merchantReadRepository;
 
-    public MerchantLoadServicePostgres(MerchantRepository merchantRepository) {
-        this.merchantRepository = merchantRepository;
+    public MerchantLoadServicePostgres(MerchantReadRepository merchantReadRepository) {
+        this.merchantReadRepository = merchantReadRepository;
     }
 
     @Override
     public Optional<Merchant> loadMerchant(String merchantId) {
-        return merchantRepository.findById(Long.parseLong(merchantId));
+        return merchantReadRepository.findById(Long.parseLong(merchantId));
     }
 
     @Override
     public Optional<Merchant> loadMerchantByEmail(String email) {
-        return merchantRepository.findByEmail(email);
+        return merchantReadRepository.findByEmail(email);
+    }
+
+    @Override
+    public Map<String, Merchant> loadMerchants(Collection<String> merchantIds) {
+        return merchantReadRepository.findAllById(merchantIds.stream().map(Long::parseLong).toList()).stream()
+                .collect(Collectors.toMap(merchant -> merchant.getId().toString(), Function.identity()));
     }
 }
@@ -1,40 +1,35 @@
 package com.merchant.testing.service.merchant;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.merchant.testing.entity.Merchant;
-import com.merchant.testing.service.aws.S3StorageService;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Reads merchants from the packed S3 segments; see {@link MerchantSegmentStore}.
+ */
 @Service
 class MerchantLoadServiceS3 implements MerchantLoadService {
-    private final S3StorageService s3StorageService;
-    private final ObjectMapper objectMapper;
+    private final MerchantSegmentStore merchantSegmentStore;
 
-    public MerchantLoadServiceS3(S3StorageService s3StorageService, ObjectMapper objectMapper) {
-        this.s3StorageService = s3StorageService;
-        this.objectMapper = objectMapper;
+    public MerchantLoadServiceS3(MerchantSegmentStore merchantSegmentStore) {
+        this.merchantSegmentStore = merchantSegmentStore;
     }
 
     @Override
     public Optional<Merchant> loadMerchant(String merchantId) {
-        return Optional.ofNullable(s3StorageService.downloadFile("merchants/"+merchantId))
-                .map(this::parseMerchant);
+        return merchantSegmentStore.findById(merchantId);
     }
 
     @Override
     public Optional<Merchant> loadMerchantByEmail(String email) {
-        return Optional.ofNullable(s3StorageService.downloadFile("merchants-email/"+email))
-                .map(s -> parseMerchant(s));
+        return merchantSegmentStore.findByEmail(email);
     }
 
-    private Merchant parseMerchant(String s) {
-        try {
-            return objectMapper.readValue(s, Merchant.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+    @Override
+    public Map<String, Merchant> loadMerchants(Collection<String> merchantIds) {
+        return merchantSegmentStore.findAllById(merchantIds);
     }
 }
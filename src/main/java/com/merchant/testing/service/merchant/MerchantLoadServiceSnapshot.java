@@ -0,0 +1,214 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * First tier of {@link MerchantLoadServiceStrategy}: a {@link MerchantSnapshot} of the merchants
+ * table, rebuilt every {@code merchant.snapshot.rebuild-interval} through a JDBC cursor and swapped
+ * in atomically, so lookups never leave the process.
+ * <p>
+ * Every change committed on this node gets a version. A snapshot records the version current when
+ * its scan began, and merchants changed after that fall through to the lower tiers until a newer
+ * snapshot includes them. Changes made by other nodes are only seen after the next rebuild, as
+ * with {@link MerchantTierFilters}; keep the interval within the staleness you can accept.
+ */
+@Service
+class MerchantLoadServiceSnapshot implements MerchantLoadService {
+    private static final Logger log = LoggerFactory.getLogger(MerchantLoadServiceSnapshot.class);
+    private static final String SNAPSHOT_QUERY =
+            "SELECT id, name, email, business_type, phonetics, created_at, updated_at FROM merchants";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Path directory;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicLong changeVersion = new AtomicLong();
+    private final Map<Long, Long> changedVersions = new ConcurrentHashMap<>();
+    private volatile MerchantSnapshot snapshot;
+
+    public MerchantLoadServiceSnapshot(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${merchant.snapshot.enabled:false}") boolean enabled,
+                                       @Value("${merchant.snapshot.directory:${java.io.tmpdir}/merchant-snapshot}") Path directory,
+                                       @Value("${merchant.snapshot.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.directory = directory;
+        Gauge.builder("merchant.snapshot.merchants", this, service -> service.snapshot != null ? service.snapshot.size() : 0)
+                .register(meterRegistry);
+        Gauge.builder("merchant.snapshot.size", this, service -> service.snapshot != null ? service.snapshot.sizeBytes() : 0)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("merchant.snapshot.age", this, MerchantLoadServiceSnapshot::ageSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a snapshot has been built; until then the strategy skips this tier.
+     */
+    boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    @Override
+    public Optional<Merchant> loadMerchant(String merchantId) {
+        MerchantSnapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return current.findById(Long.parseLong(merchantId)).filter(merchant -> isCurrent(current, merchant));
+    }
+
+    @Override
+    public Optional<Merchant> loadMerchantByEmail(String email) {
+        MerchantSnapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return current.findByEmail(email).filter(merchant -> isCurrent(current, merchant));
+    }
+
+    @Override
+    public Map<String, Merchant> loadMerchants(Collection<String> merchantIds) {
+        Map<String, Merchant> merchants = new HashMap<>();
+        for (String merchantId : merchantIds) {
+            loadMerchant(merchantId).ifPresent(merchant -> merchants.put(merchantId, merchant));
+        }
+        return merchants;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onMerchantChanged(MerchantChangedEvent event) {
+        if (enabled) {
+            changedVersions.put(event.merchantId(), changeVersion.incrementAndGet());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${merchant.snapshot.rebuild-interval:PT1M}")
+    void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to rebuild the merchant snapshot, keeping the previous one", e);
+        }
+    }
+
+    void rebuild() throws IOException {
+        rebuildLock.lock();
+        try {
+            rebuildLocked();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildLocked() throws IOException {
+        long startedAt = System.currentTimeMillis();
+        long watermark = changeVersion.get();
+        Files.createDirectories(directory);
+        Path path = directory.resolve("merchants-" + startedAt + ".snapshot");
+        MerchantSnapshot next;
+        try (MerchantSnapshot.Writer writer = new MerchantSnapshot.Writer(path)) {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(SNAPSHOT_QUERY, resultSet -> {
+                String businessType = resultSet.getString("business_type");
+                try {
+                    writer.add(MerchantBuilder.aMerchant()
+                            .withId(resultSet.getLong("id"))
+                            .withName(resultSet.getString("name"))
+                            .withEmail(resultSet.getString("email"))
+                            .withBusinessType(businessType != null ? BusinessTypeEnum.valueOf(businessType) : null)
+                            .withPhonetics(resultSet.getString("phonetics"))
+                            .withCreatedAt(toLocalDateTime(resultSet.getTimestamp("created_at")))
+                            .withUpdatedAt(toLocalDateTime(resultSet.getTimestamp("updated_at")))
+                            .build());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            next = writer.finish(watermark);
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(path);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+
+        MerchantSnapshot previous = snapshot;
+        snapshot = next;
+        if (previous != null) {
+            // readers may still hold the previous snapshot, so keep what it needs masked
+            changedVersions.values().removeIf(version -> version <= previous.watermark());
+            // the mapping outlives the file, so readers of the previous snapshot are unaffected
+            Files.deleteIfExists(previous.path());
+        } else {
+            deleteLeftovers(path);
+        }
+        log.info("Rebuilt merchant snapshot of {} merchants ({} bytes) in {} ms",
+                next.size(), next.sizeBytes(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Snapshots left behind by an earlier run of this instance.
+     */
+    private void deleteLeftovers(Path current) throws IOException {
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "merchants-*.snapshot")) {
+            for (Path leftover : leftovers) {
+                if (!leftover.equals(current)) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        }
+    }
+
+    private boolean isCurrent(MerchantSnapshot current, Merchant merchant) {
+        Long changed = changedVersions.get(merchant.getId());
+        return changed == null || changed <= current.watermark();
+    }
+
+    private double ageSeconds() {
+        MerchantSnapshot current = snapshot;
+        return current != null ? (System.currentTimeMillis() - current.builtAtMillis()) / 1000.0 : 0;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
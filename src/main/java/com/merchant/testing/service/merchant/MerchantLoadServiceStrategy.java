@@ -1,33 +1,415 @@
 package com.merchant.testing.service.merchant;
 
 import com.merchant.testing.entity.Merchant;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 class MerchantLoadServiceStrategy implements MerchantLoadService {
-    private final MerchantLoadServiceS3 merchantLoadServiceS3;
-    private final MerchantLoadServicePostgres merchantLoadServicePostgres;
-    private final MerchantLoadServiceDynamoDB merchantLoadServiceDynamoDB;
+    private static final long NEVER = Long.MAX_VALUE;
 
-    public MerchantLoadServiceStrategy(MerchantLoadServiceS3 merchantLoadServiceS3, MerchantLoadServicePostgres merchantLoadServicePostgres, MerchantLoadServiceDynamoDB merchantLoadServiceDynamoDB) {
-        this.merchantLoadServiceS3 = merchantLoadServiceS3;
-        this.merchantLoadServicePostgres = merchantLoadServicePostgres;
-        this.merchantLoadServiceDynamoDB = merchantLoadServiceDynamoDB;
+    private final Map<MerchantTier, MerchantLoadService> tiers = new EnumMap<>(MerchantTier.class);
+    private final MerchantLoadServiceSnapshot merchantLoadServiceSnapshot;
+    private final MerchantTierFilters merchantTierFilters;
+    private final ExecutorService merchantLoadExecutor;
+    private final MerchantLoadMode mode;
+    private final Duration hedgeDelay;
+    private final MerchantTierMetrics merchantTierMetrics;
+    private final MerchantTierOrdering merchantTierOrdering;
+    private final MerchantTierGuards merchantTierGuards;
+    private final Duration deadline;
+    private final Duration batchDeadline;
+
+    public MerchantLoadServiceStrategy(MerchantLoadServiceS3 merchantLoadServiceS3, MerchantLoadServicePostgres merchantLoadServicePostgres, MerchantLoadServiceDynamoDB merchantLoadServiceDynamoDB,
+                                       MerchantLoadServiceSnapshot merchantLoadServiceSnapshot,
+                                       MerchantTierFilters merchantTierFilters,
+                                       @Qualifier("merchantLoadExecutor") ExecutorService merchantLoadExecutor,
+                                       @Value("${merchant.load.mode:SEQUENTIAL}") MerchantLoadMode mode,
+                                       @Value("${merchant.load.hedge-delay:PT0.02S}") Duration hedgeDelay,
+                                       MerchantTierMetrics merchantTierMetrics,
+                                       MerchantTierOrdering merchantTierOrdering,
+                                       MerchantTierGuards merchantTierGuards,
+                                       @Value("${merchant.load.deadline:PT0.5S}") Duration deadline,
+                                       @Value("${merchant.load.batch-deadline:PT2S}") Duration batchDeadline) {
+        this.tiers.put(MerchantTier.SNAPSHOT, merchantLoadServiceSnapshot);
+        this.tiers.put(MerchantTier.DYNAMODB, merchantLoadServiceDynamoDB);
+        this.tiers.put(MerchantTier.POSTGRES, merchantLoadServicePostgres);
+        this.tiers.put(MerchantTier.S3, merchantLoadServiceS3);
+        this.merchantLoadServiceSnapshot = merchantLoadServiceSnapshot;
+        this.merchantTierFilters = merchantTierFilters;
+        this.merchantLoadExecutor = merchantLoadExecutor;
+        this.mode = mode;
+        this.hedgeDelay = hedgeDelay;
+        this.merchantTierMetrics = merchantTierMetrics;
+        this.merchantTierOrdering = merchantTierOrdering;
+        this.merchantTierGuards = merchantTierGuards;
+        this.deadline = deadline;
+        this.batchDeadline = batchDeadline;
     }
 
     @Override
     public Optional<Merchant> loadMerchant(String merchantId) {
-        return merchantLoadServiceDynamoDB.loadMerchant(merchantId)
-                .or(() -> merchantLoadServicePostgres.loadMerchant(merchantId))
-                .or(() -> merchantLoadServiceS3.loadMerchant(merchantId));
+        return load(new Lookup(merchantId, false));
     }
 
     @Override
     public Optional<Merchant> loadMerchantByEmail(String email) {
-        return merchantLoadServiceDynamoDB.loadMerchantByEmail(email)
-                .or(() -> merchantLoadServicePostgres.loadMerchantByEmail(email))
-                .or(() -> merchantLoadServiceS3.loadMerchantByEmail(email));
+        return load(new Lookup(email, true));
+    }
+
+    /**
+     * Asks each tier in {@link MerchantTierOrdering} order for the ids that are still missing,
+     * each call bounded by what is left of {@code merchant.load.batch-deadline}. A tier that fails
+     * or times out leaves its ids to the next one.
+     * <p>
+     * Only Postgres, the system of record, can say an id does not exist: by missing it, or by its
+     * filter ruling it out. Ids it missed are not asked of the tiers behind it, which only stand in
+     * for it when it fails. If any id was neither found nor ruled out that way, the batch fails
+     * rather than leave it out: with the first failure if no tier answered, else with a
+     * {@link MerchantUnavailableException}.
+     */
+    @Override
+    public Map<String, Merchant> loadMerchants(Collection<String> merchantIds) {
+        long deadlineNanos = System.nanoTime() + batchDeadline.toNanos();
+        Map<String, Merchant> merchants = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>(merchantIds);
+        Set<String> unresolved = new LinkedHashSet<>(merchantIds);
+        boolean answered = false;
+        RuntimeException failure = null;
+        for (MerchantTier tier : merchantTierOrdering.order()) {
+            if (!isAvailable(tier)) {
+                continue;
+            }
+            List<String> candidates = missing.stream()
+                    .filter(merchantId -> merchantTierFilters.mightContainId(tier, merchantId))
+                    .toList();
+            if (tier == MerchantTier.POSTGRES) {
+                unresolved.retainAll(candidates);
+            }
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            if (deadlineNanos - System.nanoTime() <= 0) {
+                failure = failure != null ? failure : new MerchantUnavailableException("Merchant batch lookup ran out of time before " + tier);
+                break;
+            }
+            if (!merchantTierGuards.tryAcquire(tier)) {
+                continue;
+            }
+            Map<String, Merchant> found;
+            try {
+                found = awaitBatch(tier, candidates, deadlineNanos);
+            } catch (RuntimeException e) {
+                failure = failure != null ? failure : e;
+                continue;
+            }
+            answered = true;
+            for (String merchantId : candidates) {
+                Merchant merchant = found.get(merchantId);
+                if (merchant != null) {
+                    merchants.put(merchantId, merchant);
+                    missing.remove(merchantId);
+                    unresolved.remove(merchantId);
+                } else {
+                    merchantTierFilters.recordMiss(tier);
+                }
+            }
+            if (tier == MerchantTier.POSTGRES) {
+                candidates.forEach(missing::remove);
+                candidates.forEach(unresolved::remove);
+            }
+            if (missing.isEmpty()) {
+                break;
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            if (!answered && failure != null) {
+                throw failure;
+            }
+            throw new MerchantUnavailableException("Merchant batch lookup could not resolve " + unresolved.size()
+                    + " of " + merchantIds.size() + " ids without Postgres", failure);
+        }
+        return merchants;
+    }
+
+    private Optional<Merchant> load(Lookup lookup) {
+        List<MerchantTier> candidates = merchantTierOrdering.order().stream()
+                .filter(this::isAvailable)
+                .filter(tier -> lookup.byEmail()
+                        ? merchantTierFilters.mightContainEmail(tier, lookup.key())
+                        : merchantTierFilters.mightContainId(tier, lookup.key()))
+                .toList();
+        if (candidates.isEmpty()) {
+            merchantTierMetrics.recordServed(Optional.empty());
+            return Optional.empty();
+        }
+        // Postgres ruled out by its filter is as good as a miss from Postgres
+        boolean authoritative = !candidates.contains(MerchantTier.POSTGRES);
+        long hedgeNanos = switch (mode) {
+            case SEQUENTIAL -> NEVER;
+            case PARALLEL -> 0;
+            case HEDGED -> hedgeDelay.toNanos();
+        };
+        return new Attempt(candidates, lookup, System.nanoTime() + deadline.toNanos(), authoritative).run(hedgeNanos);
+    }
+
+    /**
+     * The snapshot tier is skipped until its first snapshot is built, so it is not counted as a miss.
+     */
+    private boolean isAvailable(MerchantTier tier) {
+        return tier != MerchantTier.SNAPSHOT || merchantLoadServiceSnapshot.isLoaded();
+    }
+
+    /**
+     * Waits for one tier's batch until the batch deadline. A batch given up on is left to finish,
+     * like an abandoned {@link TierCall}, bounded for Postgres by {@code merchant.read.query-timeout}.
+     */
+    private Map<String, Merchant> awaitBatch(MerchantTier tier, List<String> candidates, long deadlineNanos) {
+        long start = System.nanoTime();
+        Future<Map<String, Merchant>> call = merchantLoadExecutor.submit(() ->
+                merchantTierMetrics.recordBatch(tier, candidates, () -> tiers.get(tier).loadMerchants(candidates)));
+        try {
+            Map<String, Merchant> found = call.get(deadlineNanos - start, TimeUnit.NANOSECONDS);
+            merchantTierGuards.onSuccess(tier);
+            return found;
+        } catch (InterruptedException e) {
+            merchantTierGuards.onCancelled(tier);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading merchants", e);
+        } catch (ExecutionException e) {
+            merchantTierGuards.onFailure(tier);
+            throw unwrap(e);
+        } catch (TimeoutException e) {
+            merchantTierGuards.onFailure(tier);
+            throw new MerchantUnavailableException("Merchant tier " + tier + " did not answer a batch of " + candidates.size()
+                    + " within " + Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            call.cancel(false);
+        }
+    }
+
+    private Optional<Merchant> callTier(MerchantTier tier, Lookup lookup) {
+        Optional<Merchant> merchant = merchantTierMetrics.record(tier,
+                lookup.byEmail() ? MerchantTierMetrics.Operation.EMAIL : MerchantTierMetrics.Operation.ID,
+                () -> lookup.apply(tiers.get(tier)));
+        if (merchant.isEmpty()) {
+            merchantTierFilters.recordMiss(tier);
+        }
+        return merchant;
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException("Merchant tier failed", e.getCause());
+    }
+
+    /**
+     * One lookup across the candidate tiers. Every tier but the in-process snapshot runs on the
+     * load executor under its {@link MerchantTierGuards} timeout, cut short by the lookup's
+     * deadline, and tiers whose breaker is open are skipped. The hit of the highest-priority tier
+     * wins. The next tier starts as soon as the one being waited on misses, fails or times out, or
+     * has been silent for the hedge delay, unless a lower tier has already answered: a zero delay
+     * starts every tier up front and sequential mode never hedges.
+     * <p>
+     * A tier that fails or times out does not fail the lookup. Without a hit, the lookup is a miss
+     * only if Postgres, the system of record, missed it: a replica may simply lag. A miss from
+     * Postgres ends the lookup, since the tiers behind it only stand in for it when it fails. Otherwise the
+     * first failure is rethrown if no tier answered, or a {@link MerchantUnavailableException} if
+     * only tiers other than Postgres did.
+     */
+    private final class Attempt {
+        private final List<MerchantTier> candidates;
+        private final Lookup lookup;
+        private final long deadlineNanos;
+        private final List<TierCall> calls = new ArrayList<>();
+        private int next;
+        private boolean answered;
+        private boolean authoritative;
+        private RuntimeException failure;
+
+        private Attempt(List<MerchantTier> candidates, Lookup lookup, long deadlineNanos, boolean authoritative) {
+            this.candidates = candidates;
+            this.lookup = lookup;
+            this.deadlineNanos = deadlineNanos;
+            this.authoritative = authoritative;
+        }
+
+        private Optional<Merchant> run(long hedgeNanos) {
+            try {
+                startNext();
+                while (hedgeNanos == 0 && startNext()) {
+                    // parallel mode: every tier up front
+                }
+                for (int i = 0; i < calls.size(); i++) {
+                    Optional<Merchant> merchant = await(i, hedgeNanos);
+                    if (merchant.isPresent()) {
+                        merchantTierMetrics.recordServed(Optional.of(calls.get(i).tier));
+                        return merchant;
+                    }
+                    if (calls.get(i).tier == MerchantTier.POSTGRES && calls.get(i).future.state() == Future.State.SUCCESS) {
+                        break;
+                    }
+                    if (calls.size() == i + 1) {
+                        startNext();
+                    }
+                }
+                if (authoritative) {
+                    merchantTierMetrics.recordServed(Optional.empty());
+                    return Optional.empty();
+                }
+                if (answered) {
+                    throw new MerchantUnavailableException("Merchant lookup missed every replica and Postgres did not answer", failure);
+                }
+                throw failure != null ? failure : new MerchantUnavailableException("Every merchant tier is unavailable: " + candidates);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading merchant", e);
+            } finally {
+                calls.forEach(TierCall::cancel);
+            }
+        }
+
+        /**
+         * Starts the next candidate whose breaker lets it through, unless the deadline has passed.
+         */
+        private boolean startNext() {
+            while (next < candidates.size()) {
+                long now = System.nanoTime();
+                if (deadlineNanos - now <= 0) {
+                    next = candidates.size();
+                    return false;
+                }
+                MerchantTier tier = candidates.get(next++);
+                if (merchantTierGuards.tryAcquire(tier)) {
+                    Duration timeout = merchantTierGuards.timeout(tier);
+                    long callDeadline = timeout == null || deadlineNanos - now < timeout.toNanos() ? deadlineNanos : now + timeout.toNanos();
+                    calls.add(new TierCall(tier, lookup, now, callDeadline));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Optional<Merchant> await(int index, long hedgeNanos) throws InterruptedException {
+            TierCall call = calls.get(index);
+            while (true) {
+                long now = System.nanoTime();
+                boolean hedging = hedgeNanos != NEVER && next < candidates.size() && !hasHitAfter(index);
+                long wait = hedging ? Math.min(hedgeNanos, call.deadlineNanos - now) : call.deadlineNanos - now;
+                try {
+                    Optional<Merchant> merchant = call.future.get(Math.max(0, wait), TimeUnit.NANOSECONDS);
+                    answered = true;
+                    authoritative |= call.tier == MerchantTier.POSTGRES;
+                    return merchant;
+                } catch (ExecutionException e) {
+                    failure = failure != null ? failure : unwrap(e);
+                    return Optional.empty();
+                } catch (TimeoutException e) {
+                    if (System.nanoTime() - call.deadlineNanos >= 0) {
+                        call.timeOut();
+                        failure = failure != null ? failure : new MerchantUnavailableException("Merchant tier " + call.tier
+                                + " did not answer within " + Duration.ofNanos(call.deadlineNanos - call.startNanos));
+                        return Optional.empty();
+                    }
+                    startNext();
+                }
+            }
+        }
+
+        private boolean hasHitAfter(int index) {
+            return calls.subList(index + 1, calls.size()).stream()
+                    .anyMatch(call -> call.future.state() == Future.State.SUCCESS && call.future.resultNow().isPresent());
+        }
+    }
+
+    /**
+     * A call let through by the tier's breaker, which learns its outcome exactly once: from the
+     * call itself, or from the waiter timing it out or abandoning it. Completed calls and time-outs
+     * are also sampled for {@link MerchantTierOrdering}, a time-out as a miss.
+     * <p>
+     * An abandoned call is not interrupted: interrupting a JDBC read closes its connection, which
+     * the pool then has to replace. It runs on until its client gives up, the Postgres read by
+     * {@code merchant.read.query-timeout}.
+     */
+    private final class TierCall {
+        private final MerchantTier tier;
+        private final long startNanos;
+        private final long deadlineNanos;
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private final Future<Optional<Merchant>> future;
+
+        private TierCall(MerchantTier tier, Lookup lookup, long startNanos, long deadlineNanos) {
+            this.tier = tier;
+            this.startNanos = startNanos;
+            this.deadlineNanos = deadlineNanos;
+            this.future = tier == MerchantTier.SNAPSHOT ? callInline(lookup) : merchantLoadExecutor.submit(() -> call(lookup));
+        }
+
+        private Future<Optional<Merchant>> callInline(Lookup lookup) {
+            try {
+                return CompletableFuture.completedFuture(call(lookup));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        private Optional<Merchant> call(Lookup lookup) {
+            try {
+                Optional<Merchant> merchant = callTier(tier, lookup);
+                if (settled.compareAndSet(false, true)) {
+                    merchantTierGuards.onSuccess(tier);
+                    merchantTierOrdering.record(tier, System.nanoTime() - startNanos, merchant.isPresent());
+                }
+                return merchant;
+            } catch (RuntimeException e) {
+                if (settled.compareAndSet(false, true)) {
+                    merchantTierGuards.onFailure(tier);
+                }
+                throw e;
+            }
+        }
+
+        private void timeOut() {
+            if (settled.compareAndSet(false, true)) {
+                merchantTierGuards.onFailure(tier);
+                merchantTierOrdering.record(tier, System.nanoTime() - startNanos, false);
+            }
+            future.cancel(false);
+        }
+
+        private void cancel() {
+            if (settled.compareAndSet(false, true)) {
+                merchantTierGuards.onCancelled(tier);
+            }
+            future.cancel(false);
+        }
+    }
+
+    private record Lookup(String key, boolean byEmail) {
+
+        Optional<Merchant> apply(MerchantLoadService merchantLoadService) {
+            return byEmail ? merchantLoadService.loadMerchantByEmail(key) : merchantLoadService.loadMerchant(key);
+        }
     }
 }
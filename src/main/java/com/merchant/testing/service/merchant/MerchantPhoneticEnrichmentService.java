@@ -0,0 +1,157 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.repository.MerchantBulkRepository;
+import com.merchant.testing.repository.MerchantNameView;
+import com.merchant.testing.repository.MerchantPhoneticsBacklog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Fills in the phonetics of merchants created without them. Merchants with {@code phonetics IS NULL}
+ * are read in keyset batches, looked up with at most {@code merchant.phonetics.enrichment.concurrency}
+ * dictionary calls in flight and written back with one JDBC batch per page, in a transaction
+ * with the events that put the changes in the outbox. A name the dictionary
+ * does not know is stored as an empty string so it leaves the queue; a lookup that still fails after
+ * the retries stays {@code NULL} and is picked up again on the next run.
+ * <p>
+ * No rows are locked while the dictionary is called, so two nodes may look up the same merchant;
+ * the update only applies to rows that still have no phonetics.
+ */
+@Service
+class MerchantPhoneticEnrichmentService {
+    private static final Logger log = LoggerFactory.getLogger(MerchantPhoneticEnrichmentService.class);
+    static final String NO_PHONETICS = "";
+
+    private final MerchantBulkRepository merchantBulkRepository;
+    private final MerchantPhoneticService merchantPhoneticService;
+    private final ExecutorService merchantLoadExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batchTransaction;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Counter enriched;
+    private final Counter failed;
+    private volatile MerchantPhoneticsBacklog backlog = new MerchantPhoneticsBacklog(0, null);
+
+    public MerchantPhoneticEnrichmentService(MerchantBulkRepository merchantBulkRepository,
+                                             MerchantPhoneticService merchantPhoneticService,
+                                             @Qualifier("merchantLoadExecutor") ExecutorService merchantLoadExecutor,
+                                             ApplicationEventPublisher eventPublisher,
+                                             PlatformTransactionManager transactionManager,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${merchant.phonetics.enrichment.enabled:true}") boolean enabled,
+                                             @Value("${merchant.phonetics.enrichment.batch-size:100}") int batchSize,
+                                             @Value("${merchant.phonetics.enrichment.concurrency:8}") int concurrency,
+                                             @Value("${merchant.phonetics.enrichment.max-attempts:3}") int maxAttempts,
+                                             @Value("${merchant.phonetics.enrichment.backoff:PT0.2S}") Duration backoff) {
+        this.merchantBulkRepository = merchantBulkRepository;
+        this.merchantPhoneticService = merchantPhoneticService;
+        this.merchantLoadExecutor = merchantLoadExecutor;
+        this.eventPublisher = eventPublisher;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.enriched = Counter.builder("merchant.phonetics.enrichment.merchants").tag("result", "enriched").register(meterRegistry);
+        this.failed = Counter.builder("merchant.phonetics.enrichment.merchants").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("merchant.phonetics.enrichment.queue", this, service -> service.backlog.pending())
+                .description("Merchants waiting for phonetics as of the last run")
+                .register(meterRegistry);
+        Gauge.builder("merchant.phonetics.enrichment.lag", this, MerchantPhoneticEnrichmentService::lagSeconds)
+                .description("Age of the oldest merchant waiting for phonetics as of the last run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${merchant.phonetics.enrichment.interval:PT10S}")
+    void enrichPending() {
+        if (!enabled) {
+            return;
+        }
+        long afterId = 0;
+        List<MerchantNameView> page;
+        do {
+            page = merchantBulkRepository.findMissingPhonetics(afterId, batchSize);
+            if (!page.isEmpty()) {
+                enrich(page);
+                afterId = page.getLast().id();
+            }
+        } while (page.size() == batchSize);
+        backlog = merchantBulkRepository.countMissingPhonetics();
+    }
+
+    private void enrich(List<MerchantNameView> page) {
+        Map<Long, String> phoneticsById = new ConcurrentHashMap<>();
+        List<Runnable> lookups = page.stream()
+                .<Runnable>map(merchant -> () -> lookup(merchant).ifPresent(phonetics -> phoneticsById.put(merchant.id(), phonetics)))
+                .toList();
+        try {
+            MerchantFanOut.runAll(merchantLoadExecutor, concurrency, lookups);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            log.warn("Phonetics lookup failed unexpectedly", e.getCause());
+        }
+        if (phoneticsById.isEmpty()) {
+            return;
+        }
+        batchTransaction.executeWithoutResult(status -> {
+            merchantBulkRepository.updatePhonetics(phoneticsById);
+            phoneticsById.keySet().forEach(merchantId ->
+                    eventPublisher.publishEvent(new MerchantChangedEvent(MerchantChangedEvent.ChangeType.UPDATED, merchantId, null, null)));
+        });
+        enriched.increment(phoneticsById.size());
+    }
+
+    private Optional<String> lookup(MerchantNameView merchant) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Optional.of(merchantPhoneticService.getPhonetics(merchant.name()).orElse(NO_PHONETICS));
+            } catch (RuntimeException e) {
+                if (attempt == maxAttempts) {
+                    log.warn("Giving up on phonetics for merchant {} after {} attempts", merchant.id(), attempt, e);
+                    failed.increment();
+                    return Optional.empty();
+                }
+            }
+            try {
+                long maxBackoffMillis = backoff.toMillis() << (attempt - 1);
+                Thread.sleep(ThreadLocalRandom.current().nextLong(maxBackoffMillis + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        }
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldestCreatedAt = backlog.oldestCreatedAt();
+        return oldestCreatedAt != null ? Math.max(0, Duration.between(oldestCreatedAt, LocalDateTime.now()).toSeconds()) : 0;
+    }
+}
@@ -1,26 +1,123 @@
 package com.merchant.testing.service.merchant;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.merchant.testing.repository.MerchantPhoneticEntry;
+import com.merchant.testing.repository.MerchantPhoneticRepository;
 import com.merchant.testing.service.external.DictionaryApiService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
+/**
+ * Phonetics by merchant name, cached because many names repeat. Both answers and
+ * "no entry" answers are cached, each with its own TTL; failed lookups are not.
+ * Concurrent lookups of the same name share one dictionary call, made on the load executor
+ * rather than inside the cache's map lock, where it would pin a virtual thread's carrier. With
+ * {@code merchant.phonetics.persistent} the cache reads and writes through the
+ * {@code merchant_phonetics} table, so it survives restarts.
+ */
 @Service
 class MerchantPhoneticService {
     private final DictionaryApiService dictionaryApiService;
+    private final MerchantPhoneticRepository merchantPhoneticRepository;
+    private final boolean persistent;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final AsyncCache<String, MerchantPhoneticEntry> phonetics;
 
-    MerchantPhoneticService(DictionaryApiService dictionaryApiService) {
+    MerchantPhoneticService(DictionaryApiService dictionaryApiService,
+                            MerchantPhoneticRepository merchantPhoneticRepository,
+                            MeterRegistry meterRegistry,
+                            @Qualifier("merchantLoadExecutor") ExecutorService merchantLoadExecutor,
+                            @Value("${merchant.phonetics.persistent:true}") boolean persistent,
+                            @Value("${merchant.phonetics.maximum-size:10000}") long maximumSize,
+                            @Value("${merchant.phonetics.ttl:P7D}") Duration ttl,
+                            @Value("${merchant.phonetics.negative-ttl:PT1H}") Duration negativeTtl) {
         this.dictionaryApiService = dictionaryApiService;
+        this.merchantPhoneticRepository = merchantPhoneticRepository;
+        this.persistent = persistent;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.phonetics = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new RemainingTtl())
+                .recordStats()
+                .executor(merchantLoadExecutor)
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, phonetics, "merchants.phonetics");
     }
 
     public Optional<String> getPhonetics(String name) {
-        List<Map<String, String>> dictionary = dictionaryApiService.getDictionary(name);
+        String word = name.trim().toLowerCase(Locale.ROOT);
+        try {
+            return Optional.ofNullable(phonetics.get(word, this::load).join().phonetic());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private MerchantPhoneticEntry load(String word) {
+        if (persistent) {
+            Optional<MerchantPhoneticEntry> stored = merchantPhoneticRepository.findByWord(word)
+                    .filter(entry -> !remaining(entry).isNegative());
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+        }
+        MerchantPhoneticEntry entry = new MerchantPhoneticEntry(word, lookup(word), Instant.now());
+        if (persistent) {
+            merchantPhoneticRepository.save(entry);
+        }
+        return entry;
+    }
+
+    private String lookup(String word) {
+        List<Map<String, String>> dictionary = dictionaryApiService.getDictionary(word);
         if (dictionary.isEmpty()) {
-            return Optional.empty();
+            return null;
+        }
+        return dictionary.getFirst().get("phonetic");
+    }
+
+    private Duration remaining(MerchantPhoneticEntry entry) {
+        Duration entryTtl = entry.phonetic() != null ? ttl : negativeTtl;
+        return entryTtl.minus(Duration.between(entry.fetchedAt(), Instant.now()));
+    }
+
+    /**
+     * Entries loaded from the table only live for what is left of their TTL.
+     */
+    private class RemainingTtl implements Expiry<String, MerchantPhoneticEntry> {
+
+        @Override
+        public long expireAfterCreate(String word, MerchantPhoneticEntry entry, long currentTime) {
+            return Math.max(0, remaining(entry).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String word, MerchantPhoneticEntry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(word, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String word, MerchantPhoneticEntry entry, long currentTime, long currentDuration) {
+            return currentDuration;
         }
-        return Optional.of(dictionary.getFirst().get("phonetic"));
-        
     }
 }
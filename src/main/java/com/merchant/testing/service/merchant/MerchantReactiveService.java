@@ -0,0 +1,147 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.repository.MerchantReactiveRepository;
+import com.merchant.testing.repository.MerchantView;
+import com.merchant.testing.service.merchant.bean.MerchantCreateBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link MerchantService} for the {@code reactive} profile. Lookups by id and email go through
+ * {@link MerchantLoadServiceAsync}, under the same tier breakers and deadlines as blocking lookups,
+ * and listings through R2DBC, so neither holds a thread while waiting. Everything else still
+ * blocks somewhere below (JPA writes, the batch tier fan-out, bulk ingest, S3 uploads) and runs
+ * on {@code merchantBlockingScheduler} instead of the event loop.
+ */
+@Service
+@Profile("reactive")
+public class MerchantReactiveService {
+    private static final int BULK_PREFETCH = 16;
+
+    private final MerchantService merchantService;
+    private final MerchantBulkService merchantBulkService;
+    private final MerchantExportService merchantExportService;
+    private final MerchantReactiveRepository merchantReactiveRepository;
+    private final Scheduler merchantBlockingScheduler;
+    private final ExecutorService merchantLoadExecutor;
+    private final int pageMaxLimit;
+
+    public MerchantReactiveService(MerchantService merchantService, MerchantBulkService merchantBulkService,
+                                   MerchantExportService merchantExportService,
+                                   MerchantReactiveRepository merchantReactiveRepository,
+                                   @Qualifier("merchantBlockingScheduler") Scheduler merchantBlockingScheduler,
+                                   @Qualifier("merchantLoadExecutor") ExecutorService merchantLoadExecutor,
+                                   @Value("${merchant.list.max-limit:1000}") int pageMaxLimit) {
+        this.merchantService = merchantService;
+        this.merchantBulkService = merchantBulkService;
+        this.merchantExportService = merchantExportService;
+        this.merchantReactiveRepository = merchantReactiveRepository;
+        this.merchantBlockingScheduler = merchantBlockingScheduler;
+        this.merchantLoadExecutor = merchantLoadExecutor;
+        this.pageMaxLimit = pageMaxLimit;
+    }
+
+    public Mono<Merchant> createMerchant(MerchantCreateBean merchantCreateBean) {
+        return blocking(() -> merchantService.createMerchant(merchantCreateBean));
+    }
+
+    /**
+     * Bulk NDJSON ingest through {@link MerchantBulkService}. The request body is pulled
+     * {@value #BULK_PREFETCH} buffers ahead of the parser and the outcomes are pushed as the
+     * response is written, so a slow client on either side holds back the ingest.
+     */
+    public Flux<DataBuffer> createMerchants(Flux<DataBuffer> ndjson, DataBufferFactory bufferFactory) {
+        return Flux.from(DataBufferUtils.outputStreamPublisher(outcomes -> {
+            Iterator<InputStream> chunks = ndjson.map(chunk -> chunk.asInputStream(true)).toIterable(BULK_PREFETCH).iterator();
+            try (InputStream in = new SequenceInputStream(enumeration(chunks))) {
+                merchantBulkService.createMerchants(in, outcomes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, bufferFactory, merchantLoadExecutor));
+    }
+
+    /**
+     * Keyset page of merchants ordered by id, starting after {@code afterId} (exclusive), of one
+     * {@code businessType} when given.
+     */
+    public Flux<MerchantView> getMerchantsPage(Long afterId, BusinessTypeEnum businessType, int limit) {
+        if (limit < 1 || limit > pageMaxLimit) {
+            return Flux.error(new IllegalArgumentException("Page limit must be between 1 and " + pageMaxLimit));
+        }
+        long after = afterId != null ? afterId : 0L;
+        return businessType != null
+                ? merchantReactiveRepository.findPageByBusinessType(businessType, after, limit)
+                : merchantReactiveRepository.findPage(after, limit);
+    }
+
+    /**
+     * The whole merchants table, read as fast as the subscriber consumes it.
+     */
+    public Flux<Merchant> streamMerchants() {
+        return merchantReactiveRepository.findAll();
+    }
+
+    public Mono<String> exportMerchantsToS3() {
+        return blocking(merchantExportService::exportMerchantsToS3);
+    }
+
+    public Mono<Merchant> getMerchantById(Long id) {
+        return Mono.fromFuture(() -> merchantService.getMerchantByIdAsync(id)).flatMap(Mono::justOrEmpty);
+    }
+
+    public Mono<Merchant> getMerchantByEmail(String email) {
+        return Mono.fromFuture(() -> merchantService.getMerchantByEmailAsync(email)).flatMap(Mono::justOrEmpty);
+    }
+
+    public Mono<List<Merchant>> getMerchantsByIds(Collection<Long> ids) {
+        return blocking(() -> merchantService.getMerchantsByIds(ids));
+    }
+
+    public Mono<Merchant> updateMerchant(Long id, Merchant merchantDetails) {
+        return blocking(() -> merchantService.updateMerchant(id, merchantDetails));
+    }
+
+    public Mono<Void> deleteMerchant(Long id) {
+        return Mono.<Void>fromRunnable(() -> merchantService.deleteMerchant(id)).subscribeOn(merchantBlockingScheduler);
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(merchantBlockingScheduler);
+    }
+
+    private static Enumeration<InputStream> enumeration(Iterator<InputStream> chunks) {
+        return new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return chunks.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return chunks.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,166 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.repository.MerchantOutboxBacklog;
+import com.merchant.testing.repository.MerchantOutboxEntry;
+import com.merchant.testing.repository.MerchantOutboxRepository;
+import com.merchant.testing.repository.MerchantRepository;
+import com.merchant.testing.service.aws.DynamoDbService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind replication of merchants from Postgres to DynamoDB and the S3 segments through a
+ * transactional outbox. Every {@link MerchantChangedEvent} appends an outbox row before the writing transaction
+ * commits, so a change is replicated if and only if it is committed.
+ * <p>
+ * The outbox is drained in id order, one batch per transaction, under a Postgres advisory lock so
+ * a single node replicates at a time. Rows only name the merchant: the replicator copies the
+ * merchant's current row, or deletes it from the replicas when the row is gone, so several changes
+ * to one merchant collapse into its latest state and per-merchant order cannot be violated. Each
+ * batch becomes one S3 segment named from {@link MerchantOutboxRepository#nextSegmentId()} under
+ * the lock, so segments are ordered like the batches that wrote them. Outbox ids cannot name them:
+ * they are drawn before commit, so a row with a lower id can commit, and be replicated, after a
+ * higher one. A batch whose writes fail is rolled back and retried on the next run.
+ */
+@Component
+class MerchantReplicator {
+    private static final Logger log = LoggerFactory.getLogger(MerchantReplicator.class);
+
+    private final MerchantOutboxRepository merchantOutboxRepository;
+    private final MerchantRepository merchantRepository;
+    private final DynamoDbService dynamoDbService;
+    private final MerchantSegmentStore merchantSegmentStore;
+    private final MerchantTierFilters merchantTierFilters;
+    private final TransactionTemplate batchTransaction;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Counter replicated;
+    private volatile MerchantOutboxBacklog backlog = new MerchantOutboxBacklog(0, null);
+
+    public MerchantReplicator(MerchantOutboxRepository merchantOutboxRepository, MerchantRepository merchantRepository,
+                              DynamoDbService dynamoDbService, MerchantSegmentStore merchantSegmentStore,
+                              MerchantTierFilters merchantTierFilters,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                              @Value("${merchant.replication.enabled:true}") boolean enabled,
+                              @Value("${merchant.replication.batch-size:100}") int batchSize) {
+        this.merchantOutboxRepository = merchantOutboxRepository;
+        this.merchantRepository = merchantRepository;
+        this.dynamoDbService = dynamoDbService;
+        this.merchantSegmentStore = merchantSegmentStore;
+        this.merchantTierFilters = merchantTierFilters;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.replicated = Counter.builder("merchant.replication.changes").register(meterRegistry);
+        Gauge.builder("merchant.replication.queue", this, replicator -> replicator.backlog.pending())
+                .description("Outbox rows waiting to be replicated as of the last run")
+                .register(meterRegistry);
+        Gauge.builder("merchant.replication.lag", this, MerchantReplicator::lagSeconds)
+                .description("Age of the oldest outbox row as of the last run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    void onMerchantChanged(MerchantChangedEvent event) {
+        merchantOutboxRepository.append(event.merchantId(), event.email());
+    }
+
+    @Scheduled(fixedDelayString = "${merchant.replication.interval:PT1S}")
+    void replicatePending() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            boolean more;
+            do {
+                more = Boolean.TRUE.equals(batchTransaction.execute(status -> replicateBatch()));
+            } while (more);
+        } catch (RuntimeException e) {
+            log.warn("Merchant replication failed, the batch will be retried", e);
+        }
+        backlog = merchantOutboxRepository.countPending();
+    }
+
+    /**
+     * Replicates one batch; returns whether the batch was full, i.e. more rows may be waiting.
+     */
+    private boolean replicateBatch() {
+        if (!merchantOutboxRepository.tryLock()) {
+            return false;
+        }
+        List<MerchantOutboxEntry> entries = merchantOutboxRepository.findBatch(batchSize);
+        if (entries.isEmpty()) {
+            return false;
+        }
+        Set<Long> merchantIds = new LinkedHashSet<>();
+        for (MerchantOutboxEntry entry : entries) {
+            merchantIds.add(entry.merchantId());
+        }
+        Map<Long, Merchant> merchants = merchantRepository.findAllById(merchantIds).stream()
+                .collect(Collectors.toMap(Merchant::getId, Function.identity()));
+        List<Long> deletedIds = merchantIds.stream()
+                .filter(merchantId -> !merchants.containsKey(merchantId))
+                .toList();
+
+        dynamoDbService.batchWriteItems(
+                merchants.values().stream().map(MerchantReplicator::toItem).toList(),
+                deletedIds.stream().map(Object::toString).toList());
+        merchantSegmentStore.write(merchantOutboxRepository.nextSegmentId(), merchants.values(), deletedIds);
+        merchants.values().forEach(merchant ->
+                merchantTierFilters.recordReplicated(MerchantTier.DYNAMODB, merchant.getId().toString(), merchant.getEmail()));
+
+        merchantOutboxRepository.deleteByIds(entries.stream().map(MerchantOutboxEntry::id).toList());
+        replicated.increment(entries.size());
+        return entries.size() == batchSize;
+    }
+
+    /**
+     * The item layout {@link MerchantLoadServiceDynamoDB} reads back. {@code merchantName} is kept
+     * for the MerchantNameIndex; {@code updatedAt} versions the merchant for HTTP validators.
+     */
+    static Map<String, AttributeValue> toItem(Merchant merchant) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("id", AttributeValue.builder().s(merchant.getId().toString()).build());
+        putIfNotNull(item, "name", merchant.getName());
+        putIfNotNull(item, "merchantName", merchant.getName());
+        putIfNotNull(item, "email", merchant.getEmail());
+        putIfNotNull(item, "businessType", merchant.getBusinessType() != null ? merchant.getBusinessType().name() : null);
+        putIfNotNull(item, "phonetics", merchant.getPhonetics());
+        putIfNotNull(item, "updatedAt", merchant.getUpdatedAt() != null ? merchant.getUpdatedAt().toString() : null);
+        return item;
+    }
+
+    private static void putIfNotNull(Map<String, AttributeValue> item, String attribute, String value) {
+        if (value != null) {
+            item.put(attribute, AttributeValue.builder().s(value).build());
+        }
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldestCreatedAt = backlog.oldestCreatedAt();
+        return oldestCreatedAt != null ? Math.max(0, Duration.between(oldestCreatedAt, LocalDateTime.now()).toSeconds()) : 0;
+    }
+}
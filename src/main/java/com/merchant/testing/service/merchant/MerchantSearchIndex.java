@@ -0,0 +1,309 @@
+package com.merchant.testing.service.merchant;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over merchant names for {@link MerchantSearchService}. Each name is
+ * indexed under the Double Metaphone codes of its words, so "Jon Smyth" finds "John Smith", and
+ * under the character trigrams of its words, so typos and partial words still match.
+ * <p>
+ * Every merchant has an ordinal; postings are ascending arrays of ordinals. Renaming a merchant
+ * retires its ordinal and appends a new one, so postings stay append-only; retired ordinals are
+ * skipped by searches and dropped when the index is rebuilt. A term's document frequency counts
+ * only the live ordinals in its postings.
+ * <p>
+ * While a rebuild scans the table ({@link #load}), writes seen through events ({@link #put},
+ * {@link #remove}) win over rows read by the scan, which may predate them.
+ */
+final class MerchantSearchIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final DoubleMetaphone DOUBLE_METAPHONE = new DoubleMetaphone();
+    private static final String PHONETIC_PREFIX = "#";
+    private static final double PHONETIC_BOOST = 1.5;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Set<Long> pinned = new HashSet<>();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    /** Distinct terms of the name at each ordinal; 0 once the ordinal is retired. */
+    private int[] termCounts = new int[INITIAL_CAPACITY];
+    private int nextOrdinal;
+    private boolean loading = true;
+
+    record Hit(long id, String name, double score) {
+    }
+
+    /**
+     * Indexes a merchant's current name, replacing any earlier one.
+     */
+    void put(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pinned.add(id);
+            }
+            index(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pinned.add(id);
+            }
+            retire(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a row read by the rebuild scan, unless an event has already written that merchant.
+     */
+    void load(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            if (!pinned.contains(id)) {
+                index(id, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ends the rebuild scan: from now on every write comes from events.
+     */
+    void finishLoad() {
+        lock.writeLock().lock();
+        try {
+            loading = false;
+            pinned.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int terms() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code limit} best matches for {@code query}, best first. A term is weighted by how rare
+     * it is, and phonetic terms count more than trigrams; a name scores the share of the query's
+     * weight it matches, scaled down the more its length differs from the query's. Terms with more
+     * than {@code maxPostings} postings carry little weight and are skipped, except the rarest term
+     * of the query, of which only the first {@code maxPostings} postings are read. A query stays
+     * within {@code maxPostings} postings per term however common its words are; when all of them
+     * are that common, it ranks only the earliest-indexed names that match its rarest term.
+     */
+    List<Hit> search(String query, int limit, int maxPostings) {
+        List<String> queryTerms = terms(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            double merchants = Math.max(ordinals.size(), 1);
+            Postings[] matched = new Postings[queryTerms.size()];
+            double[] weights = new double[queryTerms.size()];
+            double queryWeight = 0;
+            int rarest = -1;
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                matched[i] = postings.get(term);
+                if (matched[i] != null && matched[i].live == 0) {
+                    matched[i] = null;
+                }
+                int documentFrequency = matched[i] != null ? matched[i].live : 0;
+                weights[i] = Math.log(1 + merchants / Math.max(documentFrequency, 1))
+                        * (term.startsWith(PHONETIC_PREFIX) ? PHONETIC_BOOST : 1);
+                queryWeight += weights[i];
+                if (matched[i] != null && (rarest < 0 || matched[i].live < matched[rarest].live)) {
+                    rarest = i;
+                }
+            }
+            if (rarest < 0) {
+                return List.of();
+            }
+
+            int terms = 0;
+            for (int i = 0; i < matched.length; i++) {
+                if (matched[i] != null && (i == rarest || matched[i].size <= maxPostings)) {
+                    matched[terms] = matched[i];
+                    weights[terms++] = weights[i];
+                }
+            }
+            return top(matched, weights, terms, queryTerms.size(), queryWeight, limit, maxPostings);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Walks the postings of the matched terms together in ordinal order, scoring each name once
+     * all of its matches have been seen, and keeps the best {@code limit}. Postings are read
+     * front to back, at most {@code maxPostings} of each term, so the walk stays sequential in
+     * memory and bounded however many names match.
+     */
+    private List<Hit> top(Postings[] matched, double[] weights, int terms, int queryTermCount, double queryWeight,
+                          int limit, int maxPostings) {
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Hit::score));
+        int[] cursors = new int[terms];
+        int[] ends = new int[terms];
+        int ordinal = Integer.MAX_VALUE;
+        for (int i = 0; i < terms; i++) {
+            ends[i] = Math.min(matched[i].size, maxPostings);
+            if (ends[i] > 0) {
+                ordinal = Math.min(ordinal, matched[i].ordinals[0]);
+            }
+        }
+        while (ordinal != Integer.MAX_VALUE) {
+            double matchedWeight = 0;
+            int next = Integer.MAX_VALUE;
+            for (int i = 0; i < terms; i++) {
+                Postings term = matched[i];
+                int cursor = cursors[i];
+                if (cursor < ends[i] && term.ordinals[cursor] == ordinal) {
+                    matchedWeight += weights[i];
+                    cursors[i] = ++cursor;
+                }
+                if (cursor < ends[i]) {
+                    next = Math.min(next, term.ordinals[cursor]);
+                }
+            }
+            int nameTermCount = termCounts[ordinal];
+            if (nameTermCount > 0) {
+                double score = matchedWeight / queryWeight
+                        * 2.0 * Math.min(queryTermCount, nameTermCount) / (queryTermCount + nameTermCount);
+                if (best.size() < limit || score > best.peek().score()) {
+                    best.add(new Hit(ids[ordinal], names[ordinal], score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            ordinal = next;
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::id));
+        return hits;
+    }
+
+    private void index(long id, String name) {
+        retire(id);
+        List<String> nameTerms = terms(name);
+        if (nameTerms.isEmpty()) {
+            return;
+        }
+        int ordinal = nextOrdinal++;
+        if (ordinal == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            termCounts = Arrays.copyOf(termCounts, capacity);
+        }
+        ids[ordinal] = id;
+        names[ordinal] = name;
+        termCounts[ordinal] = nameTerms.size();
+        ordinals.put(id, ordinal);
+        for (String term : nameTerms) {
+            postings.computeIfAbsent(term, t -> new Postings()).add(ordinal);
+        }
+    }
+
+    private void retire(long id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal != null) {
+            for (String term : terms(names[ordinal])) {
+                postings.get(term).live--;
+            }
+            termCounts[ordinal] = 0;
+            names[ordinal] = null;
+        }
+    }
+
+    /**
+     * Distinct terms of a name or query: for each word of its lowercased, accent-free form, its
+     * Double Metaphone codes (prefixed with {@value #PHONETIC_PREFIX}) and its trigrams, padded
+     * with {@code $} at both ends so that short words and word boundaries count.
+     */
+    static List<String> terms(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD)).replaceAll("");
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : NON_ALPHANUMERIC.split(normalized)) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String primary = DOUBLE_METAPHONE.doubleMetaphone(word);
+            if (primary != null && !primary.isEmpty()) {
+                terms.add(PHONETIC_PREFIX + primary);
+                String alternate = DOUBLE_METAPHONE.doubleMetaphone(word, true);
+                if (alternate != null && !alternate.isEmpty()) {
+                    terms.add(PHONETIC_PREFIX + alternate);
+                }
+            }
+            String padded = "$" + word + "$";
+            if (padded.length() <= 3) {
+                terms.add(padded);
+            }
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                terms.add(padded.substring(i, i + 3));
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+        /** Postings whose ordinal is not retired. */
+        private int live;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+            live++;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.service.merchant.bean.MerchantSearchHitBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Search of merchants by name, answered from a {@link MerchantSearchIndex} held in memory. The
+ * index is built from a scan of the merchants table at startup and rebuilt every
+ * {@code merchant.search.rebuild-interval}; writes made on this node are applied as they commit.
+ * Writes made by other nodes are only seen after the next rebuild, as with
+ * {@link MerchantLoadServiceSnapshot}.
+ */
+@Service
+public class MerchantSearchService {
+    private static final Logger log = LoggerFactory.getLogger(MerchantSearchService.class);
+    private static final String SEARCH_QUERY = "SELECT id, name FROM merchants";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Timer searchTimer;
+    private final boolean enabled;
+    private final int maxLimit;
+    private final int maxPostings;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile MerchantSearchIndex index;
+    private volatile MerchantSearchIndex building;
+
+    public MerchantSearchService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${merchant.search.enabled:true}") boolean enabled,
+                                 @Value("${merchant.search.max-limit:100}") int maxLimit,
+                                 @Value("${merchant.search.max-postings:20000}") int maxPostings,
+                                 @Value("${merchant.search.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.searchTimer = Timer.builder("merchant.search").register(meterRegistry);
+        this.enabled = enabled;
+        this.maxLimit = maxLimit;
+        this.maxPostings = maxPostings;
+        Gauge.builder("merchant.search.merchants", this, service -> service.index != null ? service.index.size() : 0)
+                .register(meterRegistry);
+        Gauge.builder("merchant.search.terms", this, service -> service.index != null ? service.index.terms() : 0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The {@code limit} merchants whose names best match {@code query}, by sound and by spelling.
+     */
+    public List<MerchantSearchHitBean> searchMerchants(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("Search limit must be between 1 and " + maxLimit);
+        }
+        MerchantSearchIndex current = index;
+        if (!enabled || current == null) {
+            throw new MerchantUnavailableException("Merchant search index is not available");
+        }
+        return searchTimer.record(() -> current.search(query, limit, maxPostings)
+                .stream()
+                .map(hit -> new MerchantSearchHitBean(Long.toString(hit.id()), hit.name(), hit.score()))
+                .toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onMerchantChanged(MerchantChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.changeType()) {
+            case DELETED -> apply(current -> current.remove(event.merchantId()));
+            case CREATED, UPDATED -> {
+                // null when the write left the name alone
+                if (event.name() != null) {
+                    apply(current -> current.put(event.merchantId(), event.name()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a write to the index being built as well as the one being searched. The index being
+     * built is read first: if it is already gone, the swap has happened and {@code index} is the
+     * new one; if it is not there yet, its scan starts after this write committed and will see it.
+     */
+    private void apply(Consumer<MerchantSearchIndex> write) {
+        MerchantSearchIndex next = building;
+        MerchantSearchIndex current = index;
+        if (next != null) {
+            write.accept(next);
+        }
+        if (current != null && current != next) {
+            write.accept(current);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${merchant.search.rebuild-interval:PT1H}")
+    void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild the merchant search index, keeping the previous one", e);
+        }
+    }
+
+    void rebuild() {
+        rebuildLock.lock();
+        try {
+            long startedAt = System.currentTimeMillis();
+            MerchantSearchIndex next = new MerchantSearchIndex();
+            building = next;
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(SEARCH_QUERY, (RowCallbackHandler)
+                        resultSet -> next.load(resultSet.getLong("id"), resultSet.getString("name"))));
+                next.finishLoad();
+                index = next;
+            } finally {
+                building = null;
+            }
+            log.info("Rebuilt merchant search index of {} merchants ({} terms) in {} ms",
+                    next.size(), next.terms(), System.currentTimeMillis() - startedAt);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
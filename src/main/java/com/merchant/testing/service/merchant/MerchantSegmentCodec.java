@@ -0,0 +1,206 @@
+package com.merchant.testing.service.merchant;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Byte layout of packed segments. A segment's data object is the concatenation of its records,
+ * each one raw-deflated merchant JSON, so any record can be read on its own with a ranged GET.
+ * Its index object lists, per merchant, the record's offset and length plus a hash of the email,
+ * at a fixed 24 bytes per entry. Offsets are ints, so a data object holds at most
+ * {@link #MAX_DATA_BYTES}; writers split larger segments.
+ */
+final class MerchantSegmentCodec {
+    static final long MAX_DATA_BYTES = Integer.MAX_VALUE;
+    private static final int INDEX_MAGIC = 0x4d534931; // "MSI1"
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private MerchantSegmentCodec() {
+    }
+
+    /**
+     * Appends records and tombstones for one segment to its data stream, recording their entries.
+     * A record that would end past {@link #MAX_DATA_BYTES} is refused rather than given an
+     * offset that wraps.
+     */
+    static final class Writer {
+        private final OutputStream data;
+        private final List<MerchantSegmentEntry> entries = new ArrayList<>();
+        private long size;
+
+        Writer(OutputStream data) {
+            this.data = data;
+        }
+
+        /**
+         * Copies an already compressed record, as compaction does.
+         */
+        void addRecord(long merchantId, long emailHash, byte[] record) throws IOException {
+            if (size + record.length > MAX_DATA_BYTES) {
+                throw new IllegalStateException("Merchant segment data would exceed " + MAX_DATA_BYTES + " bytes at merchant " + merchantId);
+            }
+            entries.add(new MerchantSegmentEntry(merchantId, emailHash, (int) size, record.length));
+            data.write(record);
+            size += record.length;
+        }
+
+        void addTombstone(long merchantId) {
+            entries.add(MerchantSegmentEntry.tombstone(merchantId));
+        }
+
+        boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        List<MerchantSegmentEntry> entries() {
+            return entries;
+        }
+    }
+
+    /**
+     * A {@link Writer} into memory, for segments small enough to build whole.
+     */
+    static final class Builder {
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private final Writer writer = new Writer(data);
+
+        void add(long merchantId, String email, byte[] json) {
+            addRecord(merchantId, emailHash(email), deflate(json));
+        }
+
+        void addRecord(long merchantId, long emailHash, byte[] record) {
+            try {
+                writer.addRecord(merchantId, emailHash, record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void addTombstone(long merchantId) {
+            writer.addTombstone(merchantId);
+        }
+
+        boolean isEmpty() {
+            return writer.isEmpty();
+        }
+
+        byte[] data() {
+            return data.toByteArray();
+        }
+
+        List<MerchantSegmentEntry> entries() {
+            return writer.entries();
+        }
+    }
+
+    static byte[] encodeIndex(List<MerchantSegmentEntry> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + entries.size() * 24);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(entries.size());
+            for (MerchantSegmentEntry entry : entries) {
+                out.writeLong(entry.merchantId());
+                out.writeLong(entry.emailHash());
+                out.writeInt(entry.offset());
+                out.writeInt(entry.length());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<MerchantSegmentEntry> decodeIndex(byte[] index) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(index))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                throw new IllegalStateException("Not a merchant segment index");
+            }
+            int count = in.readInt();
+            List<MerchantSegmentEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(new MerchantSegmentEntry(in.readLong(), in.readLong(), in.readInt(), in.readInt()));
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] bytes, int offset, int length) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 3);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated merchant segment record");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt merchant segment record", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reads the next record of a data stream, {@code length} bytes that must all be there.
+     */
+    static byte[] readRecord(InputStream data, int length) throws IOException {
+        byte[] record = data.readNBytes(length);
+        if (record.length < length) {
+            throw new EOFException("Merchant segment data ends inside a record");
+        }
+        return record;
+    }
+
+    /**
+     * 64-bit FNV-1a of the email. Lookups compare the stored email, so a collision costs an
+     * extra read, never a wrong answer.
+     */
+    static long emailHash(String email) {
+        if (email == null) {
+            return 0;
+        }
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
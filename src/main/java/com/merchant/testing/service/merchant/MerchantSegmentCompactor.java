@@ -0,0 +1,188 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.repository.MerchantOutboxRepository;
+import com.merchant.testing.service.aws.S3StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Merges all S3 segments into one when there are more than
+ * {@code merchant.s3.segments.compaction.max-segments} of them, or when more than
+ * {@code merchant.s3.segments.compaction.max-garbage-ratio} of their bytes are superseded
+ * records. Only live records are copied, still compressed and streamed from the inputs into a
+ * multipart upload, and tombstones are dropped since no older segment survives.
+ * <p>
+ * Live records beyond {@code merchant.s3.segments.compaction.max-segment-size} roll over into
+ * further output segments, so no data object outgrows the codec's int offsets. The outputs hold
+ * different merchants, so their relative order does not matter; they are named with successive
+ * generations of the newest input's id.
+ * <p>
+ * Compaction takes the replication lock, so it never races the replicator's writes. The inputs'
+ * index objects are deleted at once; their data objects, which nodes with an older index
+ * snapshot may still read, are deleted by the next run. The compaction interval must therefore
+ * be well above {@code merchant.s3.segments.refresh-interval}.
+ */
+@Component
+class MerchantSegmentCompactor {
+    private static final Logger log = LoggerFactory.getLogger(MerchantSegmentCompactor.class);
+
+    private final MerchantSegmentStore merchantSegmentStore;
+    private final S3StorageService s3StorageService;
+    private final MerchantOutboxRepository merchantOutboxRepository;
+    private final TransactionTemplate lockTransaction;
+    private final boolean enabled;
+    private final int maxSegments;
+    private final double maxGarbageRatio;
+    private final long maxSegmentBytes;
+
+    public MerchantSegmentCompactor(MerchantSegmentStore merchantSegmentStore, S3StorageService s3StorageService,
+                                    MerchantOutboxRepository merchantOutboxRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${merchant.s3.segments.compaction.enabled:true}") boolean enabled,
+                                    @Value("${merchant.s3.segments.compaction.max-segments:32}") int maxSegments,
+                                    @Value("${merchant.s3.segments.compaction.max-garbage-ratio:0.5}") double maxGarbageRatio,
+                                    @Value("${merchant.s3.segments.compaction.max-segment-size:1GB}") DataSize maxSegmentSize) {
+        if (maxSegmentSize.toBytes() <= 0 || maxSegmentSize.toBytes() > MerchantSegmentCodec.MAX_DATA_BYTES) {
+            throw new IllegalArgumentException("merchant.s3.segments.compaction.max-segment-size must be between 1 and "
+                    + MerchantSegmentCodec.MAX_DATA_BYTES + " bytes: " + maxSegmentSize);
+        }
+        this.merchantSegmentStore = merchantSegmentStore;
+        this.s3StorageService = s3StorageService;
+        this.merchantOutboxRepository = merchantOutboxRepository;
+        this.lockTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxSegments = maxSegments;
+        this.maxGarbageRatio = maxGarbageRatio;
+        this.maxSegmentBytes = maxSegmentSize.toBytes();
+    }
+
+    @Scheduled(fixedDelayString = "${merchant.s3.segments.compaction.interval:PT10M}")
+    void compact() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            lockTransaction.executeWithoutResult(status -> {
+                if (merchantOutboxRepository.tryLock()) {
+                    compactLocked();
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Merchant segment compaction failed, it will be retried", e);
+        }
+    }
+
+    private void compactLocked() {
+        deleteUnindexedData();
+        merchantSegmentStore.refresh();
+        MerchantSegmentIndex index = merchantSegmentStore.index();
+        List<MerchantSegmentName> segments = index.segments();
+        // a compaction leaves about live / max-segment-size + 1 segments, which must not start another
+        long minSegments = index.liveBytes() / maxSegmentBytes + 1;
+        if (segments.size() < 2 || (segments.size() <= Math.max(maxSegments, minSegments) && garbageRatio(index) <= maxGarbageRatio)) {
+            return;
+        }
+
+        Map<MerchantSegmentName, List<MerchantSegmentEntry>> liveBySegment = new LinkedHashMap<>();
+        for (MerchantSegmentName segment : segments) {
+            List<MerchantSegmentEntry> live = merchantSegmentStore.entries(segment).stream()
+                    .filter(entry -> index.isLive(segment, entry))
+                    .sorted(Comparator.comparingInt(MerchantSegmentEntry::offset))
+                    .toList();
+            if (!live.isEmpty()) {
+                liveBySegment.put(segment, live);
+            }
+        }
+        List<Map<MerchantSegmentName, List<MerchantSegmentEntry>>> outputs = split(liveBySegment);
+        MerchantSegmentName name = segments.getLast();
+        for (Map<MerchantSegmentName, List<MerchantSegmentEntry>> output : outputs) {
+            name = name.nextGeneration();
+            merchantSegmentStore.writeSegment(name, compacted -> {
+                for (Map.Entry<MerchantSegmentName, List<MerchantSegmentEntry>> segment : output.entrySet()) {
+                    merchantSegmentStore.readSegment(segment.getKey(), data -> copyRecords(data, segment.getValue(), compacted));
+                }
+            });
+        }
+        s3StorageService.deleteFiles(segments.stream().map(MerchantSegmentName::indexKey).toList());
+        merchantSegmentStore.refresh();
+        log.info("Compacted {} merchant segments into {} holding {} merchants", segments.size(), outputs.size(), index.size());
+    }
+
+    /**
+     * Cuts the live records, kept in segment and offset order, into outputs of at most
+     * {@code maxSegmentBytes} each.
+     */
+    private List<Map<MerchantSegmentName, List<MerchantSegmentEntry>>> split(Map<MerchantSegmentName, List<MerchantSegmentEntry>> liveBySegment) {
+        List<Map<MerchantSegmentName, List<MerchantSegmentEntry>>> outputs = new ArrayList<>();
+        Map<MerchantSegmentName, List<MerchantSegmentEntry>> output = new LinkedHashMap<>();
+        long outputBytes = 0;
+        for (Map.Entry<MerchantSegmentName, List<MerchantSegmentEntry>> segment : liveBySegment.entrySet()) {
+            for (MerchantSegmentEntry entry : segment.getValue()) {
+                if (outputBytes > 0 && outputBytes + entry.length() > maxSegmentBytes) {
+                    outputs.add(output);
+                    output = new LinkedHashMap<>();
+                    outputBytes = 0;
+                }
+                output.computeIfAbsent(segment.getKey(), key -> new ArrayList<>()).add(entry);
+                outputBytes += entry.length();
+            }
+        }
+        if (!output.isEmpty()) {
+            outputs.add(output);
+        }
+        return outputs;
+    }
+
+    /**
+     * Copies the live records, in offset order, from a segment's data stream as it is read.
+     */
+    private static Void copyRecords(InputStream data, List<MerchantSegmentEntry> live, MerchantSegmentCodec.Writer compacted)
+            throws IOException {
+        long position = 0;
+        for (MerchantSegmentEntry entry : live) {
+            data.skipNBytes(entry.offset() - position);
+            byte[] record = MerchantSegmentCodec.readRecord(data, entry.length());
+            compacted.addRecord(entry.merchantId(), entry.emailHash(), record);
+            position = entry.offset() + entry.length();
+        }
+        return null;
+    }
+
+    /**
+     * Data objects without an index: inputs of an earlier compaction, or a segment whose writer
+     * failed before writing the index and whose batch was retried under a new name.
+     */
+    private void deleteUnindexedData() {
+        List<String> keys = s3StorageService.listKeys(MerchantSegmentName.PREFIX);
+        Set<String> indexKeys = keys.stream()
+                .filter(key -> MerchantSegmentName.fromIndexKey(key).isPresent())
+                .collect(Collectors.toSet());
+        List<String> unindexed = keys.stream()
+                .filter(MerchantSegmentName::isDataKey)
+                .filter(key -> !indexKeys.contains(MerchantSegmentName.indexKeyOf(key)))
+                .toList();
+        if (!unindexed.isEmpty()) {
+            s3StorageService.deleteFiles(unindexed);
+        }
+    }
+
+    private static double garbageRatio(MerchantSegmentIndex index) {
+        return index.totalBytes() == 0 ? 0 : 1 - (double) index.liveBytes() / index.totalBytes();
+    }
+}
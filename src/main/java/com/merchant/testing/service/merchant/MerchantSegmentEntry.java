@@ -0,0 +1,16 @@
+package com.merchant.testing.service.merchant;
+
+/**
+ * Where one merchant's record sits in its segment. A negative {@code length} is a tombstone:
+ * the merchant was deleted and older segments must not answer for it.
+ */
+record MerchantSegmentEntry(long merchantId, long emailHash, int offset, int length) {
+
+    static MerchantSegmentEntry tombstone(long merchantId) {
+        return new MerchantSegmentEntry(merchantId, 0, 0, -1);
+    }
+
+    boolean isTombstone() {
+        return length < 0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.merchant.testing.service.merchant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable merge of all segment indexes: for every live merchant, the newest record. Kept as
+ * sorted primitive arrays (36 bytes per merchant) and searched by bisection.
+ */
+final class MerchantSegmentIndex {
+    static final MerchantSegmentIndex EMPTY = build(new TreeMap<>());
+
+    record Location(MerchantSegmentName segment, int offset, int length) {
+    }
+
+    private final List<MerchantSegmentName> segments;
+    private final long[] ids;
+    private final int[] segmentOrdinals;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final long[] emailHashes;
+    private final long[] emailIds;
+    private final long totalBytes;
+
+    private MerchantSegmentIndex(List<MerchantSegmentName> segments, long[] ids, int[] segmentOrdinals, int[] offsets,
+                                 int[] lengths, long[] emailHashes, long[] emailIds, long totalBytes) {
+        this.segments = segments;
+        this.ids = ids;
+        this.segmentOrdinals = segmentOrdinals;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.emailHashes = emailHashes;
+        this.emailIds = emailIds;
+        this.totalBytes = totalBytes;
+    }
+
+    static MerchantSegmentIndex build(SortedMap<MerchantSegmentName, List<MerchantSegmentEntry>> segmentEntries) {
+        List<MerchantSegmentName> segments = new ArrayList<>(segmentEntries.keySet());
+        Map<Long, int[]> latest = new HashMap<>();
+        Map<Long, Long> emailHashById = new HashMap<>();
+        long totalBytes = 0;
+        for (int ordinal = 0; ordinal < segments.size(); ordinal++) {
+            for (MerchantSegmentEntry entry : segmentEntries.get(segments.get(ordinal))) {
+                if (entry.isTombstone()) {
+                    latest.remove(entry.merchantId());
+                    emailHashById.remove(entry.merchantId());
+                } else {
+                    totalBytes += entry.length();
+                    latest.put(entry.merchantId(), new int[]{ordinal, entry.offset(), entry.length()});
+                    emailHashById.put(entry.merchantId(), entry.emailHash());
+                }
+            }
+        }
+
+        long[] ids = latest.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int[] segmentOrdinals = new int[ids.length];
+        int[] offsets = new int[ids.length];
+        int[] lengths = new int[ids.length];
+        long[][] emails = new long[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            int[] location = latest.get(ids[i]);
+            segmentOrdinals[i] = location[0];
+            offsets[i] = location[1];
+            lengths[i] = location[2];
+            emails[i] = new long[]{emailHashById.get(ids[i]), ids[i]};
+        }
+        Arrays.sort(emails, Comparator.comparingLong(email -> email[0]));
+        long[] emailHashes = new long[emails.length];
+        long[] emailIds = new long[emails.length];
+        for (int i = 0; i < emails.length; i++) {
+            emailHashes[i] = emails[i][0];
+            emailIds[i] = emails[i][1];
+        }
+        return new MerchantSegmentIndex(List.copyOf(segments), ids, segmentOrdinals, offsets, lengths,
+                emailHashes, emailIds, totalBytes);
+    }
+
+    Optional<Location> locate(long merchantId) {
+        int i = Arrays.binarySearch(ids, merchantId);
+        return i >= 0 ? Optional.of(new Location(segments.get(segmentOrdinals[i]), offsets[i], lengths[i])) : Optional.empty();
+    }
+
+    /**
+     * Ids of the live merchants whose email hashes like this one; almost always zero or one.
+     */
+    List<Long> idsForEmail(String email) {
+        long hash = MerchantSegmentCodec.emailHash(email);
+        int i = Arrays.binarySearch(emailHashes, hash);
+        if (i < 0) {
+            return List.of();
+        }
+        while (i > 0 && emailHashes[i - 1] == hash) {
+            i--;
+        }
+        List<Long> candidates = new ArrayList<>(1);
+        for (; i < emailHashes.length && emailHashes[i] == hash; i++) {
+            candidates.add(emailIds[i]);
+        }
+        return candidates;
+    }
+
+    boolean isLive(MerchantSegmentName segment, MerchantSegmentEntry entry) {
+        return !entry.isTombstone() && locate(entry.merchantId())
+                .filter(location -> location.segment().equals(segment) && location.offset() == entry.offset())
+                .isPresent();
+    }
+
+    List<MerchantSegmentName> segments() {
+        return segments;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long liveBytes() {
+        long liveBytes = 0;
+        for (int length : lengths) {
+            liveBytes += length;
+        }
+        return liveBytes;
+    }
+
+    /**
+     * Bytes of all records in all segments, superseded ones included.
+     */
+    long totalBytes() {
+        return totalBytes;
+    }
+}
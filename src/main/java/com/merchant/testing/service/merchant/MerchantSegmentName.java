@@ -0,0 +1,58 @@
+package com.merchant.testing.service.merchant;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Identifies a packed S3 segment. Segments are ordered by {@code id}, then {@code generation}:
+ * when a merchant appears in several segments the last one wins. The replicator takes each
+ * segment's id from a sequence under the replication lock; compaction, under the same lock, keeps
+ * the id of the newest segment it merges and bumps the generation, which sorts after every input
+ * and before any segment the replicator writes later.
+ */
+record MerchantSegmentName(long id, int generation) implements Comparable<MerchantSegmentName> {
+    static final String PREFIX = "merchant-segments/";
+    private static final String DATA_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final Pattern INDEX_KEY = Pattern.compile(Pattern.quote(PREFIX) + "(\\d{19})-(\\d{4})" + Pattern.quote(INDEX_SUFFIX));
+    private static final Comparator<MerchantSegmentName> ORDER =
+            Comparator.comparingLong(MerchantSegmentName::id).thenComparingInt(MerchantSegmentName::generation);
+
+    String dataKey() {
+        return PREFIX + baseName() + DATA_SUFFIX;
+    }
+
+    String indexKey() {
+        return PREFIX + baseName() + INDEX_SUFFIX;
+    }
+
+    MerchantSegmentName nextGeneration() {
+        return new MerchantSegmentName(id, generation + 1);
+    }
+
+    static Optional<MerchantSegmentName> fromIndexKey(String key) {
+        Matcher matcher = INDEX_KEY.matcher(key);
+        return matcher.matches()
+                ? Optional.of(new MerchantSegmentName(Long.parseLong(matcher.group(1)), Integer.parseInt(matcher.group(2))))
+                : Optional.empty();
+    }
+
+    static boolean isDataKey(String key) {
+        return key.startsWith(PREFIX) && key.endsWith(DATA_SUFFIX);
+    }
+
+    static String indexKeyOf(String dataKey) {
+        return dataKey.substring(0, dataKey.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX;
+    }
+
+    private String baseName() {
+        return String.format("%019d-%04d", id, generation);
+    }
+
+    @Override
+    public int compareTo(MerchantSegmentName other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,331 @@
+package com.merchant.testing.service.merchant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.service.aws.S3AsyncStorageService;
+import com.merchant.testing.service.aws.S3StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Merchants in S3 as packed segments under {@code merchant-segments/}: each segment is a data
+ * object of compressed records plus a small index object, written in that order so an index
+ * never names missing data. Every node keeps the merge of all segment indexes in memory,
+ * refreshed every {@code merchant.s3.segments.refresh-interval}, so a lookup is one ranged GET
+ * and a batch lookup is one ranged GET per run of nearby records.
+ */
+@Component
+class MerchantSegmentStore {
+    private static final Logger log = LoggerFactory.getLogger(MerchantSegmentStore.class);
+
+    private final S3StorageService s3StorageService;
+    private final S3AsyncStorageService s3AsyncStorageService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService merchantLoadExecutor;
+    private final int rangeMergeGap;
+    private final int batchConcurrency;
+    /**
+     * Guards {@link #segmentEntries}; a lock rather than {@code synchronized} because refreshes
+     * do I/O, which would pin a virtual thread's carrier.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SortedMap<MerchantSegmentName, List<MerchantSegmentEntry>> segmentEntries = new TreeMap<>();
+    private volatile MerchantSegmentIndex index = MerchantSegmentIndex.EMPTY;
+
+    public MerchantSegmentStore(S3StorageService s3StorageService, S3AsyncStorageService s3AsyncStorageService,
+                                ObjectMapper objectMapper,
+                                @Qualifier("merchantLoadExecutor") ExecutorService merchantLoadExecutor,
+                                @Value("${merchant.s3.segments.range-merge-gap:65536}") int rangeMergeGap,
+                                @Value("${merchant.s3.batch-concurrency:16}") int batchConcurrency) {
+        this.s3StorageService = s3StorageService;
+        this.s3AsyncStorageService = s3AsyncStorageService;
+        this.objectMapper = objectMapper;
+        this.merchantLoadExecutor = merchantLoadExecutor;
+        this.rangeMergeGap = rangeMergeGap;
+        this.batchConcurrency = batchConcurrency;
+    }
+
+    /**
+     * Loads the indexes of new segments, forgets compacted ones and rebuilds the merged index
+     * if anything changed.
+     */
+    @Scheduled(fixedDelayString = "${merchant.s3.segments.refresh-interval:PT5S}")
+    void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh the merchant segment index, serving the previous one", e);
+        }
+    }
+
+    void refresh() {
+        lock.lock();
+        try {
+            Set<MerchantSegmentName> listed = s3StorageService.listKeys(MerchantSegmentName.PREFIX).stream()
+                    .map(MerchantSegmentName::fromIndexKey)
+                    .flatMap(Optional::stream)
+                    .collect(Collectors.toCollection(TreeSet::new));
+            boolean changed = segmentEntries.keySet().retainAll(listed);
+            for (MerchantSegmentName segment : listed) {
+                if (!segmentEntries.containsKey(segment)) {
+                    segmentEntries.put(segment, MerchantSegmentCodec.decodeIndex(s3StorageService.downloadBytes(segment.indexKey())));
+                    changed = true;
+                }
+            }
+            if (changed) {
+                index = MerchantSegmentIndex.build(segmentEntries);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    MerchantSegmentIndex index() {
+        return index;
+    }
+
+    List<MerchantSegmentEntry> entries(MerchantSegmentName segment) {
+        lock.lock();
+        try {
+            return segmentEntries.getOrDefault(segment, List.of());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Optional<Merchant> findById(String merchantId) {
+        return index.locate(Long.parseLong(merchantId)).flatMap(this::read);
+    }
+
+    Optional<Merchant> findByEmail(String email) {
+        MerchantSegmentIndex snapshot = index;
+        for (Long merchantId : snapshot.idsForEmail(email)) {
+            Optional<Merchant> merchant = snapshot.locate(merchantId)
+                    .flatMap(this::read)
+                    .filter(candidate -> email.equals(candidate.getEmail()));
+            if (merchant.isPresent()) {
+                return merchant;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Records of one segment that lie within {@code merchant.s3.segments.range-merge-gap} bytes
+     * of each other are fetched together with a single ranged GET, with at most
+     * {@code merchant.s3.batch-concurrency} GETs in flight.
+     */
+    Map<String, Merchant> findAllById(Collection<String> merchantIds) {
+        MerchantSegmentIndex snapshot = index;
+        Map<MerchantSegmentName, List<Located>> bySegment = new HashMap<>();
+        for (String merchantId : Set.copyOf(merchantIds)) {
+            snapshot.locate(Long.parseLong(merchantId)).ifPresent(location ->
+                    bySegment.computeIfAbsent(location.segment(), segment -> new ArrayList<>()).add(new Located(merchantId, location)));
+        }
+        Map<String, Merchant> merchants = new ConcurrentHashMap<>();
+        List<Runnable> reads = new ArrayList<>();
+        for (List<Located> located : bySegment.values()) {
+            for (List<Located> range : coalesce(located)) {
+                reads.add(() -> readRange(range, merchants));
+            }
+        }
+        try {
+            MerchantFanOut.runAll(merchantLoadExecutor, batchConcurrency, reads);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading merchants from S3", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to load merchants from S3", e.getCause());
+        }
+        return merchants;
+    }
+
+    CompletableFuture<Optional<Merchant>> findByIdAsync(String merchantId) {
+        return index.locate(Long.parseLong(merchantId))
+                .map(this::readAsync)
+                .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()));
+    }
+
+    CompletableFuture<Optional<Merchant>> findByEmailAsync(String email) {
+        MerchantSegmentIndex snapshot = index;
+        CompletableFuture<Optional<Merchant>> result = CompletableFuture.completedFuture(Optional.empty());
+        for (Long merchantId : snapshot.idsForEmail(email)) {
+            result = result.thenCompose(found -> found.isPresent()
+                    ? CompletableFuture.completedFuture(found)
+                    : snapshot.locate(merchantId)
+                            .map(this::readAsync)
+                            .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()))
+                            .thenApply(merchant -> merchant.filter(candidate -> email.equals(candidate.getEmail()))));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the merchants, and tombstones for the deleted ids, as a new generation-0 segment.
+     */
+    void write(long segmentId, Collection<Merchant> merchants, Collection<Long> deletedIds) {
+        MerchantSegmentCodec.Builder segment = new MerchantSegmentCodec.Builder();
+        for (Merchant merchant : merchants) {
+            segment.add(merchant.getId(), merchant.getEmail(), toJson(merchant));
+        }
+        deletedIds.forEach(segment::addTombstone);
+        if (!segment.isEmpty()) {
+            writeSegment(new MerchantSegmentName(segmentId, 0), segment);
+        }
+    }
+
+    void writeSegment(MerchantSegmentName name, MerchantSegmentCodec.Builder segment) {
+        s3StorageService.uploadBytes(name.dataKey(), segment.data());
+        s3StorageService.uploadBytes(name.indexKey(), MerchantSegmentCodec.encodeIndex(segment.entries()));
+    }
+
+    /**
+     * Streams the records {@code records} writes into the segment's data object, then writes its
+     * index, so a segment costs one upload part of heap whatever its size, up to the codec's
+     * {@link MerchantSegmentCodec#MAX_DATA_BYTES}.
+     */
+    void writeSegment(MerchantSegmentName name, SegmentRecords records) {
+        List<MerchantSegmentEntry> entries = new ArrayList<>();
+        s3StorageService.write(name.dataKey(), data -> {
+            MerchantSegmentCodec.Writer writer = new MerchantSegmentCodec.Writer(data);
+            records.writeTo(writer);
+            entries.addAll(writer.entries());
+        });
+        s3StorageService.uploadBytes(name.indexKey(), MerchantSegmentCodec.encodeIndex(entries));
+    }
+
+    <T> T readSegment(MerchantSegmentName segment, S3StorageService.StreamReader<T> reader) {
+        return s3StorageService.read(segment.dataKey(), reader);
+    }
+
+    /**
+     * Records are a few hundred bytes, so they are parsed from an array: a stream parser would
+     * allocate an 8 KB read buffer that the short-lived virtual threads cannot recycle.
+     */
+    Merchant decode(byte[] bytes, int offset, int length) {
+        try {
+            return objectMapper.readValue(MerchantSegmentCodec.inflate(bytes, offset, length), Merchant.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse merchant segment record", e);
+        }
+    }
+
+    /**
+     * A missing data object means the segment was compacted away after our last refresh.
+     */
+    private Optional<Merchant> read(MerchantSegmentIndex.Location location) {
+        try {
+            byte[] record = s3StorageService.readRange(location.segment().dataKey(), location.offset(), location.length(),
+                    content -> MerchantSegmentCodec.readRecord(content, location.length()));
+            return Optional.of(decode(record, 0, record.length));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (UncheckedIOException e) {
+            throw new IllegalStateException("Failed to read merchant segment record", e.getCause());
+        }
+    }
+
+    private CompletableFuture<Optional<Merchant>> readAsync(MerchantSegmentIndex.Location location) {
+        return s3AsyncStorageService.downloadRange(location.segment().dataKey(), location.offset(), location.length())
+                .handle((record, error) -> {
+                    if (error == null) {
+                        return Optional.of(decode(record, 0, record.length));
+                    }
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof NoSuchKeyException) {
+                        return Optional.empty();
+                    }
+                    throw error instanceof CompletionException completionException ? completionException : new CompletionException(error);
+                });
+    }
+
+    /**
+     * Walks the ranged GET's stream record by record, skipping the gaps between them, so only
+     * one compressed record is buffered at a time.
+     */
+    private void readRange(List<Located> range, Map<String, Merchant> merchants) {
+        MerchantSegmentIndex.Location first = range.getFirst().location();
+        MerchantSegmentIndex.Location last = range.getLast().location();
+        int start = first.offset();
+        try {
+            s3StorageService.readRange(first.segment().dataKey(), start, last.offset() + last.length() - start, content -> {
+                int position = start;
+                for (Located located : range) {
+                    MerchantSegmentIndex.Location location = located.location();
+                    content.skipNBytes(location.offset() - position);
+                    byte[] record = MerchantSegmentCodec.readRecord(content, location.length());
+                    merchants.put(located.merchantId(), decode(record, 0, record.length));
+                    position = location.offset() + location.length();
+                }
+                return null;
+            });
+        } catch (NoSuchKeyException e) {
+            // compacted away after our last refresh: misses
+        } catch (UncheckedIOException e) {
+            throw new IllegalStateException("Failed to read merchant segment records", e.getCause());
+        }
+    }
+
+    private List<List<Located>> coalesce(List<Located> located) {
+        located.sort(Comparator.comparingInt(entry -> entry.location().offset()));
+        List<List<Located>> ranges = new ArrayList<>();
+        List<Located> range = new ArrayList<>();
+        int end = 0;
+        for (Located entry : located) {
+            if (!range.isEmpty() && entry.location().offset() - end > rangeMergeGap) {
+                ranges.add(range);
+                range = new ArrayList<>();
+            }
+            range.add(entry);
+            end = entry.location().offset() + entry.location().length();
+        }
+        ranges.add(range);
+        return ranges;
+    }
+
+    private byte[] toJson(Merchant merchant) {
+        try {
+            return objectMapper.writeValueAsBytes(merchant);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialise merchant " + merchant.getId(), e);
+        }
+    }
+
+    private record Located(String merchantId, MerchantSegmentIndex.Location location) {
+    }
+
+    @FunctionalInterface
+    interface SegmentRecords {
+        void writeTo(MerchantSegmentCodec.Writer segment) throws IOException;
+    }
+}
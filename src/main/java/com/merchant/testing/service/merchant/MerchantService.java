@@ -1,69 +1,159 @@
 package com.merchant.testing.service.merchant;
 
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
 import com.merchant.testing.entity.Merchant;
 import com.merchant.testing.entity.MerchantBuilder;
+import com.merchant.testing.repository.MerchantReadRepository;
 import com.merchant.testing.repository.MerchantRepository;
+import com.merchant.testing.repository.MerchantView;
 import com.merchant.testing.service.merchant.bean.MerchantCreateBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class MerchantService {
 
-    private final MerchantLoadServiceStrategy merchantLoadServiceStrategy;
+    private final MerchantLoadServiceCache merchantLoadServiceCache;
     private final MerchantRepository merchantRepository;
-    private final MerchantPhoneticService merchantPhoneticService;
+    private final MerchantReadRepository merchantReadRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchGetMaxIds;
+    private final int pageMaxLimit;
+    private final boolean asyncLoad;
 
     public MerchantService(
-            MerchantLoadServiceStrategy merchantLoadServiceStrategy, MerchantRepository merchantRepository,
-            MerchantPhoneticService merchantPhoneticService) {
-        this.merchantLoadServiceStrategy = merchantLoadServiceStrategy;
+            MerchantLoadServiceCache merchantLoadServiceCache, MerchantRepository merchantRepository,
+            MerchantReadRepository merchantReadRepository, ApplicationEventPublisher eventPublisher,
+            @Value("${merchant.batch-get.max-ids:500}") int batchGetMaxIds,
+            @Value("${merchant.list.max-limit:1000}") int pageMaxLimit,
+            @Value("${merchant.load.async.enabled:false}") boolean asyncLoad) {
+        this.merchantLoadServiceCache = merchantLoadServiceCache;
         this.merchantRepository = merchantRepository;
-        this.merchantPhoneticService = merchantPhoneticService;
+        this.merchantReadRepository = merchantReadRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchGetMaxIds = batchGetMaxIds;
+        this.pageMaxLimit = pageMaxLimit;
+        this.asyncLoad = asyncLoad;
     }
 
+    /**
+     * Phonetics are left unset here and filled in later by {@link MerchantPhoneticEnrichmentService},
+     * so creation never waits on the dictionary API while holding a connection.
+     */
     @Transactional
     public Merchant createMerchant(MerchantCreateBean merchantCreateBean) {
         if (merchantRepository.existsByEmail(merchantCreateBean.email())) {
             throw new IllegalArgumentException("Merchant with email already exists");
         }
-        String phonetics = merchantPhoneticService.getPhonetics(merchantCreateBean.name()).orElse("");
         Merchant merchant = MerchantBuilder.aMerchant()
                 .withEmail(merchantCreateBean.email())
                 .withName(merchantCreateBean.name())
-                .withPhonetics(phonetics)
+                .withBusinessType(merchantCreateBean.businessType())
                 .build();
-        return merchantRepository.save(merchant);
+        Merchant createdMerchant = merchantRepository.save(merchant);
+        eventPublisher.publishEvent(new MerchantChangedEvent(MerchantChangedEvent.ChangeType.CREATED, createdMerchant.getId(), createdMerchant.getEmail(), createdMerchant.getName()));
+        eventPublisher.publishEvent(MerchantCountChangedEvent.created(createdMerchant.getBusinessType()));
+        return createdMerchant;
     }
 
-    public List<Merchant> getAllMerchants() {
-        return merchantRepository.findAll();
+    /**
+     * Keyset page of merchants ordered by id, starting after {@code afterId} (exclusive), read as
+     * {@link MerchantView}s without going through JPA. With a {@code businessType} only merchants
+     * of that type are listed.
+     */
+    public List<MerchantView> getMerchantsPage(Long afterId, BusinessTypeEnum businessType, int limit) {
+        if (limit < 1 || limit > pageMaxLimit) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + pageMaxLimit);
+        }
+        long after = afterId != null ? afterId : 0L;
+        return businessType != null
+                ? merchantReadRepository.findPageByBusinessType(businessType, after, limit)
+                : merchantReadRepository.findPage(after, limit);
     }
 
     public Optional<Merchant> getMerchantById(Long id) {
-        return merchantLoadServiceStrategy.loadMerchant(id.toString());
+        return merchantLoadServiceCache.loadMerchant(id.toString());
     }
 
     public Optional<Merchant> getMerchantByEmail(String email) {
-        return merchantLoadServiceStrategy.loadMerchantByEmail(email);
+        return merchantLoadServiceCache.loadMerchantByEmail(email);
+    }
+
+    /**
+     * With {@code merchant.load.async.enabled} a cache miss is loaded without blocking the calling
+     * thread; otherwise the lookup runs on the calling thread and the future is already complete.
+     */
+    public CompletableFuture<Optional<Merchant>> getMerchantByIdAsync(Long id) {
+        if (!asyncLoad) {
+            return CompletableFuture.completedFuture(getMerchantById(id));
+        }
+        return merchantLoadServiceCache.loadMerchantAsync(id.toString());
+    }
+
+    public CompletableFuture<Optional<Merchant>> getMerchantByEmailAsync(String email) {
+        if (!asyncLoad) {
+            return CompletableFuture.completedFuture(getMerchantByEmail(email));
+        }
+        return merchantLoadServiceCache.loadMerchantByEmailAsync(email);
+    }
+
+    /**
+     * Resolves the given ids in one pass over the tiers. The result keeps the request order,
+     * drops duplicates and leaves out ids that do not exist.
+     */
+    public List<Merchant> getMerchantsByIds(Collection<Long> ids) {
+        if (ids == null || ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Merchant ids must not be null");
+        }
+        List<String> merchantIds = ids.stream()
+                .map(Object::toString)
+                .distinct()
+                .toList();
+        if (merchantIds.size() > batchGetMaxIds) {
+            throw new IllegalArgumentException("At most " + batchGetMaxIds + " ids can be requested at once");
+        }
+        Map<String, Merchant> merchants = merchantLoadServiceCache.loadMerchants(merchantIds);
+        return merchantIds.stream()
+                .map(merchants::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
+    /**
+     * The row is locked while it is read, so the business type it had before this update is the
+     * one the counts last saw, however many updates of the same merchant run at once.
+     */
     @Transactional
     public Merchant updateMerchant(Long id, Merchant merchantDetails) {
-        Merchant merchant = merchantRepository.findById(id)
+        Merchant merchant = merchantRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new IllegalArgumentException("Merchant not found"));
 
+        BusinessTypeEnum previousBusinessType = merchant.getBusinessType();
         merchant.setName(merchantDetails.getName());
         merchant.setBusinessType(merchantDetails.getBusinessType());
 
-        return merchantRepository.save(merchant);
+        Merchant updatedMerchant = merchantRepository.save(merchant);
+        eventPublisher.publishEvent(new MerchantChangedEvent(MerchantChangedEvent.ChangeType.UPDATED, id, updatedMerchant.getEmail(), updatedMerchant.getName()));
+        if (previousBusinessType != updatedMerchant.getBusinessType()) {
+            eventPublisher.publishEvent(MerchantCountChangedEvent.retyped(previousBusinessType, updatedMerchant.getBusinessType()));
+        }
+        return updatedMerchant;
     }
 
     @Transactional
     public void deleteMerchant(Long id) {
+        Optional<Merchant> merchant = merchantRepository.findByIdForUpdate(id);
         merchantRepository.deleteById(id);
+        eventPublisher.publishEvent(new MerchantChangedEvent(MerchantChangedEvent.ChangeType.DELETED, id, merchant.map(Merchant::getEmail).orElse(null), null));
+        merchant.ifPresent(deleted -> eventPublisher.publishEvent(MerchantCountChangedEvent.deleted(deleted.getBusinessType())));
     }
 }
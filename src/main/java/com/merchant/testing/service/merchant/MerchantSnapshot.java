@@ -0,0 +1,295 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Immutable merchant snapshot in a memory-mapped file. The file holds a header, the records in a
+ * compact binary encoding, then two open-addressing hash tables keyed by id and by email hash whose
+ * slots point at records. Lookups read the mapping in place, so the snapshot lives off-heap and a
+ * hit allocates only the returned merchant.
+ * <p>
+ * Record: {@code id:long, businessType:byte, createdAt:long, updatedAt:long, name, email, phonetics},
+ * timestamps as UTC epoch microseconds and strings as an unsigned short length plus UTF-8 bytes.
+ * Slot: {@code key:long, recordOffset + 1:int}, with 0 marking an empty slot. Files are limited to
+ * 2 GiB, the reach of a single mapping.
+ */
+final class MerchantSnapshot {
+    private static final int MAGIC = 0x4d534e31; // "MSN1"
+    private static final int HEADER_BYTES = 48;
+    private static final int SLOT_BYTES = 12;
+    private static final int NULL_STRING = 0xffff;
+    private static final byte NULL_BUSINESS_TYPE = -1;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    private static final BusinessTypeEnum[] BUSINESS_TYPES = BusinessTypeEnum.values();
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long watermark;
+    private final long builtAtMillis;
+    private final int size;
+    private final int slotMask;
+    private final int idTable;
+    private final int emailTable;
+
+    private MerchantSnapshot(Path path, MappedByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a merchant snapshot: " + path);
+        }
+        this.path = path;
+        this.buffer = buffer;
+        this.watermark = buffer.getLong(8);
+        this.builtAtMillis = buffer.getLong(16);
+        this.size = buffer.getInt(24);
+        this.slotMask = buffer.getInt(28) - 1;
+        this.idTable = buffer.getInt(32);
+        this.emailTable = buffer.getInt(36);
+    }
+
+    static MerchantSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MerchantSnapshot(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Optional<Merchant> findById(long merchantId) {
+        for (int slot = slotOf(merchantId); ; slot = (slot + 1) & slotMask) {
+            int position = idTable + slot * SLOT_BYTES;
+            int record = buffer.getInt(position + 8);
+            if (record == 0) {
+                return Optional.empty();
+            }
+            if (buffer.getLong(position) == merchantId) {
+                return Optional.of(decode(record - 1));
+            }
+        }
+    }
+
+    /**
+     * Probes every slot holding the email's hash and compares the stored email, so a hash
+     * collision costs a comparison, never a wrong answer.
+     */
+    Optional<Merchant> findByEmail(String email) {
+        long hash = MerchantSegmentCodec.emailHash(email);
+        byte[] wanted = email.getBytes(StandardCharsets.UTF_8);
+        for (int slot = slotOf(hash); ; slot = (slot + 1) & slotMask) {
+            int position = emailTable + slot * SLOT_BYTES;
+            int record = buffer.getInt(position + 8);
+            if (record == 0) {
+                return Optional.empty();
+            }
+            if (buffer.getLong(position) == hash && emailEquals(record - 1, wanted)) {
+                return Optional.of(decode(record - 1));
+            }
+        }
+    }
+
+    /**
+     * The change version this snapshot includes: every change numbered at or below it.
+     */
+    long watermark() {
+        return watermark;
+    }
+
+    long builtAtMillis() {
+        return builtAtMillis;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    private Merchant decode(int record) {
+        byte businessType = buffer.get(record + 8);
+        int name = record + 25;
+        int email = skipString(name);
+        int phonetics = skipString(email);
+        return MerchantBuilder.aMerchant()
+                .withId(buffer.getLong(record))
+                .withBusinessType(businessType == NULL_BUSINESS_TYPE ? null : BUSINESS_TYPES[businessType])
+                .withCreatedAt(timestamp(buffer.getLong(record + 9)))
+                .withUpdatedAt(timestamp(buffer.getLong(record + 17)))
+                .withName(readString(name))
+                .withEmail(readString(email))
+                .withPhonetics(readString(phonetics))
+                .build();
+    }
+
+    private boolean emailEquals(int record, byte[] wanted) {
+        int email = skipString(record + 25);
+        int length = Short.toUnsignedInt(buffer.getShort(email));
+        if (length != wanted.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(email + 2 + i) != wanted[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int position) {
+        int length = Short.toUnsignedInt(buffer.getShort(position));
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int skipString(int position) {
+        int length = Short.toUnsignedInt(buffer.getShort(position));
+        return position + 2 + (length == NULL_STRING ? 0 : length);
+    }
+
+    private int slotOf(long key) {
+        return mix(key) & slotMask;
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static long micros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return NULL_TIMESTAMP;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime timestamp(long micros) {
+        if (micros == NULL_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000,
+                ZoneOffset.UTC);
+    }
+
+    /**
+     * Streams records to a new file, then lays the hash tables out after them by walking the
+     * records through a read-write mapping, so building takes no heap proportional to the table.
+     */
+    static final class Writer implements Closeable {
+        private final Path path;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private long position = HEADER_BYTES;
+        private int count;
+
+        Writer(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.channel.position(HEADER_BYTES);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        }
+
+        void add(Merchant merchant) throws IOException {
+            out.writeLong(merchant.getId());
+            out.writeByte(merchant.getBusinessType() == null ? NULL_BUSINESS_TYPE : merchant.getBusinessType().ordinal());
+            out.writeLong(micros(merchant.getCreatedAt()));
+            out.writeLong(micros(merchant.getUpdatedAt()));
+            position += 25 + writeString(merchant.getName()) + writeString(merchant.getEmail()) + writeString(merchant.getPhonetics());
+            count++;
+        }
+
+        MerchantSnapshot finish(long watermark) throws IOException {
+            out.flush();
+            int slots = Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1;
+            long idTable = position;
+            long emailTable = idTable + (long) slots * SLOT_BYTES;
+            long end = emailTable + (long) slots * SLOT_BYTES;
+            if (end > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Merchant snapshot of " + count + " merchants exceeds 2 GiB");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, end);
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(8, watermark);
+            buffer.putLong(16, System.currentTimeMillis());
+            buffer.putInt(24, count);
+            buffer.putInt(28, slots);
+            buffer.putInt(32, (int) idTable);
+            buffer.putInt(36, (int) emailTable);
+            for (int record = HEADER_BYTES; record < idTable; ) {
+                int email = record + 25;
+                email += 2 + stringLength(buffer, email);
+                insert(buffer, (int) idTable, slots - 1, buffer.getLong(record), record);
+                insert(buffer, (int) emailTable, slots - 1, MerchantSegmentCodec.emailHash(string(buffer, email)), record);
+                int phonetics = email + 2 + stringLength(buffer, email);
+                record = phonetics + 2 + stringLength(buffer, phonetics);
+            }
+            buffer.force();
+            close();
+            return open(path);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private int writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeShort(NULL_STRING);
+                return 2;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length >= NULL_STRING) {
+                throw new IllegalArgumentException("Merchant field of " + bytes.length + " bytes is too long for a snapshot");
+            }
+            out.writeShort(bytes.length);
+            out.write(bytes);
+            return 2 + bytes.length;
+        }
+
+        private static void insert(MappedByteBuffer buffer, int table, int slotMask, long key, int record) {
+            int slot = mix(key) & slotMask;
+            while (buffer.getInt(table + slot * SLOT_BYTES + 8) != 0) {
+                slot = (slot + 1) & slotMask;
+            }
+            buffer.putLong(table + slot * SLOT_BYTES, key);
+            buffer.putInt(table + slot * SLOT_BYTES + 8, record + 1);
+        }
+
+        private static int stringLength(MappedByteBuffer buffer, int position) {
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            return length == NULL_STRING ? 0 : length;
+        }
+
+        private static String string(MappedByteBuffer buffer, int position) {
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            if (length == NULL_STRING) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position + 2, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.merchant.testing.service.merchant;
+
+enum MerchantTier {
+    SNAPSHOT, DYNAMODB, POSTGRES, S3
+}
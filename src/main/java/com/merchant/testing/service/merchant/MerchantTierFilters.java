@@ -0,0 +1,250 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.repository.MerchantRepository;
+import com.merchant.testing.service.aws.DynamoDbService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Per-tier negative-lookup filters for {@link MerchantLoadServiceStrategy}. A tier is skipped only
+ * when its filter has been built and says the key is definitely absent. Filters are rebuilt from a
+ * full scan, so writes made by other nodes are only seen after the next rebuild; keep
+ * {@code merchant.filter.rebuild-interval} within the staleness you can accept.
+ * <p>
+ * Local writes reach the POSTGRES filter as they commit. The DYNAMODB filter only learns a merchant
+ * once {@link MerchantReplicator} has copied it ({@link #recordReplicated}): until then DynamoDB is
+ * skipped for it, which is what it would answer anyway, and the lookup falls through to Postgres.
+ * <p>
+ * A local write is put into the POSTGRES filter just before its transaction commits, so it may
+ * commit after a rebuild's scan has taken its snapshot without having reached the filter being
+ * built. Writes are therefore held as pending until their transaction completes, and a rebuild
+ * replays the pending ones into its new filter once the new filter is visible to writers.
+ */
+@Component
+class MerchantTierFilters {
+    private static final Logger log = LoggerFactory.getLogger(MerchantTierFilters.class);
+
+    private final MerchantRepository merchantRepository;
+    private final DynamoDbService dynamoDbService;
+    private final boolean enabled;
+    private final long expectedMerchants;
+    private final double falsePositiveRate;
+    private final Map<MerchantTier, TierFilter> filters = new EnumMap<>(MerchantTier.class);
+
+    public MerchantTierFilters(MerchantRepository merchantRepository,
+                               DynamoDbService dynamoDbService,
+                               MeterRegistry meterRegistry,
+                               @Value("${merchant.filter.enabled:false}") boolean enabled,
+                               @Value("${merchant.filter.expected-merchants:1000000}") long expectedMerchants,
+                               @Value("${merchant.filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.merchantRepository = merchantRepository;
+        this.dynamoDbService = dynamoDbService;
+        this.enabled = enabled;
+        this.expectedMerchants = expectedMerchants;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filters.put(MerchantTier.DYNAMODB, new TierFilter(MerchantTier.DYNAMODB, meterRegistry));
+        this.filters.put(MerchantTier.POSTGRES, new TierFilter(MerchantTier.POSTGRES, meterRegistry));
+    }
+
+    boolean mightContainId(MerchantTier tier, String merchantId) {
+        TierFilter filter = filters.get(tier);
+        return !enabled || filter == null || filter.mightContain(f -> f.mightContainId(merchantId));
+    }
+
+    boolean mightContainEmail(MerchantTier tier, String email) {
+        TierFilter filter = filters.get(tier);
+        return !enabled || filter == null || filter.mightContain(f -> f.mightContainEmail(email));
+    }
+
+    /**
+     * Reports that a tier the filter let through came back empty. The observed false-positive rate
+     * is these misses over all lookups for keys the tier did not have: these misses plus the
+     * lookups the filter skipped.
+     */
+    void recordMiss(MerchantTier tier) {
+        TierFilter filter = filters.get(tier);
+        if (enabled && filter != null && filter.current != null) {
+            filter.falsePositives.increment();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    void onMerchantChanged(MerchantChangedEvent event) {
+        // an update may change the email; the old one stays in the filter as a false positive
+        if (enabled && event.changeType() != MerchantChangedEvent.ChangeType.DELETED && event.email() != null) {
+            filters.get(MerchantTier.POSTGRES).putCommitting(event.merchantId().toString(), event.email());
+        }
+    }
+
+    /**
+     * Reports a merchant copied to a replica tier, so its filter lets lookups for it through.
+     */
+    void recordReplicated(MerchantTier tier, String merchantId, String email) {
+        TierFilter filter = filters.get(tier);
+        if (enabled && filter != null) {
+            filter.put(merchantId, email);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${merchant.filter.rebuild-interval:PT15M}")
+    void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuild(MerchantTier.POSTGRES, put -> merchantRepository.forEachKey(key -> put.accept(key.id().toString(), key.email())));
+        rebuild(MerchantTier.DYNAMODB, put -> dynamoDbService.scanItems("id, email", item -> put.accept(value(item, "id"), value(item, "email"))));
+    }
+
+    private void rebuild(MerchantTier tier, Consumer<KeyConsumer> scan) {
+        TierFilter filter = filters.get(tier);
+        long expectedKeys = 2 * Math.max(expectedMerchants, filter.lastScanCount.get() + filter.lastScanCount.get() / 5);
+        MerchantMembershipFilter next = new MerchantMembershipFilter(expectedKeys, falsePositiveRate);
+        AtomicLong scanned = new AtomicLong();
+        filter.startBuilding(next);
+        try {
+            scan.accept((merchantId, email) -> {
+                if (merchantId != null) {
+                    next.putId(merchantId);
+                }
+                if (email != null) {
+                    next.putEmail(email);
+                }
+                scanned.incrementAndGet();
+            });
+            filter.current = next;
+            filter.lastScanCount.set(scanned.get());
+            log.info("Rebuilt {} merchant filter from {} merchants ({} bytes)", tier, scanned.get(), next.memoryBytes());
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild {} merchant filter, keeping the previous one", tier, e);
+        } finally {
+            filter.building = null;
+        }
+    }
+
+    private static String value(Map<String, AttributeValue> item, String attribute) {
+        AttributeValue value = item.get(attribute);
+        return value != null ? value.s() : null;
+    }
+
+    @FunctionalInterface
+    private interface KeyConsumer {
+        void accept(String merchantId, String email);
+    }
+
+    private static final class TierFilter {
+        private volatile MerchantMembershipFilter current;
+        private volatile MerchantMembershipFilter building;
+        private final AtomicLong lastScanCount = new AtomicLong();
+        /** Writes put before their transaction committed, until it completes. */
+        private final Set<PendingWrite> pending = ConcurrentHashMap.newKeySet();
+        private final Counter passed;
+        private final Counter skipped;
+        private final Counter falsePositives;
+
+        private TierFilter(MerchantTier tier, MeterRegistry meterRegistry) {
+            String tierName = tier.name().toLowerCase();
+            this.passed = Counter.builder("merchant.filter.checks").tag("tier", tierName).tag("result", "maybe").register(meterRegistry);
+            this.skipped = Counter.builder("merchant.filter.checks").tag("tier", tierName).tag("result", "absent").register(meterRegistry);
+            this.falsePositives = Counter.builder("merchant.filter.false-positives").tag("tier", tierName).register(meterRegistry);
+            Gauge.builder("merchant.filter.memory", this, f -> f.current != null ? f.current.memoryBytes() : 0)
+                    .tag("tier", tierName).baseUnit("bytes").register(meterRegistry);
+            Gauge.builder("merchant.filter.expected-false-positive-rate", this, f -> f.current != null ? f.current.expectedFalsePositiveRate() : 0)
+                    .tag("tier", tierName).register(meterRegistry);
+            Gauge.builder("merchant.filter.observed-false-positive-rate", this, TierFilter::observedFalsePositiveRate)
+                    .tag("tier", tierName).register(meterRegistry);
+        }
+
+        private double observedFalsePositiveRate() {
+            double absent = falsePositives.count() + skipped.count();
+            return absent > 0 ? falsePositives.count() / absent : 0;
+        }
+
+        private boolean mightContain(Predicate<MerchantMembershipFilter> test) {
+            MerchantMembershipFilter filter = current;
+            if (filter == null) {
+                return true;
+            }
+            if (test.test(filter)) {
+                passed.increment();
+                return true;
+            }
+            skipped.increment();
+            return false;
+        }
+
+        /**
+         * Publishes the filter being built, then replays the writes still pending into it. A write
+         * registers as pending before it reads {@link #building}, so one the replay misses has
+         * seen the new filter.
+         */
+        private void startBuilding(MerchantMembershipFilter next) {
+            building = next;
+            for (PendingWrite write : pending) {
+                next.putId(write.merchantId);
+                if (write.email != null) {
+                    next.putEmail(write.email);
+                }
+            }
+        }
+
+        private void putCommitting(String merchantId, String email) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                // already committed: a scan starting from now on sees it
+                put(merchantId, email);
+                return;
+            }
+            PendingWrite write = new PendingWrite(merchantId, email);
+            pending.add(write);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    pending.remove(write);
+                }
+            });
+            put(merchantId, email);
+        }
+
+        private void put(String merchantId, String email) {
+            for (MerchantMembershipFilter filter : new MerchantMembershipFilter[]{current, building}) {
+                if (filter != null) {
+                    filter.putId(merchantId);
+                    if (email != null) {
+                        filter.putEmail(email);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compared by identity, so two writes of the same merchant are pending independently.
+     */
+    private static final class PendingWrite {
+        private final String merchantId;
+        private final String email;
+
+        private PendingWrite(String merchantId, String email) {
+            this.merchantId = merchantId;
+            this.email = email;
+        }
+    }
+}
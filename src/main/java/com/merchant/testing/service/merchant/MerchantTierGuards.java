@@ -0,0 +1,198 @@
+package com.merchant.testing.service.merchant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-tier timeouts and circuit breakers for {@link MerchantLoadServiceStrategy}.
+ * <p>
+ * A breaker is closed while fewer than {@code merchant.load.breaker.failure-rate-threshold} of the
+ * last {@code merchant.load.breaker.window-size} calls to its tier failed or timed out. Once the
+ * rate is reached it opens and the tier is skipped for {@code merchant.load.breaker.open-duration}.
+ * Then it turns half-open and lets {@code merchant.load.breaker.half-open-probes} calls through:
+ * it closes when they all succeed and opens again on the first failure. A miss is a success.
+ * <ul>
+ *     <li>{@code merchant.tier.breaker.state}: 1 for the tier's current state, 0 for the others.</li>
+ *     <li>{@code merchant.tier.breaker.skipped}: calls skipped because the breaker was not closed.</li>
+ * </ul>
+ * Every transition is logged.
+ */
+@Component
+class MerchantTierGuards {
+    private static final Logger log = LoggerFactory.getLogger(MerchantTierGuards.class);
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final Map<MerchantTier, Guard> guards = new EnumMap<>(MerchantTier.class);
+    private final int windowSize;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    public MerchantTierGuards(MeterRegistry meterRegistry,
+                              @Value("${merchant.load.tier-timeout.dynamodb:PT0.1S}") Duration dynamoDbTimeout,
+                              @Value("${merchant.load.tier-timeout.postgres:PT0.25S}") Duration postgresTimeout,
+                              @Value("${merchant.load.tier-timeout.s3:PT0.25S}") Duration s3Timeout,
+                              @Value("${merchant.load.breaker.window-size:20}") int windowSize,
+                              @Value("${merchant.load.breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                              @Value("${merchant.load.breaker.open-duration:PT5S}") Duration openDuration,
+                              @Value("${merchant.load.breaker.half-open-probes:3}") int halfOpenProbes) {
+        this.windowSize = windowSize;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        guards.put(MerchantTier.SNAPSHOT, new Guard(MerchantTier.SNAPSHOT, null, meterRegistry));
+        guards.put(MerchantTier.DYNAMODB, new Guard(MerchantTier.DYNAMODB, dynamoDbTimeout, meterRegistry));
+        guards.put(MerchantTier.POSTGRES, new Guard(MerchantTier.POSTGRES, postgresTimeout, meterRegistry));
+        guards.put(MerchantTier.S3, new Guard(MerchantTier.S3, s3Timeout, meterRegistry));
+    }
+
+    /**
+     * The longest a call to the tier may take; none for the in-process snapshot, which is not timed.
+     */
+    Duration timeout(MerchantTier tier) {
+        return guards.get(tier).timeout;
+    }
+
+    /**
+     * Whether a call to the tier may start; a call let through must report exactly one outcome.
+     */
+    boolean tryAcquire(MerchantTier tier) {
+        return guards.get(tier).tryAcquire();
+    }
+
+    void onSuccess(MerchantTier tier) {
+        guards.get(tier).onResult(false);
+    }
+
+    void onFailure(MerchantTier tier) {
+        guards.get(tier).onResult(true);
+    }
+
+    /**
+     * The call was abandoned for reasons of its own, such as a higher tier answering first.
+     */
+    void onCancelled(MerchantTier tier) {
+        guards.get(tier).onCancelled();
+    }
+
+    State state(MerchantTier tier) {
+        return guards.get(tier).state();
+    }
+
+    /**
+     * Breaker state is only touched for a few instructions per call, never across I/O.
+     */
+    private final class Guard {
+        private final MerchantTier tier;
+        private final Duration timeout;
+        private final boolean[] window = new boolean[windowSize];
+        private final Counter skipped;
+        private State state = State.CLOSED;
+        private int slot;
+        private int calls;
+        private int failures;
+        private long openedAt;
+        private int probesStarted;
+        private int probesSucceeded;
+
+        private Guard(MerchantTier tier, Duration timeout, MeterRegistry meterRegistry) {
+            this.tier = tier;
+            this.timeout = timeout;
+            String tierName = tier.name().toLowerCase(Locale.ROOT);
+            this.skipped = Counter.builder("merchant.tier.breaker.skipped").tag("tier", tierName).register(meterRegistry);
+            for (State gauged : State.values()) {
+                Gauge.builder("merchant.tier.breaker.state", this, guard -> guard.state() == gauged ? 1 : 0)
+                        .tag("tier", tierName)
+                        .tag("state", gauged.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+            }
+        }
+
+        private synchronized State state() {
+            return state;
+        }
+
+        private synchronized boolean tryAcquire() {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                transition(State.HALF_OPEN);
+            }
+            boolean acquired = state == State.CLOSED || (state == State.HALF_OPEN && probesStarted < halfOpenProbes);
+            if (!acquired) {
+                skipped.increment();
+            } else if (state == State.HALF_OPEN) {
+                probesStarted++;
+            }
+            return acquired;
+        }
+
+        private synchronized void onResult(boolean failed) {
+            switch (state) {
+                case CLOSED -> {
+                    if (calls == windowSize && window[slot]) {
+                        failures--;
+                    }
+                    window[slot] = failed;
+                    slot = (slot + 1) % windowSize;
+                    calls = Math.min(calls + 1, windowSize);
+                    if (failed) {
+                        failures++;
+                    }
+                    if (calls == windowSize && failures >= failureRateThreshold * windowSize) {
+                        transition(State.OPEN);
+                    }
+                }
+                case HALF_OPEN -> {
+                    if (failed) {
+                        transition(State.OPEN);
+                    } else if (++probesSucceeded >= halfOpenProbes) {
+                        transition(State.CLOSED);
+                    }
+                }
+                case OPEN -> {
+                    // a call started before the breaker opened; its outcome is already moot
+                }
+            }
+        }
+
+        private synchronized void onCancelled() {
+            if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+                probesStarted--;
+            }
+        }
+
+        private void transition(State next) {
+            if (next == State.OPEN) {
+                if (state == State.HALF_OPEN) {
+                    log.warn("Reopening the {} circuit breaker for {}: a probe failed", tier, Duration.ofNanos(openNanos));
+                } else {
+                    log.warn("Opening the {} circuit breaker for {}: {} of the last {} calls failed",
+                            tier, Duration.ofNanos(openNanos), failures, windowSize);
+                }
+                openedAt = System.nanoTime();
+            } else {
+                log.info("{} circuit breaker is now {}", tier, next);
+            }
+            state = next;
+            slot = 0;
+            calls = 0;
+            failures = 0;
+            probesStarted = 0;
+            probesSucceeded = 0;
+            Arrays.fill(window, false);
+        }
+    }
+}
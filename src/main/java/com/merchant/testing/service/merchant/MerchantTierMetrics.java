@@ -0,0 +1,151 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.entity.Merchant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Per-tier latency, outcome and concurrency of merchant lookups.
+ * <ul>
+ *     <li>{@code merchant.tier.requests}: timer tagged with tier, operation (id, email, batch) and
+ *     result (hit, miss, error); its count is the hit/miss/error counter. A batch call is a hit
+ *     only if every id was found, a miss if none was, and {@code partial} otherwise. Published as
+ *     a percentile histogram so percentiles are computed by Prometheus, not in the hot path. Its
+ *     buckets start at 10µs, since snapshot lookups take microseconds.</li>
+ *     <li>{@code merchant.tier.batch.keys}: ids asked of a tier in batch lookups, tagged hit or miss;
+ *     batch hit ratios come from these, not from the calls.</li>
+ *     <li>{@code merchant.tier.in-flight}: calls currently running against the tier.</li>
+ *     <li>{@code merchant.load.served}: lookups by the tier that answered them, {@code none} for misses.</li>
+ * </ul>
+ * All meters are registered up front, so recording costs no tag lookup.
+ */
+@Component
+class MerchantTierMetrics {
+    enum Operation {
+        ID, EMAIL, BATCH
+    }
+
+    private enum Result {
+        HIT, MISS, PARTIAL, ERROR
+    }
+
+    private final Map<MerchantTier, TierMeters> tiers = new EnumMap<>(MerchantTier.class);
+    private final Counter servedByNone;
+
+    MerchantTierMetrics(MeterRegistry meterRegistry) {
+        for (MerchantTier tier : MerchantTier.values()) {
+            tiers.put(tier, new TierMeters(tier, meterRegistry));
+        }
+        this.servedByNone = Counter.builder("merchant.load.served").tag("tier", "none").register(meterRegistry);
+    }
+
+    Optional<Merchant> record(MerchantTier tier, Operation operation, Supplier<Optional<Merchant>> call) {
+        TierMeters meters = tiers.get(tier);
+        meters.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            Optional<Merchant> merchant = call.get();
+            meters.record(operation, merchant.isPresent() ? Result.HIT : Result.MISS, start);
+            return merchant;
+        } catch (RuntimeException e) {
+            meters.record(operation, Result.ERROR, start);
+            throw e;
+        } finally {
+            meters.inFlight.decrementAndGet();
+        }
+    }
+
+    CompletableFuture<Optional<Merchant>> recordAsync(MerchantTier tier, Operation operation,
+                                                      Supplier<CompletableFuture<Optional<Merchant>>> call) {
+        TierMeters meters = tiers.get(tier);
+        meters.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<Optional<Merchant>> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            meters.inFlight.decrementAndGet();
+            meters.record(operation, Result.ERROR, start);
+            throw e;
+        }
+        return future.whenComplete((merchant, error) -> {
+            meters.inFlight.decrementAndGet();
+            Result result = error != null ? Result.ERROR : merchant.isPresent() ? Result.HIT : Result.MISS;
+            meters.record(operation, result, start);
+        });
+    }
+
+    Map<String, Merchant> recordBatch(MerchantTier tier, Collection<String> merchantIds, Supplier<Map<String, Merchant>> call) {
+        TierMeters meters = tiers.get(tier);
+        meters.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            Map<String, Merchant> found = call.get();
+            Result result = found.isEmpty() ? Result.MISS : found.size() < merchantIds.size() ? Result.PARTIAL : Result.HIT;
+            meters.record(Operation.BATCH, result, start);
+            meters.batchHits.increment(found.size());
+            meters.batchMisses.increment(merchantIds.size() - found.size());
+            return found;
+        } catch (RuntimeException e) {
+            meters.record(Operation.BATCH, Result.ERROR, start);
+            throw e;
+        } finally {
+            meters.inFlight.decrementAndGet();
+        }
+    }
+
+    void recordServed(Optional<MerchantTier> tier) {
+        tier.ifPresentOrElse(t -> tiers.get(t).served.increment(), servedByNone::increment);
+    }
+
+    private static final class TierMeters {
+        private final Map<Operation, Map<Result, Timer>> timers = new EnumMap<>(Operation.class);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter batchHits;
+        private final Counter batchMisses;
+        private final Counter served;
+
+        private TierMeters(MerchantTier tier, MeterRegistry meterRegistry) {
+            String tierName = tier.name().toLowerCase(Locale.ROOT);
+            for (Operation operation : Operation.values()) {
+                Map<Result, Timer> byResult = new EnumMap<>(Result.class);
+                for (Result result : Result.values()) {
+                    if (result == Result.PARTIAL && operation != Operation.BATCH) {
+                        continue;
+                    }
+                    byResult.put(result, Timer.builder("merchant.tier.requests")
+                            .tag("tier", tierName)
+                            .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                            .tag("result", result.name().toLowerCase(Locale.ROOT))
+                            .publishPercentileHistogram()
+                            .minimumExpectedValue(Duration.ofNanos(10_000))
+                            .maximumExpectedValue(Duration.ofSeconds(10))
+                            .register(meterRegistry));
+                }
+                timers.put(operation, byResult);
+            }
+            this.batchHits = Counter.builder("merchant.tier.batch.keys").tag("tier", tierName).tag("result", "hit").register(meterRegistry);
+            this.batchMisses = Counter.builder("merchant.tier.batch.keys").tag("tier", tierName).tag("result", "miss").register(meterRegistry);
+            this.served = Counter.builder("merchant.load.served").tag("tier", tierName).register(meterRegistry);
+            Gauge.builder("merchant.tier.in-flight", inFlight, AtomicInteger::get).tag("tier", tierName).register(meterRegistry);
+        }
+
+        private void record(Operation operation, Result result, long startNanos) {
+            timers.get(operation).get(result).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
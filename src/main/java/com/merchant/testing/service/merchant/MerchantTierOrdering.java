@@ -0,0 +1,215 @@
+package com.merchant.testing.service.merchant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * The order in which {@link MerchantLoadServiceStrategy} asks the tiers. Each tier keeps an EWMA
+ * of its lookup latency and hit ratio, and every {@code merchant.load.adaptive.reorder-interval}
+ * the tiers are sorted by latency over hit ratio, the order that minimises the expected latency
+ * of a sequential lookup. The new order is adopted only if its expected latency beats the current
+ * one by {@code merchant.load.adaptive.min-improvement}, so tiers with similar costs do not flap.
+ * <p>
+ * A tier with fewer than {@code merchant.load.adaptive.min-samples} samples keeps its place in the
+ * pinned {@code merchant.load.order}, which is also the order used when adaptive ordering is
+ * disabled. A share {@code merchant.load.adaptive.probe-ratio} of lookups use the pinned order,
+ * so tiers that were moved down keep being measured and can win their place back.
+ * <p>
+ * Postgres is the authority: tiers pinned behind it are fallbacks for when it cannot answer and
+ * never move ahead of it, however fast they are, so a lagging replica cannot shadow it. Only the
+ * tiers up to and including Postgres are reordered.
+ * <p>
+ * Only lookups by id or email are sampled. The hit ratio is conditional: it is that of the
+ * lookups a tier was actually asked, which lower tiers only see after the tiers above them
+ * missed. A tier moved up is then asked for keys it was never measured on, so its ratio, and the
+ * cost of the new order, can be off until the estimates catch up; the minimum improvement and the
+ * probes keep that from turning into flapping, not from being wrong for a while.
+ * <ul>
+ *     <li>{@code merchant.tier.position}: the tier's current position, 0 first.</li>
+ *     <li>{@code merchant.tier.latency.ewma} and {@code merchant.tier.hit-ratio.ewma}: the estimates.</li>
+ *     <li>{@code merchant.load.reorders}: times the order changed; each change is also logged.</li>
+ * </ul>
+ */
+@Component
+class MerchantTierOrdering {
+    private static final Logger log = LoggerFactory.getLogger(MerchantTierOrdering.class);
+    private static final double MIN_HIT_RATIO = 0.01;
+
+    private final List<MerchantTier> pinnedOrder;
+    private final boolean adaptive;
+    private final double smoothing;
+    private final long minSamples;
+    private final double minImprovement;
+    private final double probeRatio;
+    private final Map<MerchantTier, TierStats> stats = new EnumMap<>(MerchantTier.class);
+    private final Counter reorders;
+    private volatile List<MerchantTier> order;
+
+    public MerchantTierOrdering(MeterRegistry meterRegistry,
+                                @Value("${merchant.load.order:SNAPSHOT,DYNAMODB,POSTGRES,S3}") List<MerchantTier> pinnedOrder,
+                                @Value("${merchant.load.adaptive.enabled:true}") boolean adaptive,
+                                @Value("${merchant.load.adaptive.smoothing:0.05}") double smoothing,
+                                @Value("${merchant.load.adaptive.min-samples:100}") long minSamples,
+                                @Value("${merchant.load.adaptive.min-improvement:0.1}") double minImprovement,
+                                @Value("${merchant.load.adaptive.probe-ratio:0.01}") double probeRatio) {
+        if (pinnedOrder.size() != MerchantTier.values().length || !EnumSet.copyOf(pinnedOrder).equals(EnumSet.allOf(MerchantTier.class))) {
+            throw new IllegalArgumentException("merchant.load.order must list every tier exactly once: " + pinnedOrder);
+        }
+        this.pinnedOrder = List.copyOf(pinnedOrder);
+        this.adaptive = adaptive;
+        this.smoothing = smoothing;
+        this.minSamples = minSamples;
+        this.minImprovement = minImprovement;
+        this.probeRatio = probeRatio;
+        this.order = this.pinnedOrder;
+        this.reorders = Counter.builder("merchant.load.reorders").register(meterRegistry);
+        for (MerchantTier tier : MerchantTier.values()) {
+            TierStats tierStats = new TierStats();
+            stats.put(tier, tierStats);
+            String tierName = tier.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("merchant.tier.position", this, ordering -> ordering.order.indexOf(tier))
+                    .tag("tier", tierName)
+                    .register(meterRegistry);
+            Gauge.builder("merchant.tier.latency.ewma", tierStats, s -> s.latencyNanos() / 1e9)
+                    .tag("tier", tierName)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("merchant.tier.hit-ratio.ewma", tierStats, TierStats::hitRatio)
+                    .tag("tier", tierName)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * The order for one lookup: the current order, or the pinned one for a probe.
+     */
+    List<MerchantTier> order() {
+        if (adaptive && probeRatio > 0 && ThreadLocalRandom.current().nextDouble() < probeRatio) {
+            return pinnedOrder;
+        }
+        return order;
+    }
+
+    void record(MerchantTier tier, long latencyNanos, boolean hit) {
+        if (adaptive) {
+            stats.get(tier).record(latencyNanos, hit, smoothing);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${merchant.load.adaptive.reorder-interval:PT1S}")
+    void reorder() {
+        if (!adaptive) {
+            return;
+        }
+        List<MerchantTier> current = order;
+        List<MerchantTier> candidate = rankedOrder();
+        if (candidate.equals(current) || expectedLatency(candidate) > expectedLatency(current) * (1 - minImprovement)) {
+            return;
+        }
+        order = candidate;
+        reorders.increment();
+        log.info("Reordered merchant tiers {} -> {} ({})", current, candidate, describeStats());
+    }
+
+    /**
+     * The pinned order with the tiers that have enough samples, up to Postgres, sorted among the
+     * places they hold.
+     */
+    private List<MerchantTier> rankedOrder() {
+        List<MerchantTier> ranked = new ArrayList<>(pinnedOrder);
+        List<Integer> places = new ArrayList<>();
+        List<MerchantTier> measured = new ArrayList<>();
+        for (int i = 0; i <= ranked.indexOf(MerchantTier.POSTGRES); i++) {
+            if (stats.get(ranked.get(i)).samples() >= minSamples) {
+                places.add(i);
+                measured.add(ranked.get(i));
+            }
+        }
+        measured.sort(Comparator.comparingDouble(tier -> stats.get(tier).cost()));
+        for (int i = 0; i < places.size(); i++) {
+            ranked.set(places.get(i), measured.get(i));
+        }
+        return List.copyOf(ranked);
+    }
+
+    /**
+     * Each tier's latency weighted by the chance that every tier before it missed. Tiers without
+     * enough samples count as free, so they weigh the same in both orders being compared.
+     */
+    private double expectedLatency(List<MerchantTier> tiers) {
+        double expected = 0;
+        double reached = 1;
+        for (MerchantTier tier : tiers) {
+            TierStats tierStats = stats.get(tier);
+            if (tierStats.samples() < minSamples) {
+                continue;
+            }
+            expected += reached * tierStats.latencyNanos();
+            reached *= 1 - tierStats.hitRatio();
+        }
+        return expected;
+    }
+
+    private String describeStats() {
+        return order.stream()
+                .map(tier -> String.format(Locale.ROOT, "%s %.2f ms, %.0f%% hits", tier,
+                        stats.get(tier).latencyNanos() / 1e6, stats.get(tier).hitRatio() * 100))
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * The estimates are doubles held as raw bits, so concurrent lookups update them without locking.
+     */
+    private static final class TierStats {
+        private final AtomicLong latencyNanos = new AtomicLong(Double.doubleToRawLongBits(0));
+        private final AtomicLong hitRatio = new AtomicLong(Double.doubleToRawLongBits(0));
+        private final AtomicLong samples = new AtomicLong();
+
+        private void record(long latency, boolean hit, double smoothing) {
+            // the first sample seeds the estimate instead of being averaged with zero
+            double weight = samples.getAndIncrement() == 0 ? 1 : smoothing;
+            update(latencyNanos, latency, weight);
+            update(hitRatio, hit ? 1 : 0, weight);
+        }
+
+        private long samples() {
+            return samples.get();
+        }
+
+        private double latencyNanos() {
+            return Double.longBitsToDouble(latencyNanos.get());
+        }
+
+        private double hitRatio() {
+            return Double.longBitsToDouble(hitRatio.get());
+        }
+
+        private double cost() {
+            return latencyNanos() / Math.max(hitRatio(), MIN_HIT_RATIO);
+        }
+
+        private static void update(AtomicLong estimate, double sample, double weight) {
+            estimate.getAndUpdate(bits -> {
+                double current = Double.longBitsToDouble(bits);
+                return Double.doubleToRawLongBits(current + weight * (sample - current));
+            });
+        }
+    }
+}
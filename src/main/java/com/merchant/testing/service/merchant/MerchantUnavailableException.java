@@ -0,0 +1,21 @@
+package com.merchant.testing.service.merchant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A merchant read cannot be answered right now: Postgres did not answer in time and no other tier
+ * found the merchant, so a miss cannot be told from an outage, or the search index is not built
+ * yet. Answered with 503.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class MerchantUnavailableException extends RuntimeException {
+
+    public MerchantUnavailableException(String message) {
+        super(message);
+    }
+
+    public MerchantUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
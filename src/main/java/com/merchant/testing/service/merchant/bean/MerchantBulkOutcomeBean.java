@@ -0,0 +1,26 @@
+package com.merchant.testing.service.merchant.bean;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one NDJSON line of a bulk ingest; {@code line} is 1-based.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MerchantBulkOutcomeBean(long line, Status status, String id, String error) {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    public static MerchantBulkOutcomeBean created(long line, Long id) {
+        return new MerchantBulkOutcomeBean(line, Status.CREATED, id.toString(), null);
+    }
+
+    public static MerchantBulkOutcomeBean duplicate(long line) {
+        return new MerchantBulkOutcomeBean(line, Status.DUPLICATE, null, "Merchant with email already exists");
+    }
+
+    public static MerchantBulkOutcomeBean invalid(long line, String error) {
+        return new MerchantBulkOutcomeBean(line, Status.INVALID, null, error);
+    }
+}
@@ -0,0 +1,11 @@
+package com.merchant.testing.service.merchant.bean;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+
+import java.util.Map;
+
+/**
+ * Merchants per business type; {@code total} also counts merchants without one.
+ */
+public record MerchantCountsBean(long total, Map<BusinessTypeEnum, Long> businessTypes) {
+}
@@ -0,0 +1,7 @@
+package com.merchant.testing.service.merchant.bean;
+
+/**
+ * One merchant found by name; {@code score} is in (0, 1], higher is closer to the query.
+ */
+public record MerchantSearchHitBean(String id, String name, double score) {
+}
@@ -0,0 +1,9 @@
+-- business_type was written as the enum ordinal; store the enum name instead
+UPDATE merchants
+SET business_type = CASE business_type
+    WHEN '0' THEN 'SMALL'
+    WHEN '1' THEN 'MEDIUM'
+    WHEN '2' THEN 'LARGE'
+    ELSE business_type
+END
+WHERE business_type IN ('0', '1', '2');
@@ -0,0 +1,2 @@
+-- Hand out merchant ids in blocks of 50 (pooled-lo): each nextval reserves [value, value + 49]
+ALTER SEQUENCE merchants_id_seq INCREMENT BY 50;
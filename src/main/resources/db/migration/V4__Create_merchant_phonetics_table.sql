@@ -0,0 +1,6 @@
+-- Dictionary lookups cached across restarts; a NULL phonetic means the dictionary has no entry
+CREATE TABLE merchant_phonetics (
+    word VARCHAR(255) PRIMARY KEY,
+    phonetic TEXT,
+    fetched_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Queue of merchants waiting for background phonetics enrichment
+CREATE INDEX idx_merchants_missing_phonetics ON merchants(id) WHERE phonetics IS NULL;
@@ -0,0 +1,8 @@
+-- Merchants changed in Postgres and not yet replicated to DynamoDB and S3.
+-- Rows only name the merchant; the replicator copies its current state, or deletes it.
+CREATE TABLE merchant_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    email VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
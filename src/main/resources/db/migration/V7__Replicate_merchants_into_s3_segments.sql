@@ -0,0 +1,4 @@
+-- S3 now holds merchants in packed segments instead of one object per merchant.
+-- Queue every existing merchant so the replicator writes them into segments.
+INSERT INTO merchant_outbox (merchant_id, email)
+SELECT id, email FROM merchants ORDER BY id;
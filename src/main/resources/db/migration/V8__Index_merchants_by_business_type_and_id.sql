@@ -0,0 +1,6 @@
+-- Keyset pages filtered by business type read (business_type, id) in index order,
+-- so the filter and the ORDER BY id ... LIMIT are answered without a sort.
+-- The new index also serves every lookup the business_type-only one did.
+CREATE INDEX idx_merchants_business_type_id ON merchants(business_type, id);
+
+DROP INDEX idx_merchants_business_type;
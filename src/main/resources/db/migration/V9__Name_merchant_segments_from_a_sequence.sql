@@ -0,0 +1,6 @@
+-- Segments were named after the highest outbox id of their batch, but outbox ids are drawn
+-- before commit and commit out of order, so a later batch could get a lower name than an
+-- earlier one. Segments are now named from this sequence, drawn under the replication lock,
+-- starting above every name used so far.
+CREATE SEQUENCE merchant_segment_id_seq;
+SELECT setval('merchant_segment_id_seq', (SELECT last_value FROM merchant_outbox_id_seq));
@@ -7,7 +7,9 @@ import org.testcontainers.containers.localstack.LocalStackContainer;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
 /**
@@ -56,4 +58,44 @@ public class LocalStackAwsConfig {
                 .region(Region.of(localStackContainer.getRegion()))
                 .build();
     }
+
+    /**
+     * Async S3 client configured to use LocalStack endpoint.
+     */
+    @Bean
+    @Primary
+    public S3AsyncClient s3AsyncClient(LocalStackContainer localStackContainer) {
+        return S3AsyncClient.builder()
+                .endpointOverride(localStackContainer.getEndpoint())
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(
+                                        localStackContainer.getAccessKey(),
+                                        localStackContainer.getSecretKey()
+                                )
+                        )
+                )
+                .region(Region.of(localStackContainer.getRegion()))
+                .build();
+    }
+
+    /**
+     * Async DynamoDB client configured to use LocalStack endpoint.
+     */
+    @Bean
+    @Primary
+    public DynamoDbAsyncClient dynamoDbAsyncClient(LocalStackContainer localStackContainer) {
+        return DynamoDbAsyncClient.builder()
+                .endpointOverride(localStackContainer.getEndpoint())
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(
+                                        localStackContainer.getAccessKey(),
+                                        localStackContainer.getSecretKey()
+                                )
+                        )
+                )
+                .region(Region.of(localStackContainer.getRegion()))
+                .build();
+    }
 }
@@ -0,0 +1,100 @@
+package com.merchant.testing.controller;
+
+import com.merchant.testing.controller.bean.MerchantResponseBean;
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantCachingTest {
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic().mustRevalidate();
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_456_789);
+
+    @Test
+    void shouldDeriveTheETagFromTheIdAndTheUpdateTimeToTheMicrosecond() {
+        // given
+        LocalDateTime truncated = UPDATED_AT.truncatedTo(ChronoUnit.MICROS);
+
+        // when
+        String eTag = MerchantCaching.eTag(42L, UPDATED_AT);
+
+        // then
+        assertThat(eTag).isEqualTo(MerchantCaching.eTag(42L, truncated));
+        assertThat(eTag).isNotEqualTo(MerchantCaching.eTag(42L, truncated.plus(1, ChronoUnit.MICROS)));
+        assertThat(eTag).isNotEqualTo(MerchantCaching.eTag(43L, truncated));
+        assertThat(eTag).startsWith("\"42-").endsWith("\"");
+    }
+
+    @Test
+    void shouldSendValidatorsWithTheMerchant() {
+        // given
+        Merchant merchant = merchant(UPDATED_AT);
+
+        // when
+        ResponseEntity<MerchantResponseBean> response = MerchantCaching.ok(merchant, CACHE_CONTROL);
+
+        // then
+        assertThat(response.getHeaders().getETag()).isEqualTo(MerchantCaching.eTag(42L, UPDATED_AT));
+        assertThat(response.getHeaders().getLastModified())
+                .isEqualTo(UPDATED_AT.atZone(ZoneId.systemDefault()).toInstant().truncatedTo(ChronoUnit.SECONDS).toEpochMilli());
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo(CACHE_CONTROL.getHeaderValue());
+        assertThat(response.getBody()).isNotNull();
+    }
+
+    @Test
+    void shouldSendNoValidatorsForAMerchantWithoutUpdateTime() {
+        // given
+        Merchant merchant = merchant(null);
+
+        // when
+        ResponseEntity<MerchantResponseBean> response = MerchantCaching.ok(merchant, CACHE_CONTROL);
+
+        // then
+        assertThat(response.getHeaders().getETag()).isNull();
+        assertThat(response.getHeaders().getLastModified()).isEqualTo(-1);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo(CACHE_CONTROL.getHeaderValue());
+        assertThat(response.getBody()).isNotNull();
+    }
+
+    @Test
+    void shouldGiveTheSameETagWhicheverTierServedTheMerchant() {
+        // given: the microsecond update time Postgres stores, as each tier hands it back
+        LocalDateTime stored = UPDATED_AT.truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime fromPostgres = Timestamp.valueOf(stored).toLocalDateTime();
+        LocalDateTime fromDynamoDb = LocalDateTime.parse(stored.toString());
+        long snapshotMicros = stored.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + stored.getNano() / 1_000;
+        LocalDateTime fromSnapshot = LocalDateTime.ofEpochSecond(Math.floorDiv(snapshotMicros, 1_000_000),
+                (int) Math.floorMod(snapshotMicros, 1_000_000) * 1_000, ZoneOffset.UTC);
+
+        // when
+        String postgres = MerchantCaching.ok(merchant(fromPostgres), CACHE_CONTROL).getHeaders().getETag();
+        String dynamoDb = MerchantCaching.ok(merchant(fromDynamoDb), CACHE_CONTROL).getHeaders().getETag();
+        String snapshot = MerchantCaching.ok(merchant(fromSnapshot), CACHE_CONTROL).getHeaders().getETag();
+
+        // then
+        assertThat(postgres).isNotNull().isEqualTo(dynamoDb).isEqualTo(snapshot);
+    }
+
+    private static Merchant merchant(LocalDateTime updatedAt) {
+        return MerchantBuilder.aMerchant()
+                .withId(42L)
+                .withName("John Smith")
+                .withEmail("john@example.com")
+                .withBusinessType(BusinessTypeEnum.SMALL)
+                .withCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+                .withUpdatedAt(updatedAt)
+                .build();
+    }
+}
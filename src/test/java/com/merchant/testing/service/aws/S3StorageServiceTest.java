@@ -0,0 +1,117 @@
+package com.merchant.testing.service.aws;
+
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class S3StorageServiceTest {
+    private static final int PART_SIZE = S3MultipartOutputStream.MIN_PART_SIZE;
+
+    private S3Client mockedS3Client;
+    private S3StorageService s3StorageService;
+    private List<Integer> uploadedPartSizes;
+
+    @BeforeEach
+    void setUp() {
+        mockedS3Client = mock(S3Client.class);
+        s3StorageService = new S3StorageService(mockedS3Client, new Bulkhead("s3", 10, Duration.ZERO, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(s3StorageService, "bucketName", "merchant-bucket");
+        ReflectionTestUtils.setField(s3StorageService, "multipartPartSize", DataSize.ofBytes(PART_SIZE));
+        uploadedPartSizes = new ArrayList<>();
+        when(mockedS3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(mockedS3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            uploadedPartSizes.add(Math.toIntExact(invocation.<RequestBody>getArgument(1).optionalContentLength().orElseThrow()));
+            return UploadPartResponse.builder().eTag("etag-" + uploadedPartSizes.size()).build();
+        });
+    }
+
+    @Test
+    void shouldPutAnObjectThatFitsInOnePart() {
+        // when
+        s3StorageService.write("small.json", out -> out.write("[]".getBytes(StandardCharsets.UTF_8)));
+
+        // then
+        verify(mockedS3Client).putObject(argThat((PutObjectRequest request) -> request.key().equals("small.json")),
+                argThat((RequestBody body) -> body.optionalContentLength().orElseThrow() == 2));
+        verify(mockedS3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void shouldUploadALargeObjectInParts() {
+        // given
+        byte[] chunk = new byte[1024 * 1024];
+
+        // when
+        s3StorageService.write("large.json", out -> {
+            for (int i = 0; i < 12; i++) {
+                out.write(chunk);
+            }
+        });
+
+        // then
+        assertThat(uploadedPartSizes).containsExactly(PART_SIZE, PART_SIZE, 12 * chunk.length - 2 * PART_SIZE);
+        verify(mockedS3Client).completeMultipartUpload(argThat((CompleteMultipartUploadRequest request) ->
+                request.uploadId().equals("upload-1") && request.multipartUpload().parts().size() == 3
+                        && request.multipartUpload().parts().get(2).eTag().equals("etag-3")));
+        verify(mockedS3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    void shouldAbortTheUploadWhenTheWriterFails() {
+        // when
+        assertThrows(UncheckedIOException.class, () -> s3StorageService.write("broken.json", out -> {
+            out.write(new byte[PART_SIZE + 1]);
+            throw new IOException("cursor closed");
+        }));
+
+        // then
+        verify(mockedS3Client).abortMultipartUpload(argThat((AbortMultipartUploadRequest request) -> request.uploadId().equals("upload-1")));
+        verify(mockedS3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void shouldHandTheRangedObjectStreamToTheReader() {
+        // given
+        InputStream content = new ByteArrayInputStream("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        when(mockedS3Client.getObject(any(GetObjectRequest.class)))
+                .thenReturn(new ResponseInputStream<>(GetObjectResponse.builder().build(), AbortableInputStream.create(content)));
+
+        // when
+        String read = s3StorageService.readRange("segment.data", 100, 8, in -> new String(in.readAllBytes(), StandardCharsets.UTF_8));
+
+        // then
+        assertThat(read).isEqualTo("{\"id\":1}");
+        verify(mockedS3Client).getObject(argThat((GetObjectRequest request) -> request.range().equals("bytes=100-107")));
+    }
+}
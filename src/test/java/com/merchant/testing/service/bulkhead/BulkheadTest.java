@@ -0,0 +1,99 @@
+package com.merchant.testing.service.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkheadTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bulkhead = new Bulkhead("postgres", 1, Duration.ofMillis(50), meterRegistry);
+    }
+
+    @Test
+    void shouldRejectCallsThatWaitLongerThanMaxWait() throws Exception {
+        // given
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> holder = executor.submit(() -> bulkhead.call(() -> {
+                holding.countDown();
+                release.await();
+                return "done";
+            }));
+            holding.await();
+
+            // when
+            assertThrows(BulkheadFullException.class, () -> bulkhead.call(() -> "rejected"));
+            release.countDown();
+
+            // then
+            assertThat(holder.get()).isEqualTo("done");
+        }
+        assertThat(meterRegistry.get("bulkhead.rejections").tag("backend", "postgres").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bulkhead.active").tag("backend", "postgres").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldQueueCallsUntilAPermitIsReleased() throws Exception {
+        // given
+        Bulkhead patient = new Bulkhead("s3", 1, Duration.ofSeconds(5), meterRegistry);
+        CountDownLatch holding = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> holder = executor.submit(() -> patient.call(() -> {
+                holding.countDown();
+                Thread.sleep(50);
+                return "first";
+            }));
+            holding.await();
+
+            // when
+            String queued = patient.call(() -> "second");
+
+            // then
+            assertThat(holder.get()).isEqualTo("first");
+            assertThat(queued).isEqualTo("second");
+        }
+        assertThat(meterRegistry.get("bulkhead.wait").tag("backend", "s3").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("bulkhead.wait").tag("backend", "s3").timer().max(TimeUnit.MILLISECONDS))
+                .isGreaterThan(0);
+    }
+
+    @Test
+    void shouldLetNestedCallsOfTheSameThreadThrough() {
+        // when
+        String result = bulkhead.call(() -> bulkhead.call(() -> "nested"));
+
+        // then
+        assertThat(result).isEqualTo("nested");
+        assertThat(meterRegistry.get("bulkhead.rejections").tag("backend", "postgres").counter().count()).isZero();
+    }
+
+    @Test
+    void shouldReleaseThePermitWhenTheCallFails() {
+        // when
+        assertThrows(IllegalStateException.class, () -> bulkhead.run(() -> {
+            throw new IllegalStateException("timeout");
+        }));
+
+        // then
+        assertThat(bulkhead.call(() -> "next")).isEqualTo("next");
+    }
+}
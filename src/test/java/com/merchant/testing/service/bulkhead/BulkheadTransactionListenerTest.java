@@ -0,0 +1,88 @@
+package com.merchant.testing.service.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionExecution;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class BulkheadTransactionListenerTest {
+
+    private Bulkhead bulkhead;
+    private BulkheadTransactionListener listener;
+
+    @BeforeEach
+    void setUp() {
+        bulkhead = new Bulkhead("postgres", 1, Duration.ofMillis(50), new SimpleMeterRegistry());
+        listener = new BulkheadTransactionListener(bulkhead);
+    }
+
+    @Test
+    void shouldHoldThePermitFromBeginToCommitAndRunCallsInsideOnIt() throws InterruptedException {
+        // given
+        TransactionExecution transaction = mock(TransactionExecution.class);
+
+        // when
+        listener.beforeBegin(transaction);
+        listener.afterBegin(transaction, null);
+        String inside = bulkhead.call(() -> "inside");
+
+        // then
+        assertThat(inside).isEqualTo("inside");
+        assertThat(callFromAnotherThread()).isInstanceOf(BulkheadFullException.class);
+        listener.afterCommit(transaction, null);
+        assertThat(callFromAnotherThread()).isNull();
+    }
+
+    @Test
+    void shouldReleaseThePermitOnceWhenACommitFailureIsRolledBack() throws InterruptedException {
+        // given
+        TransactionExecution transaction = mock(TransactionExecution.class);
+        listener.beforeBegin(transaction);
+
+        // when
+        listener.afterCommit(transaction, new IllegalStateException("commit failed"));
+        listener.afterRollback(transaction, null);
+
+        // then
+        assertThat(bulkhead.enter()).isTrue();
+        assertThat(callFromAnotherThread()).isInstanceOf(BulkheadFullException.class);
+        bulkhead.exit();
+    }
+
+    @Test
+    void shouldNotTakeASecondPermitForATransactionBegunInsideACall() {
+        // given
+        TransactionExecution transaction = mock(TransactionExecution.class);
+
+        // when
+        String result = bulkhead.call(() -> {
+            listener.beforeBegin(transaction);
+            listener.afterCommit(transaction, null);
+            return bulkhead.call(() -> "nested");
+        });
+
+        // then
+        assertThat(result).isEqualTo("nested");
+        assertThat(bulkhead.call(() -> "next")).isEqualTo("next");
+    }
+
+    /**
+     * The failure of a call made on another thread, or null if it got a permit.
+     */
+    private Throwable callFromAnotherThread() throws InterruptedException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> bulkhead.call(() -> "other")).get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+}
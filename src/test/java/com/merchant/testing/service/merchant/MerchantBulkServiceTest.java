@@ -0,0 +1,118 @@
+package com.merchant.testing.service.merchant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.repository.MerchantBulkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MerchantBulkServiceTest {
+
+    private MerchantBulkRepository mockedBulkRepository;
+    private ApplicationEventPublisher mockedEventPublisher;
+    private PlatformTransactionManager mockedTransactionManager;
+    private MerchantBulkService merchantBulkService;
+
+    @BeforeEach
+    void setUp() {
+        mockedBulkRepository = mock(MerchantBulkRepository.class);
+        mockedEventPublisher = mock(ApplicationEventPublisher.class);
+        mockedTransactionManager = mock(PlatformTransactionManager.class);
+        merchantBulkService = new MerchantBulkService(mockedBulkRepository, new ObjectMapper(), mockedEventPublisher, mockedTransactionManager, 2);
+    }
+
+    @Test
+    void shouldReportOutcomeOfEveryLineInInputOrder() throws IOException {
+        // given
+        String ndjson = """
+                {"name":"John Doe","email":"john@example.com","businessType":"SMALL"}
+                {"name":"Jane Smith","email":"john@example.com","businessType":"LARGE"}
+                {"name":"","email":"empty@example.com"}
+                {"name":"Max Power","email":"max@example.com","businessType":"MEDIUM"}
+                """;
+        when(mockedBulkRepository.allocateIds(2)).thenReturn(List.of(100L, 101L));
+        when(mockedBulkRepository.allocateIds(1)).thenReturn(List.of(102L));
+        when(mockedBulkRepository.insertIgnoringDuplicateEmails(anyList()))
+                .thenReturn(Set.of(100L))
+                .thenReturn(Set.of(102L));
+
+        // when
+        String outcomes = createMerchants(ndjson);
+
+        // then
+        assertThat(outcomes.lines().toList()).containsExactly(
+                "{\"line\":1,\"status\":\"CREATED\",\"id\":\"100\"}",
+                "{\"line\":2,\"status\":\"DUPLICATE\",\"error\":\"Merchant with email already exists\"}",
+                "{\"line\":3,\"status\":\"INVALID\",\"error\":\"Merchant name is required\"}",
+                "{\"line\":4,\"status\":\"CREATED\",\"id\":\"102\"}"
+        );
+        verify(mockedEventPublisher, times(2)).publishEvent(any(MerchantChangedEvent.class));
+    }
+
+    @Test
+    void shouldPublishEventsOfABatchInsideItsTransaction() throws IOException {
+        // given
+        when(mockedBulkRepository.allocateIds(1)).thenReturn(List.of(100L));
+        when(mockedBulkRepository.insertIgnoringDuplicateEmails(anyList())).thenReturn(Set.of(100L));
+
+        // when
+        createMerchants("{\"name\":\"John Doe\",\"email\":\"john@example.com\"}\n");
+
+        // then
+        InOrder inOrder = inOrder(mockedTransactionManager, mockedBulkRepository, mockedEventPublisher);
+        inOrder.verify(mockedTransactionManager).getTransaction(any());
+        inOrder.verify(mockedBulkRepository).insertIgnoringDuplicateEmails(anyList());
+        inOrder.verify(mockedEventPublisher).publishEvent(any(MerchantChangedEvent.class));
+        inOrder.verify(mockedTransactionManager).commit(any());
+    }
+
+    @Test
+    void shouldReportMalformedLineAsInvalid() throws IOException {
+        // when
+        String outcomes = createMerchants("not json\n");
+
+        // then
+        assertThat(outcomes).startsWith("{\"line\":1,\"status\":\"INVALID\",\"error\":");
+        verifyNoInteractions(mockedBulkRepository);
+    }
+
+    @Test
+    void shouldInsertEachBatchWithOneStatement() throws IOException {
+        // given
+        String ndjson = """
+                {"name":"A","email":"a@example.com"}
+                {"name":"B","email":"b@example.com"}
+                {"name":"C","email":"c@example.com"}
+                """;
+        when(mockedBulkRepository.allocateIds(anyInt())).thenAnswer(invocation ->
+                java.util.stream.LongStream.range(1, 1 + (int) invocation.getArgument(0)).boxed().toList());
+        when(mockedBulkRepository.insertIgnoringDuplicateEmails(anyList())).thenReturn(Set.of());
+
+        // when
+        createMerchants(ndjson);
+
+        // then
+        verify(mockedBulkRepository).insertIgnoringDuplicateEmails(argThat((List<Merchant> batch) -> batch.size() == 2));
+        verify(mockedBulkRepository).insertIgnoringDuplicateEmails(argThat((List<Merchant> batch) -> batch.size() == 1));
+    }
+
+    private String createMerchants(String ndjson) throws IOException {
+        ByteArrayOutputStream outcomes = new ByteArrayOutputStream();
+        merchantBulkService.createMerchants(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), outcomes);
+        return outcomes.toString(StandardCharsets.UTF_8);
+    }
+}
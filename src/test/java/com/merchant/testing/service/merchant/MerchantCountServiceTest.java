@@ -0,0 +1,73 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.repository.MerchantReadRepository;
+import com.merchant.testing.service.merchant.bean.MerchantCountsBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MerchantCountServiceTest {
+
+    private MerchantReadRepository mockedReadRepository;
+    private MerchantCountService merchantCountService;
+
+    @BeforeEach
+    void setUp() {
+        mockedReadRepository = mock(MerchantReadRepository.class);
+        merchantCountService = new MerchantCountService(mockedReadRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldBeUnavailableUntilCounted() {
+        // when & then
+        assertThrows(MerchantUnavailableException.class, () -> merchantCountService.getMerchantCounts());
+    }
+
+    @Test
+    void shouldMoveCountsWithEveryWrite() {
+        // given
+        Map<BusinessTypeEnum, Long> counted = new HashMap<>();
+        counted.put(BusinessTypeEnum.SMALL, 5L);
+        counted.put(BusinessTypeEnum.LARGE, 2L);
+        counted.put(null, 1L);
+        when(mockedReadRepository.countByBusinessType()).thenReturn(counted);
+        merchantCountService.refresh();
+
+        // when
+        merchantCountService.onMerchantCountChanged(MerchantCountChangedEvent.created(BusinessTypeEnum.MEDIUM));
+        merchantCountService.onMerchantCountChanged(MerchantCountChangedEvent.retyped(BusinessTypeEnum.SMALL, BusinessTypeEnum.LARGE));
+        merchantCountService.onMerchantCountChanged(MerchantCountChangedEvent.deleted(null));
+
+        // then
+        MerchantCountsBean counts = merchantCountService.getMerchantCounts();
+        assertThat(counts.total()).isEqualTo(8L);
+        assertThat(counts.businessTypes()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                BusinessTypeEnum.SMALL, 4L, BusinessTypeEnum.MEDIUM, 1L, BusinessTypeEnum.LARGE, 3L));
+    }
+
+    @Test
+    void shouldKeepWritesCommittedWhileRecounting() {
+        // given
+        when(mockedReadRepository.countByBusinessType()).thenAnswer(invocation -> {
+            merchantCountService.onMerchantCountChanged(MerchantCountChangedEvent.created(BusinessTypeEnum.SMALL));
+            return Map.of(BusinessTypeEnum.SMALL, 10L);
+        });
+
+        // when
+        merchantCountService.refresh();
+
+        // then
+        MerchantCountsBean counts = merchantCountService.getMerchantCounts();
+        assertThat(counts.total()).isEqualTo(11L);
+        assertThat(counts.businessTypes()).containsEntry(BusinessTypeEnum.SMALL, 11L);
+    }
+}
@@ -0,0 +1,59 @@
+package com.merchant.testing.service.merchant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.merchant.testing.service.aws.S3StorageService;
+import com.merchant.testing.service.bulkhead.Bulkhead;
+import com.merchant.testing.service.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class MerchantExportServiceTest {
+
+    @Mock
+    private DataSource mockedDataSource;
+
+    @Mock
+    private PlatformTransactionManager mockedTransactionManager;
+
+    @Mock
+    private S3StorageService mockedS3StorageService;
+
+    private Bulkhead exportBulkhead;
+    private MerchantExportService merchantExportService;
+
+    @BeforeEach
+    void setUp() {
+        exportBulkhead = new Bulkhead("export", 1, Duration.ZERO, new SimpleMeterRegistry());
+        merchantExportService = new MerchantExportService(mockedDataSource, mockedTransactionManager, new ObjectMapper(),
+                mockedS3StorageService, exportBulkhead, 1000, "merchant-exports/");
+    }
+
+    @Test
+    void shouldRejectAnExportBeyondTheExportBulkheadBeforeOpeningATransaction() {
+        // given: another export still streaming to a slow client
+        CompletableFuture.runAsync(exportBulkhead::enter).join();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        assertThrows(BulkheadFullException.class, () -> merchantExportService.exportMerchants(outputStream));
+
+        // then
+        assertThat(outputStream.size()).isZero();
+        verifyNoInteractions(mockedTransactionManager, mockedDataSource);
+    }
+}
@@ -0,0 +1,98 @@
+package com.merchant.testing.service.merchant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MerchantFanOutTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldRunAtMostMaxConcurrentCallsAtATime() throws Exception {
+        // given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Runnable> calls = IntStream.range(0, 20).<Runnable>mapToObj(i -> () -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(5);
+            running.decrementAndGet();
+        }).toList();
+
+        // when
+        MerchantFanOut.runAll(executor, 3, calls);
+
+        // then
+        assertThat(peak.get()).isBetween(1, 3);
+        assertThat(running.get()).isZero();
+    }
+
+    @Test
+    void shouldWaitForRunningCallsWithoutInterruptingThemAfterAFailure() {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicBoolean skippedRan = new AtomicBoolean();
+        Runnable slow = () -> {
+            started.countDown();
+            sleep(50);
+            interrupted.set(Thread.currentThread().isInterrupted());
+            finished.set(true);
+        };
+        Runnable failing = () -> {
+            await(started);
+            throw new IllegalStateException("lookup failed");
+        };
+        Runnable waiting = () -> skippedRan.set(true);
+
+        // when
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> MerchantFanOut.runAll(executor, 2, List.of(slow, failing, waiting)));
+
+        // then
+        assertThat(failure).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(finished).isTrue();
+        assertThat(interrupted).isFalse();
+        assertThat(skippedRan).isFalse();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
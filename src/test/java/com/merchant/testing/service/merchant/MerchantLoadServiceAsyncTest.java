@@ -0,0 +1,169 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.repository.MerchantReactiveRepository;
+import com.merchant.testing.service.aws.DynamoDbAsyncService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MerchantLoadServiceAsyncTest {
+
+    private DynamoDbAsyncService mockedDynamoDb;
+    private MerchantSegmentStore mockedS3;
+    private MerchantLoadServicePostgres mockedPostgres;
+    private ExecutorService executor;
+    private MerchantTierGuards guards;
+    private MerchantLoadServiceAsync merchantLoadServiceAsync;
+
+    @BeforeEach
+    void setUp() {
+        mockedDynamoDb = mock(DynamoDbAsyncService.class);
+        mockedS3 = mock(MerchantSegmentStore.class);
+        mockedPostgres = mock(MerchantLoadServicePostgres.class);
+        MerchantTierFilters mockedFilters = mock(MerchantTierFilters.class);
+        when(mockedFilters.mightContainId(any(), any())).thenReturn(true);
+        when(mockedFilters.mightContainEmail(any(), any())).thenReturn(true);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        guards = new MerchantTierGuards(new SimpleMeterRegistry(), Duration.ofMillis(50), Duration.ofSeconds(1), Duration.ofSeconds(1),
+                2, 0.5, Duration.ofMinutes(1), 1);
+        merchantLoadServiceAsync = new MerchantLoadServiceAsync(mock(MerchantLoadServiceSnapshot.class), mockedDynamoDb, mockedS3, mockedPostgres, mockedFilters, executor, new MerchantTierMetrics(new SimpleMeterRegistry()),
+                new MerchantTierOrdering(new SimpleMeterRegistry(), List.of(MerchantTier.values()), false, 0.05, 100, 0.1, 0), Optional.empty(),
+                guards, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldNotAskLowerTiersWhenDynamoDBHits() {
+        // given
+        when(mockedDynamoDb.getItem("123")).thenReturn(CompletableFuture.completedFuture(Map.of(
+                "id", AttributeValue.builder().s("123").build(),
+                "name", AttributeValue.builder().s("John Doe").build(),
+                "email", AttributeValue.builder().s("john@example.com").build(),
+                "businessType", AttributeValue.builder().s("small").build(),
+                "phonetics", AttributeValue.builder().s("").build())));
+
+        // when
+        Optional<Merchant> merchant = merchantLoadServiceAsync.loadMerchant("123").join();
+
+        // then
+        assertThat(merchant).map(Merchant::getEmail).contains("john@example.com");
+        verifyNoInteractions(mockedPostgres, mockedS3);
+    }
+
+    @Test
+    void shouldChainToNextTierOnMiss() {
+        // given
+        Merchant merchant = new Merchant("John Doe", "john@example.com", null);
+        when(mockedDynamoDb.getItem("123")).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockedPostgres.loadMerchant("123")).thenReturn(Optional.of(merchant));
+
+        // when
+        Optional<Merchant> result = merchantLoadServiceAsync.loadMerchant("123").join();
+
+        // then
+        assertThat(result).contains(merchant);
+        verifyNoInteractions(mockedS3);
+    }
+
+    @Test
+    void shouldReturnEmptyWhenNoTierHasTheEmail() {
+        // given
+        when(mockedDynamoDb.queryItemByEmail("john@example.com")).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockedPostgres.loadMerchantByEmail("john@example.com")).thenReturn(Optional.empty());
+        when(mockedS3.findByEmailAsync("john@example.com")).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        // when
+        Optional<Merchant> result = merchantLoadServiceAsync.loadMerchantByEmail("john@example.com").join();
+
+        // then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(mockedS3);
+    }
+
+    @Test
+    void shouldFallThroughToPostgresWhenDynamoDBTimesOut() {
+        // given
+        Merchant merchant = new Merchant("John Doe", "john@example.com", null);
+        when(mockedDynamoDb.getItem("123")).thenReturn(new CompletableFuture<>());
+        when(mockedPostgres.loadMerchant("123")).thenReturn(Optional.of(merchant));
+
+        // when
+        Optional<Merchant> result = merchantLoadServiceAsync.loadMerchant("123").join();
+
+        // then
+        assertThat(result).contains(merchant);
+    }
+
+    @Test
+    void shouldSkipATierWhoseBreakerIsOpen() {
+        // given
+        when(mockedDynamoDb.getItem("123")).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("throttled")));
+        when(mockedPostgres.loadMerchant("123")).thenReturn(Optional.empty());
+        merchantLoadServiceAsync.loadMerchant("123").join();
+        merchantLoadServiceAsync.loadMerchant("123").join();
+
+        // when
+        Optional<Merchant> result = merchantLoadServiceAsync.loadMerchant("123").join();
+
+        // then
+        assertThat(result).isEmpty();
+        assertThat(guards.state(MerchantTier.DYNAMODB)).isEqualTo(MerchantTierGuards.State.OPEN);
+        verify(mockedDynamoDb, times(2)).getItem("123");
+    }
+
+    @Test
+    void shouldFailWhenOnlyAReplicaMissedAndPostgresFailed() {
+        // given
+        when(mockedDynamoDb.getItem("123")).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockedPostgres.loadMerchant("123")).thenThrow(new IllegalStateException("connection refused"));
+        when(mockedS3.findByIdAsync("123")).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        // when
+        CompletableFuture<Optional<Merchant>> result = merchantLoadServiceAsync.loadMerchant("123");
+
+        // then
+        assertThatThrownBy(result::join).hasCauseInstanceOf(MerchantUnavailableException.class);
+    }
+
+    @Test
+    void shouldAskPostgresThroughR2dbcWhenReactive() {
+        // given
+        MerchantReactiveRepository mockedR2dbc = mock(MerchantReactiveRepository.class);
+        MerchantTierFilters mockedFilters = mock(MerchantTierFilters.class);
+        when(mockedFilters.mightContainEmail(any(), any())).thenReturn(true);
+        MerchantLoadServiceAsync reactiveLoadService = new MerchantLoadServiceAsync(mock(MerchantLoadServiceSnapshot.class), mockedDynamoDb, mockedS3, mockedPostgres, mockedFilters, executor, new MerchantTierMetrics(new SimpleMeterRegistry()),
+                new MerchantTierOrdering(new SimpleMeterRegistry(), List.of(MerchantTier.values()), false, 0.05, 100, 0.1, 0), Optional.of(mockedR2dbc),
+                guards, Duration.ofSeconds(5));
+        Merchant merchant = new Merchant("John Doe", "john@example.com", null);
+        when(mockedDynamoDb.queryItemByEmail("john@example.com")).thenReturn(CompletableFuture.completedFuture(null));
+        when(mockedR2dbc.findByEmail("john@example.com")).thenReturn(Mono.just(merchant));
+
+        // when
+        Optional<Merchant> result = reactiveLoadService.loadMerchantByEmail("john@example.com").join();
+
+        // then
+        assertThat(result).contains(merchant);
+        verifyNoInteractions(mockedPostgres, mockedS3);
+    }
+}
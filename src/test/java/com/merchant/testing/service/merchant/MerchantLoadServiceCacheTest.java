@@ -0,0 +1,151 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class MerchantLoadServiceCacheTest {
+
+    private MerchantLoadServiceStrategy mockedStrategy;
+    private SimpleMeterRegistry meterRegistry;
+    private MerchantLoadServiceCache merchantLoadServiceCache;
+
+    @BeforeEach
+    void setUp() {
+        mockedStrategy = mock(MerchantLoadServiceStrategy.class);
+        meterRegistry = new SimpleMeterRegistry();
+        merchantLoadServiceCache = new MerchantLoadServiceCache(mockedStrategy, mock(MerchantLoadServiceAsync.class), meterRegistry, 100, Duration.ofMinutes(5), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldServeRepeatedIdLookupsFromCache() {
+        // given
+        Merchant merchant = merchant(123L, "john@example.com");
+        when(mockedStrategy.loadMerchant("123")).thenReturn(Optional.of(merchant));
+
+        // when
+        merchantLoadServiceCache.loadMerchant("123");
+        Optional<Merchant> result = merchantLoadServiceCache.loadMerchant("123");
+
+        // then
+        assertThat(result).contains(merchant);
+        verify(mockedStrategy, times(1)).loadMerchant("123");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "merchants.by-id").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeEmailLookupFromEntryCachedById() {
+        // given
+        Merchant merchant = merchant(123L, "john@example.com");
+        when(mockedStrategy.loadMerchant("123")).thenReturn(Optional.of(merchant));
+
+        // when
+        merchantLoadServiceCache.loadMerchant("123");
+        Optional<Merchant> result = merchantLoadServiceCache.loadMerchantByEmail("john@example.com");
+
+        // then
+        assertThat(result).contains(merchant);
+        verify(mockedStrategy, never()).loadMerchantByEmail(any());
+    }
+
+    @Test
+    void shouldNotCacheMisses() {
+        // given
+        when(mockedStrategy.loadMerchant("123")).thenReturn(Optional.empty());
+
+        // when
+        merchantLoadServiceCache.loadMerchant("123");
+        merchantLoadServiceCache.loadMerchant("123");
+
+        // then
+        verify(mockedStrategy, times(2)).loadMerchant("123");
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        // given
+        Merchant merchant = merchant(123L, "john@example.com");
+        when(mockedStrategy.loadMerchant("123")).thenReturn(Optional.of(merchant));
+        when(mockedStrategy.loadMerchantByEmail("john@example.com")).thenReturn(Optional.of(merchant));
+        merchantLoadServiceCache.loadMerchant("123");
+
+        // when
+        merchantLoadServiceCache.invalidate(123L);
+        merchantLoadServiceCache.loadMerchant("123");
+        merchantLoadServiceCache.invalidate(123L);
+        merchantLoadServiceCache.loadMerchantByEmail("john@example.com");
+
+        // then
+        verify(mockedStrategy, times(2)).loadMerchant("123");
+        verify(mockedStrategy).loadMerchantByEmail("john@example.com");
+    }
+
+    @Test
+    void shouldNotCacheALookupThatReadTheRowBeforeAnUpdateCommitted() {
+        // given: the update commits while the lookup is still holding the old row
+        Merchant stale = merchant(123L, "john@example.com");
+        when(mockedStrategy.loadMerchant("123")).thenAnswer(invocation -> {
+            merchantLoadServiceCache.invalidate(123L);
+            return Optional.of(stale);
+        });
+
+        // when
+        merchantLoadServiceCache.loadMerchant("123");
+        merchantLoadServiceCache.loadMerchant("123");
+
+        // then
+        verify(mockedStrategy, times(2)).loadMerchant("123");
+    }
+
+    @Test
+    void shouldNotCacheAReplicaAnswerWithinTheInvalidationWindow() {
+        // given: DynamoDB still answers with the row from before the update
+        Merchant stale = merchant(123L, "john@example.com");
+        when(mockedStrategy.loadMerchant("123")).thenReturn(Optional.of(stale));
+        when(mockedStrategy.loadMerchants(List.of("123"))).thenReturn(Map.of("123", stale));
+        merchantLoadServiceCache.invalidate(123L);
+
+        // when
+        merchantLoadServiceCache.loadMerchant("123");
+        merchantLoadServiceCache.loadMerchants(List.of("123"));
+        merchantLoadServiceCache.loadMerchant("123");
+
+        // then
+        verify(mockedStrategy, times(2)).loadMerchant("123");
+        verify(mockedStrategy).loadMerchants(List.of("123"));
+    }
+
+    @Test
+    void shouldCacheAgainOnceTheInvalidationWindowHasPassed() {
+        // given
+        merchantLoadServiceCache = new MerchantLoadServiceCache(mockedStrategy, mock(MerchantLoadServiceAsync.class),
+                meterRegistry, 100, Duration.ofMinutes(5), Duration.ZERO);
+        Merchant merchant = merchant(123L, "john@example.com");
+        when(mockedStrategy.loadMerchant("123")).thenReturn(Optional.of(merchant));
+        merchantLoadServiceCache.invalidate(123L);
+
+        // when
+        merchantLoadServiceCache.loadMerchant("123");
+        merchantLoadServiceCache.loadMerchant("123");
+
+        // then
+        verify(mockedStrategy, times(1)).loadMerchant("123");
+    }
+
+    private Merchant merchant(Long id, String email) {
+        Merchant merchant = new Merchant("John Doe", email, BusinessTypeEnum.MEDIUM);
+        merchant.setId(id);
+        return merchant;
+    }
+}
@@ -0,0 +1,432 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class MerchantLoadServiceStrategyTest {
+
+    private MerchantLoadServiceDynamoDB mockedDynamoDB;
+    private MerchantLoadServicePostgres mockedPostgres;
+    private MerchantLoadServiceS3 mockedS3;
+    private MerchantLoadServiceSnapshot mockedSnapshot;
+    private MerchantTierFilters mockedFilters;
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private MerchantTierGuards guards;
+
+    @BeforeEach
+    void setUp() {
+        mockedDynamoDB = mock(MerchantLoadServiceDynamoDB.class);
+        mockedPostgres = mock(MerchantLoadServicePostgres.class);
+        mockedS3 = mock(MerchantLoadServiceS3.class);
+        mockedSnapshot = mock(MerchantLoadServiceSnapshot.class);
+        mockedFilters = mock(MerchantTierFilters.class);
+        when(mockedFilters.mightContainId(any(), any())).thenReturn(true);
+        when(mockedFilters.mightContainEmail(any(), any())).thenReturn(true);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldPreferHigherPriorityTierInParallelMode() {
+        // given
+        Merchant fromDynamoDB = merchant("dynamo");
+        Merchant fromPostgres = merchant("postgres");
+        when(mockedDynamoDB.loadMerchant("123")).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return Optional.of(fromDynamoDB);
+        });
+        when(mockedPostgres.loadMerchant("123")).thenReturn(Optional.of(fromPostgres));
+        when(mockedS3.loadMerchant("123")).thenReturn(Optional.empty());
+
+        // when
+        Optional<Merchant> result = strategy(MerchantLoadMode.PARALLEL, Duration.ZERO).loadMerchant("123");
+
+        // then
+        assertThat(result).contains(fromDynamoDB);
+    }
+
+    @Test
+    void shouldNotWaitForDynamoDBMissBeforeAskingPostgresInParallelMode() {
+        // given
+        Merchant fromPostgres = merchant("postgres");
+        when(mockedDynamoDB.loadMerchant("123")).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.empty();
+        });
+        when(mockedPostgres.loadMerchant("123")).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.of(fromPostgres);
+        });
+
+        // when
+        long start = System.nanoTime();
+        Optional<Merchant> result = strategy(MerchantLoadMode.PARALLEL, Duration.ZERO).loadMerchant("123");
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // then
+        assertThat(result).contains(fromPostgres);
+        assertThat(elapsedMillis).isLessThan(390);
+    }
+
+    @Test
+    void shouldNotStartLowerTiersWhenFirstTierAnswersWithinHedgeDelay() {
+        // given
+        Merchant fromDynamoDB = merchant("dynamo");
+        when(mockedDynamoDB.loadMerchantByEmail("john@example.com")).thenReturn(Optional.of(fromDynamoDB));
+
+        // when
+        Optional<Merchant> result = strategy(MerchantLoadMode.HEDGED, Duration.ofSeconds(1)).loadMerchantByEmail("john@example.com");
+
+        // then
+        assertThat(result).contains(fromDynamoDB);
+        verifyNoInteractions(mockedPostgres, mockedS3);
+    }
+
+    @Test
+    void shouldHedgeToNextTierWhenFirstTierIsSlow() {
+        // given
+        Merchant fromPostgres = merchant("postgres");
+        when(mockedDynamoDB.loadMerchant("123")).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return Optional.empty();
+        });
+        when(mockedPostgres.loadMerchant("123")).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return Optional.of(fromPostgres);
+        });
+
+        // when
+        long start = System.nanoTime();
+        Optional<Merchant> result = strategy(MerchantLoadMode.HEDGED, Duration.ofMillis(50)).loadMerchant("123");
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // then
+        assertThat(result).contains(fromPostgres);
+        assertThat(elapsedMillis).isLessThan(590);
+    }
+
+    @Test
+    void shouldSkipTiersWhoseFilterRulesOutTheKey() {
+        // given
+        Merchant fromS3 = merchant("s3");
+        when(mockedFilters.mightContainId(MerchantTier.DYNAMODB, "123")).thenReturn(false);
+        when(mockedFilters.mightContainId(MerchantTier.POSTGRES, "123")).thenReturn(false);
+        when(mockedS3.loadMerchant("123")).thenReturn(Optional.of(fromS3));
+
+        // when
+        Optional<Merchant> result = strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchant("123");
+
+        // then
+        assertThat(result).contains(fromS3);
+        verifyNoInteractions(mockedDynamoDB, mockedPostgres);
+    }
+
+    @Test
+    void shouldReportMissOfTierLetThroughByFilter() {
+        // when
+        strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchantByEmail("john@example.com");
+
+        // then
+        verify(mockedFilters).recordMiss(MerchantTier.DYNAMODB);
+        verify(mockedFilters).recordMiss(MerchantTier.POSTGRES);
+    }
+
+    @Test
+    void shouldRethrowTheFirstFailureWhenNoTierAnswers() {
+        // given
+        when(mockedDynamoDB.loadMerchant("123")).thenThrow(new IllegalStateException("boom"));
+        when(mockedPostgres.loadMerchant("123")).thenThrow(new IllegalArgumentException("bang"));
+        when(mockedS3.loadMerchant("123")).thenThrow(new IllegalArgumentException("crash"));
+
+        // when & then
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+                strategy(MerchantLoadMode.PARALLEL, Duration.ZERO).loadMerchant("123"));
+        assertThat(thrown).hasMessage("boom");
+    }
+
+    @Test
+    void shouldFallThroughToTheNextTierWhenATierFails() {
+        // given
+        when(mockedDynamoDB.loadMerchant("123")).thenThrow(new IllegalStateException("boom"));
+        when(mockedPostgres.loadMerchant("123")).thenReturn(Optional.empty());
+
+        // when
+        Optional<Merchant> result = strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchant("123");
+
+        // then
+        assertThat(result).isEmpty();
+        verify(mockedPostgres).loadMerchant("123");
+        verifyNoInteractions(mockedS3);
+    }
+
+    @Test
+    void shouldAskTheTiersBehindPostgresOnlyWhenItFails() {
+        // given
+        Merchant fromS3 = merchant("s3");
+        when(mockedPostgres.loadMerchant("123")).thenThrow(new IllegalStateException("connection refused"));
+        when(mockedS3.loadMerchant("123")).thenReturn(Optional.of(fromS3));
+
+        // when
+        Optional<Merchant> result = strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchant("123");
+
+        // then
+        assertThat(result).contains(fromS3);
+    }
+
+    @Test
+    void shouldNotReportAMissWhenOnlyAReplicaAnsweredAndPostgresFailed() {
+        // given
+        when(mockedDynamoDB.loadMerchant("123")).thenReturn(Optional.empty());
+        when(mockedPostgres.loadMerchant("123")).thenThrow(new IllegalStateException("connection refused"));
+        when(mockedS3.loadMerchant("123")).thenReturn(Optional.empty());
+
+        // when & then
+        MerchantUnavailableException thrown = assertThrows(MerchantUnavailableException.class, () ->
+                strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchant("123"));
+        assertThat(thrown).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldFailTheBatchWhenPostgresCouldNotRuleOutAnId() {
+        // given
+        when(mockedDynamoDB.loadMerchants(List.of("1", "2"))).thenReturn(Map.of("1", merchant("dynamo")));
+        when(mockedPostgres.loadMerchants(List.of("2"))).thenThrow(new IllegalStateException("connection refused"));
+        when(mockedS3.loadMerchants(List.of("2"))).thenReturn(Map.of());
+
+        // when & then
+        assertThrows(MerchantUnavailableException.class, () ->
+                strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchants(List.of("1", "2")));
+    }
+
+    @Test
+    void shouldLeaveOutOfTheBatchOnlyIdsPostgresMissed() {
+        // given
+        when(mockedDynamoDB.loadMerchants(List.of("1", "2"))).thenReturn(Map.of("1", merchant("dynamo")));
+        when(mockedPostgres.loadMerchants(List.of("2"))).thenReturn(Map.of());
+
+        // when
+        Map<String, Merchant> result = strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchants(List.of("1", "2"));
+
+        // then
+        assertThat(result).containsOnlyKeys("1");
+        verifyNoInteractions(mockedS3);
+    }
+
+    @Test
+    void shouldMoveOnWhenATierExceedsItsTimeout() {
+        // given
+        guards = guards(Duration.ofMillis(50));
+        Merchant fromPostgres = merchant("postgres");
+        when(mockedDynamoDB.loadMerchant("123")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return Optional.empty();
+        });
+        when(mockedPostgres.loadMerchant("123")).thenReturn(Optional.of(fromPostgres));
+
+        // when
+        long start = System.nanoTime();
+        Optional<Merchant> result = strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchant("123");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        assertThat(result).contains(fromPostgres);
+        assertThat(elapsedMillis).isLessThan(1_000);
+    }
+
+    @Test
+    void shouldLeaveATimedOutCallToFinishInsteadOfInterruptingIt() throws InterruptedException {
+        // given
+        guards = guards(Duration.ofMillis(50));
+        CountDownLatch finished = new CountDownLatch(1);
+        when(mockedDynamoDB.loadMerchant("123")).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            finished.countDown();
+            return Optional.empty();
+        });
+        when(mockedPostgres.loadMerchant("123")).thenReturn(Optional.of(merchant("postgres")));
+
+        // when
+        strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchant("123");
+
+        // then
+        assertThat(finished.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldLeaveABatchPastTheDeadlineToFinishInsteadOfInterruptingIt() throws InterruptedException {
+        // given
+        CountDownLatch finished = new CountDownLatch(1);
+        when(mockedDynamoDB.loadMerchants(List.of("123"))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            finished.countDown();
+            return Map.of();
+        });
+        MerchantLoadServiceStrategy strategy = new MerchantLoadServiceStrategy(mockedS3, mockedPostgres, mockedDynamoDB, mockedSnapshot,
+                mockedFilters, executor, MerchantLoadMode.SEQUENTIAL, Duration.ZERO, new MerchantTierMetrics(meterRegistry),
+                pinnedOrdering(), guards(Duration.ofSeconds(1)), Duration.ofSeconds(5), Duration.ofMillis(50));
+
+        // when
+        assertThrows(MerchantUnavailableException.class, () -> strategy.loadMerchants(List.of("123")));
+
+        // then
+        assertThat(finished.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldFailWithinTheDeadlineWhenEveryTierHangs() {
+        // given
+        when(mockedDynamoDB.loadMerchant("123")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return Optional.empty();
+        });
+        when(mockedPostgres.loadMerchant("123")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return Optional.empty();
+        });
+        MerchantLoadServiceStrategy strategy = new MerchantLoadServiceStrategy(mockedS3, mockedPostgres, mockedDynamoDB, mockedSnapshot,
+                mockedFilters, executor, MerchantLoadMode.SEQUENTIAL, Duration.ZERO, new MerchantTierMetrics(meterRegistry),
+                pinnedOrdering(), guards(Duration.ofSeconds(1)), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        // when
+        long start = System.nanoTime();
+        assertThrows(MerchantUnavailableException.class, () -> strategy.loadMerchant("123"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        assertThat(elapsedMillis).isLessThan(1_000);
+        verifyNoInteractions(mockedS3);
+    }
+
+    @Test
+    void shouldSkipATierWhileItsBreakerIsOpen() {
+        // given
+        guards = new MerchantTierGuards(meterRegistry, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1),
+                2, 0.5, Duration.ofMinutes(1), 1);
+        when(mockedDynamoDB.loadMerchant(any())).thenThrow(new IllegalStateException("boom"));
+        when(mockedPostgres.loadMerchant(any())).thenReturn(Optional.of(merchant("postgres")));
+        MerchantLoadServiceStrategy strategy = strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO);
+        strategy.loadMerchant("1");
+        strategy.loadMerchant("2");
+
+        // when
+        Optional<Merchant> result = strategy.loadMerchant("3");
+
+        // then
+        assertThat(result).isPresent();
+        verify(mockedDynamoDB, never()).loadMerchant("3");
+        assertThat(meterRegistry.get("merchant.tier.breaker.state").tags("tier", "dynamodb", "state", "open").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("merchant.tier.breaker.skipped").tag("tier", "dynamodb").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecordTierOutcomesAndServingTier() {
+        // given
+        when(mockedDynamoDB.loadMerchant("123")).thenReturn(Optional.empty());
+        when(mockedPostgres.loadMerchant("123")).thenReturn(Optional.of(merchant("postgres")));
+
+        // when
+        strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchant("123");
+
+        // then
+        assertThat(meterRegistry.get("merchant.tier.requests").tags("tier", "dynamodb", "operation", "id", "result", "miss").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("merchant.tier.requests").tags("tier", "postgres", "operation", "id", "result", "hit").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("merchant.tier.requests").tags("tier", "s3").timers()).allMatch(timer -> timer.count() == 0);
+        assertThat(meterRegistry.get("merchant.load.served").tag("tier", "postgres").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("merchant.tier.in-flight").tag("tier", "postgres").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldServeFromSnapshotWithoutAskingRemoteTiersOnceLoaded() {
+        // given
+        Merchant fromSnapshot = merchant("snapshot");
+        when(mockedSnapshot.isLoaded()).thenReturn(true);
+        when(mockedSnapshot.loadMerchantByEmail("snapshot@example.com")).thenReturn(Optional.of(fromSnapshot));
+
+        // when
+        Optional<Merchant> result = strategy(MerchantLoadMode.HEDGED, Duration.ofMillis(20)).loadMerchantByEmail("snapshot@example.com");
+
+        // then
+        assertThat(result).contains(fromSnapshot);
+        verifyNoInteractions(mockedDynamoDB, mockedPostgres, mockedS3);
+        assertThat(meterRegistry.get("merchant.load.served").tag("tier", "snapshot").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSkipSnapshotUntilItIsLoaded() {
+        // given
+        when(mockedDynamoDB.loadMerchant("123")).thenReturn(Optional.of(merchant("dynamo")));
+
+        // when
+        strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO).loadMerchant("123");
+
+        // then
+        verify(mockedSnapshot, never()).loadMerchant(any());
+        verify(mockedFilters, never()).recordMiss(MerchantTier.SNAPSHOT);
+    }
+
+    @Test
+    void shouldAskTiersInTheAdaptedOrder() {
+        // given
+        MerchantTierOrdering ordering = new MerchantTierOrdering(meterRegistry, List.of(MerchantTier.values()), true, 0.2, 1, 0.1, 0);
+        ordering.record(MerchantTier.DYNAMODB, 50_000_000, false);
+        ordering.record(MerchantTier.POSTGRES, 2_000_000, true);
+        ordering.reorder();
+        when(mockedPostgres.loadMerchant("123")).thenReturn(Optional.of(merchant("postgres")));
+
+        // when
+        Optional<Merchant> result = strategy(MerchantLoadMode.SEQUENTIAL, Duration.ZERO, ordering).loadMerchant("123");
+
+        // then
+        assertThat(result).map(Merchant::getName).contains("postgres");
+        verifyNoInteractions(mockedDynamoDB);
+    }
+
+    private MerchantLoadServiceStrategy strategy(MerchantLoadMode mode, Duration hedgeDelay) {
+        return strategy(mode, hedgeDelay, pinnedOrdering());
+    }
+
+    private MerchantLoadServiceStrategy strategy(MerchantLoadMode mode, Duration hedgeDelay, MerchantTierOrdering ordering) {
+        if (guards == null) {
+            guards = guards(Duration.ofSeconds(1));
+        }
+        return new MerchantLoadServiceStrategy(mockedS3, mockedPostgres, mockedDynamoDB, mockedSnapshot, mockedFilters, executor,
+                mode, hedgeDelay, new MerchantTierMetrics(meterRegistry), ordering, guards, Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
+    private MerchantTierOrdering pinnedOrdering() {
+        return new MerchantTierOrdering(meterRegistry, List.of(MerchantTier.values()), false, 0.05, 100, 0.1, 0);
+    }
+
+    private MerchantTierGuards guards(Duration tierTimeout) {
+        return new MerchantTierGuards(meterRegistry, tierTimeout, tierTimeout, tierTimeout, 20, 0.5, Duration.ofSeconds(5), 3);
+    }
+
+    private Merchant merchant(String name) {
+        Merchant merchant = new Merchant(name, name + "@example.com", BusinessTypeEnum.SMALL);
+        merchant.setId(123L);
+        return merchant;
+    }
+}
@@ -0,0 +1,55 @@
+package com.merchant.testing.service.merchant;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantMembershipFilterTest {
+
+    @Test
+    void shouldNeverReportAddedKeysAsAbsent() {
+        // given
+        MerchantMembershipFilter filter = new MerchantMembershipFilter(20_000, 0.01);
+
+        // when
+        IntStream.range(0, 10_000).forEach(i -> {
+            filter.putId(String.valueOf(i));
+            filter.putEmail("merchant" + i + "@example.com");
+        });
+
+        // then
+        assertThat(IntStream.range(0, 10_000))
+                .allMatch(i -> filter.mightContainId(String.valueOf(i)))
+                .allMatch(i -> filter.mightContainEmail("merchant" + i + "@example.com"));
+    }
+
+    @Test
+    void shouldKeepFalsePositiveRateNearConfiguredRate() {
+        // given
+        MerchantMembershipFilter filter = new MerchantMembershipFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.putId(String.valueOf(i)));
+
+        // when
+        long falsePositives = IntStream.range(10_000, 110_000)
+                .filter(i -> filter.mightContainId(String.valueOf(i)))
+                .count();
+
+        // then
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.02);
+    }
+
+    @Test
+    void shouldKeepIdsAndEmailsApart() {
+        // given
+        MerchantMembershipFilter filter = new MerchantMembershipFilter(100, 0.001);
+
+        // when
+        filter.putId("123");
+
+        // then
+        assertThat(filter.mightContainEmail("123")).isFalse();
+    }
+}
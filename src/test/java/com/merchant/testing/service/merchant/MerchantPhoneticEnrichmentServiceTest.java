@@ -0,0 +1,128 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.repository.MerchantBulkRepository;
+import com.merchant.testing.repository.MerchantNameView;
+import com.merchant.testing.repository.MerchantPhoneticsBacklog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MerchantPhoneticEnrichmentServiceTest {
+
+    private MerchantBulkRepository mockedBulkRepository;
+    private MerchantPhoneticService mockedPhoneticService;
+    private ApplicationEventPublisher mockedEventPublisher;
+    private PlatformTransactionManager mockedTransactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private MerchantPhoneticEnrichmentService enrichmentService;
+
+    @BeforeEach
+    void setUp() {
+        mockedBulkRepository = mock(MerchantBulkRepository.class);
+        mockedPhoneticService = mock(MerchantPhoneticService.class);
+        mockedEventPublisher = mock(ApplicationEventPublisher.class);
+        mockedTransactionManager = mock(PlatformTransactionManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        enrichmentService = new MerchantPhoneticEnrichmentService(mockedBulkRepository, mockedPhoneticService, executor,
+                mockedEventPublisher, mockedTransactionManager, meterRegistry, true, 2, 2, 3, Duration.ofMillis(1));
+        when(mockedBulkRepository.countMissingPhonetics()).thenReturn(new MerchantPhoneticsBacklog(0, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldWriteBackEachPageInOneBatch() {
+        // given
+        when(mockedBulkRepository.findMissingPhonetics(0, 2))
+                .thenReturn(List.of(new MerchantNameView(1L, "Pizza"), new MerchantNameView(2L, "Qwzx")));
+        when(mockedBulkRepository.findMissingPhonetics(2, 2))
+                .thenReturn(List.of(new MerchantNameView(3L, "Cafe")));
+        when(mockedPhoneticService.getPhonetics("Pizza")).thenReturn(Optional.of("/ˈpiːtsə/"));
+        when(mockedPhoneticService.getPhonetics("Qwzx")).thenReturn(Optional.empty());
+        when(mockedPhoneticService.getPhonetics("Cafe")).thenReturn(Optional.of("/kæˈfeɪ/"));
+
+        // when
+        enrichmentService.enrichPending();
+
+        // then
+        verify(mockedBulkRepository).updatePhonetics(Map.of(1L, "/ˈpiːtsə/", 2L, MerchantPhoneticEnrichmentService.NO_PHONETICS));
+        verify(mockedBulkRepository).updatePhonetics(Map.of(3L, "/kæˈfeɪ/"));
+        assertThat(meterRegistry.get("merchant.phonetics.enrichment.merchants").tag("result", "enriched").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldRetryFailedLookupsAndLeaveExhaustedOnesQueued() {
+        // given
+        when(mockedBulkRepository.findMissingPhonetics(0, 2))
+                .thenReturn(List.of(new MerchantNameView(1L, "Flaky"), new MerchantNameView(2L, "Down")));
+        when(mockedPhoneticService.getPhonetics("Flaky"))
+                .thenThrow(new RuntimeException("timeout"))
+                .thenReturn(Optional.of("/ˈfleɪki/"));
+        when(mockedPhoneticService.getPhonetics("Down")).thenThrow(new RuntimeException("503"));
+
+        // when
+        enrichmentService.enrichPending();
+
+        // then
+        verify(mockedPhoneticService, times(2)).getPhonetics("Flaky");
+        verify(mockedPhoneticService, times(3)).getPhonetics("Down");
+        verify(mockedBulkRepository).updatePhonetics(Map.of(1L, "/ˈfleɪki/"));
+        assertThat(meterRegistry.get("merchant.phonetics.enrichment.merchants").tag("result", "failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldExposeQueueDepthAndLag() {
+        // given
+        when(mockedBulkRepository.findMissingPhonetics(0, 2)).thenReturn(List.of());
+        when(mockedBulkRepository.countMissingPhonetics())
+                .thenReturn(new MerchantPhoneticsBacklog(42, LocalDateTime.now().minusMinutes(5)));
+
+        // when
+        enrichmentService.enrichPending();
+
+        // then
+        verify(mockedBulkRepository, never()).updatePhonetics(any());
+        assertThat(meterRegistry.get("merchant.phonetics.enrichment.queue").gauge().value()).isEqualTo(42);
+        assertThat(meterRegistry.get("merchant.phonetics.enrichment.lag").gauge().value()).isBetween(299.0, 310.0);
+    }
+
+    @Test
+    void shouldPublishEventsOfAPageInsideTheTransactionThatWritesIt() {
+        // given
+        when(mockedBulkRepository.findMissingPhonetics(0, 2)).thenReturn(List.of(new MerchantNameView(1L, "Pizza")));
+        when(mockedPhoneticService.getPhonetics("Pizza")).thenReturn(Optional.of("/ˈpiːtsə/"));
+
+        // when
+        enrichmentService.enrichPending();
+
+        // then
+        InOrder inOrder = inOrder(mockedTransactionManager, mockedBulkRepository, mockedEventPublisher);
+        inOrder.verify(mockedTransactionManager).getTransaction(any());
+        inOrder.verify(mockedBulkRepository).updatePhonetics(Map.of(1L, "/ˈpiːtsə/"));
+        inOrder.verify(mockedEventPublisher).publishEvent(any(MerchantChangedEvent.class));
+        inOrder.verify(mockedTransactionManager).commit(any());
+    }
+}
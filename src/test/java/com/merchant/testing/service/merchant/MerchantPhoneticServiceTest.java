@@ -0,0 +1,115 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.repository.MerchantPhoneticEntry;
+import com.merchant.testing.repository.MerchantPhoneticRepository;
+import com.merchant.testing.service.external.DictionaryApiService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MerchantPhoneticServiceTest {
+
+    private DictionaryApiService mockedDictionaryService;
+    private MerchantPhoneticRepository mockedPhoneticRepository;
+    private ExecutorService loadExecutor;
+    private MerchantPhoneticService merchantPhoneticService;
+
+    @BeforeEach
+    void setUp() {
+        loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        mockedDictionaryService = mock(DictionaryApiService.class);
+        mockedPhoneticRepository = mock(MerchantPhoneticRepository.class);
+        merchantPhoneticService = new MerchantPhoneticService(mockedDictionaryService, mockedPhoneticRepository,
+                new SimpleMeterRegistry(), loadExecutor, true, 100, Duration.ofDays(7), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        loadExecutor.close();
+    }
+
+    @Test
+    void shouldCacheAnswersAndNoEntryAnswers() {
+        // given
+        when(mockedDictionaryService.getDictionary("pizza")).thenReturn(List.of(Map.of("phonetic", "/ˈpiːtsə/")));
+        when(mockedDictionaryService.getDictionary("qwzx")).thenReturn(List.of());
+
+        // when
+        merchantPhoneticService.getPhonetics("Pizza");
+        Optional<String> pizza = merchantPhoneticService.getPhonetics("pizza ");
+        merchantPhoneticService.getPhonetics("qwzx");
+        Optional<String> unknown = merchantPhoneticService.getPhonetics("qwzx");
+
+        // then
+        assertThat(pizza).contains("/ˈpiːtsə/");
+        assertThat(unknown).isEmpty();
+        verify(mockedDictionaryService, times(1)).getDictionary("pizza");
+        verify(mockedDictionaryService, times(1)).getDictionary("qwzx");
+        verify(mockedPhoneticRepository).save(argThat(entry -> entry.word().equals("qwzx") && entry.phonetic() == null));
+    }
+
+    @Test
+    void shouldShareOneDictionaryCallBetweenConcurrentLookups() throws Exception {
+        // given
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockedDictionaryService.getDictionary("cafe")).thenAnswer(invocation -> {
+            callStarted.countDown();
+            release.await();
+            return List.of(Map.of("phonetic", "/kæˈfeɪ/"));
+        });
+
+        // when
+        List<Future<Optional<String>>> lookups;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<String>> first = executor.submit(() -> merchantPhoneticService.getPhonetics("Cafe"));
+            callStarted.await();
+            Future<Optional<String>> second = executor.submit(() -> merchantPhoneticService.getPhonetics("Cafe"));
+            Thread.sleep(50);
+            release.countDown();
+            lookups = List.of(first, second);
+        }
+
+        // then
+        for (Future<Optional<String>> lookup : lookups) {
+            assertThat(lookup.get()).contains("/kæˈfeɪ/");
+        }
+        verify(mockedDictionaryService, times(1)).getDictionary("cafe");
+    }
+
+    @Test
+    void shouldServeStoredEntryWithoutCallingDictionary() {
+        // given
+        when(mockedPhoneticRepository.findByWord("bar"))
+                .thenReturn(Optional.of(new MerchantPhoneticEntry("bar", "/bɑː/", Instant.now().minus(Duration.ofDays(1)))));
+        when(mockedPhoneticRepository.findByWord("old"))
+                .thenReturn(Optional.of(new MerchantPhoneticEntry("old", null, Instant.now().minus(Duration.ofHours(2)))));
+        when(mockedDictionaryService.getDictionary("old")).thenReturn(List.of(Map.of("phonetic", "/əʊld/")));
+
+        // when
+        Optional<String> bar = merchantPhoneticService.getPhonetics("Bar");
+        Optional<String> old = merchantPhoneticService.getPhonetics("Old");
+
+        // then
+        assertThat(bar).contains("/bɑː/");
+        assertThat(old).contains("/əʊld/");
+        verify(mockedDictionaryService, never()).getDictionary("bar");
+        verify(mockedPhoneticRepository, never()).save(argThat(entry -> entry.word().equals("bar")));
+        verify(mockedPhoneticRepository).save(any(MerchantPhoneticEntry.class));
+    }
+}
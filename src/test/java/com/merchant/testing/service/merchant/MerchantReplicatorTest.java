@@ -0,0 +1,148 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.repository.MerchantOutboxBacklog;
+import com.merchant.testing.repository.MerchantOutboxEntry;
+import com.merchant.testing.repository.MerchantOutboxRepository;
+import com.merchant.testing.repository.MerchantRepository;
+import com.merchant.testing.service.aws.DynamoDbService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MerchantReplicatorTest {
+
+    private MerchantOutboxRepository mockedOutboxRepository;
+    private MerchantRepository mockedRepository;
+    private DynamoDbService mockedDynamoDb;
+    private MerchantSegmentStore mockedSegmentStore;
+    private SimpleMeterRegistry meterRegistry;
+    private MerchantReplicator merchantReplicator;
+
+    @BeforeEach
+    void setUp() {
+        mockedOutboxRepository = mock(MerchantOutboxRepository.class);
+        mockedRepository = mock(MerchantRepository.class);
+        mockedDynamoDb = mock(DynamoDbService.class);
+        mockedSegmentStore = mock(MerchantSegmentStore.class);
+        meterRegistry = new SimpleMeterRegistry();
+        merchantReplicator = new MerchantReplicator(mockedOutboxRepository, mockedRepository, mockedDynamoDb,
+                mockedSegmentStore, mock(MerchantTierFilters.class), mock(PlatformTransactionManager.class),
+                meterRegistry, true, 10);
+        when(mockedOutboxRepository.tryLock()).thenReturn(true);
+        when(mockedOutboxRepository.countPending()).thenReturn(new MerchantOutboxBacklog(0, null));
+    }
+
+    @Test
+    void shouldReplicateLatestStateAndRemoveDeletedMerchants() {
+        // given
+        Merchant merchant = merchant(1L, "john@example.com");
+        when(mockedOutboxRepository.findBatch(10)).thenReturn(List.of(
+                outboxEntry(10L, 1L, "john@example.com"),
+                outboxEntry(11L, 2L, "jane@example.com"),
+                outboxEntry(12L, 1L, null)));
+        when(mockedRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(merchant));
+        when(mockedOutboxRepository.nextSegmentId()).thenReturn(7L);
+
+        // when
+        merchantReplicator.replicatePending();
+
+        // then
+        verify(mockedDynamoDb).batchWriteItems(
+                argThat((Collection<Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue>> items) ->
+                        items.size() == 1 && items.iterator().next().get("id").s().equals("1")),
+                eq(List.of("2")));
+        verify(mockedSegmentStore).write(eq(7L), argThat((Collection<Merchant> merchants) ->
+                merchants.size() == 1 && merchants.iterator().next().getEmail().equals("john@example.com")), eq(List.of(2L)));
+        verify(mockedOutboxRepository).deleteByIds(List.of(10L, 11L, 12L));
+    }
+
+    @Test
+    void shouldNameSegmentsInWriteOrderWhenOutboxIdsCommitOutOfOrder() {
+        // given
+        when(mockedOutboxRepository.findBatch(10))
+                .thenReturn(List.of(outboxEntry(20L, 1L, "john@example.com")))
+                .thenReturn(List.of(outboxEntry(15L, 1L, "john@example.com")));
+        when(mockedOutboxRepository.nextSegmentId()).thenReturn(100L, 101L);
+        when(mockedRepository.findAllById(Set.of(1L))).thenReturn(List.of(merchant(1L, "john@example.com")));
+
+        // when
+        merchantReplicator.replicatePending();
+        merchantReplicator.replicatePending();
+
+        // then
+        var order = inOrder(mockedSegmentStore);
+        order.verify(mockedSegmentStore).write(eq(100L), any(), any());
+        order.verify(mockedSegmentStore).write(eq(101L), any(), any());
+        verify(mockedSegmentStore, never()).write(eq(15L), any(), any());
+        verify(mockedSegmentStore, never()).write(eq(20L), any(), any());
+    }
+
+    @Test
+    void shouldKeepOutboxRowsWhenReplicaWriteFails() {
+        // given
+        when(mockedOutboxRepository.findBatch(10)).thenReturn(List.of(outboxEntry(10L, 1L, "john@example.com")));
+        when(mockedRepository.findAllById(Set.of(1L))).thenReturn(List.of(merchant(1L, "john@example.com")));
+        doThrow(new IllegalStateException("throttled")).when(mockedDynamoDb).batchWriteItems(any(), any());
+        when(mockedOutboxRepository.countPending())
+                .thenReturn(new MerchantOutboxBacklog(1, LocalDateTime.now().minusSeconds(30)));
+
+        // when
+        merchantReplicator.replicatePending();
+
+        // then
+        verify(mockedOutboxRepository, never()).deleteByIds(any());
+        assertThat(meterRegistry.get("merchant.replication.queue").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("merchant.replication.lag").gauge().value()).isGreaterThanOrEqualTo(30);
+    }
+
+    @Test
+    void shouldSkipRunWhenAnotherNodeHoldsTheLock() {
+        // given
+        when(mockedOutboxRepository.tryLock()).thenReturn(false);
+
+        // when
+        merchantReplicator.replicatePending();
+
+        // then
+        verify(mockedOutboxRepository, never()).findBatch(anyInt());
+        verifyNoInteractions(mockedDynamoDb, mockedSegmentStore);
+    }
+
+    @Test
+    void shouldWriteItemsThatReadBackWithTheirVersion() {
+        // given
+        Merchant merchant = merchant(1L, "john@example.com");
+        merchant.setUpdatedAt(LocalDateTime.of(2024, 3, 1, 8, 0, 0, 123_456_000));
+
+        // when
+        Merchant readBack = MerchantLoadServiceDynamoDB.toMerchant(MerchantReplicator.toItem(merchant));
+
+        // then
+        assertThat(readBack.getUpdatedAt()).isEqualTo(merchant.getUpdatedAt());
+        assertThat(readBack.getEmail()).isEqualTo("john@example.com");
+        assertThat(readBack.getBusinessType()).isEqualTo(BusinessTypeEnum.SMALL);
+    }
+
+    private static MerchantOutboxEntry outboxEntry(Long id, Long merchantId, String email) {
+        return new MerchantOutboxEntry(id, merchantId, email, LocalDateTime.now());
+    }
+
+    private static Merchant merchant(Long id, String email) {
+        Merchant merchant = new Merchant("John Doe", email, BusinessTypeEnum.SMALL);
+        merchant.setId(id);
+        return merchant;
+    }
+}
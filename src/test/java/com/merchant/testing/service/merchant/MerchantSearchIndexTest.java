@@ -0,0 +1,98 @@
+package com.merchant.testing.service.merchant;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantSearchIndexTest {
+
+    @Test
+    void shouldRankNamesThatSoundLikeTheQueryFirst() {
+        // given
+        MerchantSearchIndex index = loaded("John Smith", "Jane Smithers", "Caffè Società", "Johnson Tools");
+
+        // when
+        List<MerchantSearchIndex.Hit> smith = index.search("Jon Smyth", 3, Integer.MAX_VALUE);
+        List<MerchantSearchIndex.Hit> caffe = index.search("cafe societa", 3, Integer.MAX_VALUE);
+
+        // then
+        assertThat(smith).first().extracting(MerchantSearchIndex.Hit::name).isEqualTo("John Smith");
+        assertThat(smith).extracting(MerchantSearchIndex.Hit::score).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+        assertThat(caffe).first().extracting(MerchantSearchIndex.Hit::name).isEqualTo("Caffè Società");
+    }
+
+    @Test
+    void shouldFollowRenamesAndDeletes() {
+        // given
+        MerchantSearchIndex index = loaded("John Smith", "Acme Corporation");
+
+        // when
+        index.put(1L, "Blue Bottle Coffee");
+        index.remove(2L);
+
+        // then
+        assertThat(index.search("John Smith", 10, Integer.MAX_VALUE)).isEmpty();
+        assertThat(index.search("Acme", 10, Integer.MAX_VALUE)).isEmpty();
+        assertThat(index.search("blu botle", 10, Integer.MAX_VALUE)).extracting(MerchantSearchIndex.Hit::id).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepWritesSeenDuringTheScanOverTheRowsItReads() {
+        // given
+        MerchantSearchIndex index = new MerchantSearchIndex();
+        index.put(1L, "Blue Bottle Coffee");
+        index.remove(2L);
+
+        // when
+        index.load(1L, "John Smith");
+        index.load(2L, "Acme Corporation");
+        index.load(3L, "Corner Bakery");
+        index.finishLoad();
+
+        // then
+        assertThat(index.search("John Smith", 10, Integer.MAX_VALUE)).isEmpty();
+        assertThat(index.search("Acme", 10, Integer.MAX_VALUE)).isEmpty();
+        assertThat(index.search("Blue Bottle", 10, Integer.MAX_VALUE)).extracting(MerchantSearchIndex.Hit::id).containsExactly(1L);
+        assertThat(index.search("Bakery", 10, Integer.MAX_VALUE)).extracting(MerchantSearchIndex.Hit::id).containsExactly(3L);
+    }
+
+    @Test
+    void shouldMatchOnTheRarestTermWithinTheScanLimitWhenEveryTermIsCommon() {
+        // given
+        MerchantSearchIndex index = loaded("Merchant One", "Merchant Two", "Merchant Three");
+
+        // when
+        List<MerchantSearchIndex.Hit> hits = index.search("merchant", 10, 2);
+
+        // then
+        assertThat(hits).extracting(MerchantSearchIndex.Hit::id).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void shouldWeighTermsByTheNamesThatStillHaveThem() {
+        // given
+        MerchantSearchIndex index = loaded("Alpha", "Bravo", "Alpha", "Alpha", "Alpha");
+        index.put(3L, "Xray");
+        index.put(4L, "Xray");
+        index.put(5L, "Xray");
+
+        // when
+        List<MerchantSearchIndex.Hit> hits = index.search("alpha bravo", 2, Integer.MAX_VALUE);
+
+        // then
+        assertThat(hits).extracting(MerchantSearchIndex.Hit::id).containsExactly(1L, 2L);
+        assertThat(hits.get(0).score()).isEqualTo(hits.get(1).score());
+    }
+
+    private static MerchantSearchIndex loaded(String... names) {
+        MerchantSearchIndex index = new MerchantSearchIndex();
+        for (int i = 0; i < names.length; i++) {
+            index.load(i + 1L, names[i]);
+        }
+        index.finishLoad();
+        return index;
+    }
+}
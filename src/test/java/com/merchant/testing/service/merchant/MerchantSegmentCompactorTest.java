@@ -0,0 +1,126 @@
+package com.merchant.testing.service.merchant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.repository.MerchantOutboxRepository;
+import com.merchant.testing.service.aws.S3AsyncStorageService;
+import com.merchant.testing.service.aws.S3StorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.merchant.testing.service.merchant.MerchantSegmentStoreTest.inMemoryS3;
+import static com.merchant.testing.service.merchant.MerchantSegmentStoreTest.merchant;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class MerchantSegmentCompactorTest {
+
+    private Map<String, byte[]> objects;
+    private MerchantOutboxRepository mockedOutboxRepository;
+    private ExecutorService executor;
+    private MerchantSegmentStore merchantSegmentStore;
+    private MerchantSegmentCompactor merchantSegmentCompactor;
+
+    @BeforeEach
+    void setUp() {
+        objects = new ConcurrentSkipListMap<>();
+        S3StorageService s3 = inMemoryS3(objects);
+        mockedOutboxRepository = mock(MerchantOutboxRepository.class);
+        when(mockedOutboxRepository.tryLock()).thenReturn(true);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        merchantSegmentStore = new MerchantSegmentStore(s3, mock(S3AsyncStorageService.class),
+                new ObjectMapper().registerModule(new JavaTimeModule()), executor, 65536, 16);
+        merchantSegmentCompactor = new MerchantSegmentCompactor(merchantSegmentStore, s3, mockedOutboxRepository,
+                mock(PlatformTransactionManager.class), true, 1, 0.5, DataSize.ofGigabytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldMergeSegmentsKeepingOnlyLiveRecords() {
+        // given
+        merchantSegmentStore.write(10L, List.of(merchant(1L, "old@example.com"), merchant(2L, "jane@example.com")), List.of());
+        merchantSegmentStore.write(20L, List.of(merchant(1L, "new@example.com")), List.of(2L));
+
+        // when
+        merchantSegmentCompactor.compact();
+
+        // then
+        MerchantSegmentName compacted = new MerchantSegmentName(20L, 1);
+        assertThat(merchantSegmentStore.index().segments()).containsExactly(compacted);
+        assertThat(merchantSegmentStore.entries(compacted)).extracting(MerchantSegmentEntry::merchantId).containsExactly(1L);
+        assertThat(merchantSegmentStore.findById("1")).map(Merchant::getEmail).contains("new@example.com");
+        assertThat(merchantSegmentStore.findById("2")).isEmpty();
+        // the inputs' data objects outlive their indexes until the next run
+        assertThat(objects).containsKeys(new MerchantSegmentName(10L, 0).dataKey(), new MerchantSegmentName(20L, 0).dataKey());
+        assertThat(objects).doesNotContainKeys(new MerchantSegmentName(10L, 0).indexKey(), new MerchantSegmentName(20L, 0).indexKey());
+    }
+
+    @Test
+    void shouldDeleteCompactedDataObjectsOnTheNextRun() {
+        // given
+        merchantSegmentStore.write(10L, List.of(merchant(1L, "john@example.com")), List.of());
+        merchantSegmentStore.write(20L, List.of(merchant(2L, "jane@example.com")), List.of());
+        merchantSegmentCompactor.compact();
+
+        // when
+        merchantSegmentCompactor.compact();
+
+        // then
+        MerchantSegmentName compacted = new MerchantSegmentName(20L, 1);
+        assertThat(objects).containsOnlyKeys(compacted.dataKey(), compacted.indexKey());
+        assertThat(merchantSegmentStore.findAllById(List.of("1", "2"))).containsOnlyKeys("1", "2");
+    }
+
+    @Test
+    void shouldRollLiveRecordsOverIntoFurtherSegmentsPastTheMaximumSize() {
+        // given
+        for (long id = 1; id <= 6; id++) {
+            merchantSegmentStore.write(id * 10, List.of(merchant(id, "merchant" + id + "@example.com")), List.of());
+        }
+        merchantSegmentStore.refresh();
+        int maxRecordLength = merchantSegmentStore.index().segments().stream()
+                .mapToInt(segment -> merchantSegmentStore.entries(segment).getFirst().length())
+                .max()
+                .orElseThrow();
+        MerchantSegmentCompactor compactor = new MerchantSegmentCompactor(merchantSegmentStore, inMemoryS3(objects), mockedOutboxRepository,
+                mock(PlatformTransactionManager.class), true, 1, 0.5, DataSize.ofBytes(2L * maxRecordLength));
+
+        // when
+        compactor.compact();
+
+        // then
+        assertThat(merchantSegmentStore.index().segments()).containsExactly(
+                new MerchantSegmentName(60L, 1), new MerchantSegmentName(60L, 2), new MerchantSegmentName(60L, 3));
+        assertThat(merchantSegmentStore.findAllById(LongStream.rangeClosed(1, 6).mapToObj(Long::toString).toList())).hasSize(6);
+    }
+
+    @Test
+    void shouldSkipRunWhenAnotherNodeHoldsTheLock() {
+        // given
+        when(mockedOutboxRepository.tryLock()).thenReturn(false);
+        merchantSegmentStore.write(10L, List.of(merchant(1L, "john@example.com")), List.of());
+        merchantSegmentStore.write(20L, List.of(merchant(2L, "jane@example.com")), List.of());
+
+        // when
+        merchantSegmentCompactor.compact();
+
+        // then
+        assertThat(objects).hasSize(4);
+        assertThat(merchantSegmentStore.index().size()).isZero();
+    }
+}
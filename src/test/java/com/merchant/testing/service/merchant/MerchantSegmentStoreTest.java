@@ -0,0 +1,152 @@
+package com.merchant.testing.service.merchant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.service.aws.S3AsyncStorageService;
+import com.merchant.testing.service.aws.S3StorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MerchantSegmentStoreTest {
+
+    private Map<String, byte[]> objects;
+    private S3StorageService mockedS3;
+    private ExecutorService executor;
+    private MerchantSegmentStore merchantSegmentStore;
+
+    @BeforeEach
+    void setUp() {
+        objects = new ConcurrentSkipListMap<>();
+        mockedS3 = inMemoryS3(objects);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        merchantSegmentStore = new MerchantSegmentStore(mockedS3, mock(S3AsyncStorageService.class),
+                new ObjectMapper().registerModule(new JavaTimeModule()), executor, 65536, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldFindMerchantsOfASegmentOnceItsIndexIsLoaded() {
+        // given
+        merchantSegmentStore.write(10L, List.of(merchant(1L, "john@example.com")), List.of());
+        assertThat(merchantSegmentStore.findById("1")).isEmpty();
+
+        // when
+        merchantSegmentStore.refresh();
+
+        // then
+        assertThat(merchantSegmentStore.findById("1")).map(Merchant::getEmail).contains("john@example.com");
+        assertThat(merchantSegmentStore.findByEmail("john@example.com")).map(Merchant::getId).contains(1L);
+        assertThat(merchantSegmentStore.findByEmail("jane@example.com")).isEmpty();
+        verify(mockedS3, times(2)).readRange(eq(new MerchantSegmentName(10L, 0).dataKey()), anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void shouldLetNewerSegmentsSupersedeAndDeleteRecordsOfOlderOnes() {
+        // given
+        merchantSegmentStore.write(10L, List.of(merchant(1L, "old@example.com"), merchant(2L, "jane@example.com")), List.of());
+        merchantSegmentStore.write(20L, List.of(merchant(1L, "new@example.com")), List.of(2L));
+
+        // when
+        merchantSegmentStore.refresh();
+
+        // then
+        assertThat(merchantSegmentStore.findById("1")).map(Merchant::getEmail).contains("new@example.com");
+        assertThat(merchantSegmentStore.findById("2")).isEmpty();
+        assertThat(merchantSegmentStore.findByEmail("old@example.com")).isEmpty();
+        assertThat(merchantSegmentStore.index().size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadNearbyRecordsOfASegmentWithOneRangedGet() {
+        // given
+        merchantSegmentStore.write(10L, List.of(merchant(1L, "john@example.com"), merchant(2L, "jane@example.com"),
+                merchant(3L, "jack@example.com")), List.of());
+        merchantSegmentStore.refresh();
+
+        // when
+        Map<String, Merchant> merchants = merchantSegmentStore.findAllById(List.of("1", "3", "99"));
+
+        // then
+        assertThat(merchants).containsOnlyKeys("1", "3");
+        assertThat(merchants.get("3").getEmail()).isEqualTo("jack@example.com");
+        verify(mockedS3, times(1)).readRange(anyString(), anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void shouldTreatCompactedAwayDataAsMiss() {
+        // given
+        MerchantSegmentName segment = new MerchantSegmentName(10L, 0);
+        merchantSegmentStore.write(10L, List.of(merchant(1L, "john@example.com")), List.of());
+        merchantSegmentStore.refresh();
+        objects.remove(segment.dataKey());
+
+        // when
+        Optional<Merchant> merchant = merchantSegmentStore.findById("1");
+
+        // then
+        assertThat(merchant).isEmpty();
+    }
+
+    static S3StorageService inMemoryS3(Map<String, byte[]> objects) {
+        S3StorageService s3 = mock(S3StorageService.class);
+        doAnswer(invocation -> objects.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(s3).uploadBytes(anyString(), any(byte[].class));
+        when(s3.listKeys(anyString())).thenAnswer(invocation -> objects.keySet().stream()
+                .filter(key -> key.startsWith(invocation.getArgument(0)))
+                .toList());
+        when(s3.downloadBytes(anyString())).thenAnswer(invocation -> object(objects, invocation.getArgument(0)));
+        when(s3.read(anyString(), any())).thenAnswer(invocation -> invocation.<S3StorageService.StreamReader<?>>getArgument(1)
+                .read(new ByteArrayInputStream(object(objects, invocation.getArgument(0)))));
+        when(s3.readRange(anyString(), anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            byte[] object = object(objects, invocation.getArgument(0));
+            int offset = Math.toIntExact(invocation.<Long>getArgument(1));
+            return invocation.<S3StorageService.StreamReader<?>>getArgument(3)
+                    .read(new ByteArrayInputStream(object, offset, invocation.<Integer>getArgument(2)));
+        });
+        doAnswer(invocation -> {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            invocation.<S3StorageService.StreamWriter>getArgument(1).write(content);
+            return objects.put(invocation.getArgument(0), content.toByteArray());
+        }).when(s3).write(anyString(), any());
+        doAnswer(invocation -> {
+            invocation.<List<String>>getArgument(0).forEach(objects::remove);
+            return null;
+        }).when(s3).deleteFiles(anyList());
+        return s3;
+    }
+
+    static Merchant merchant(Long id, String email) {
+        Merchant merchant = new Merchant("John Doe", email, BusinessTypeEnum.SMALL);
+        merchant.setId(id);
+        return merchant;
+    }
+
+    private static byte[] object(Map<String, byte[]> objects, String key) {
+        byte[] object = objects.get(key);
+        if (object == null) {
+            throw NoSuchKeyException.builder().build();
+        }
+        return object;
+    }
+}
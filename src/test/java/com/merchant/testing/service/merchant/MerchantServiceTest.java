@@ -1,21 +1,39 @@
 package com.merchant.testing.service.merchant;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.merchant.testing.controller.MerchantController;
+import com.merchant.testing.controller.bean.MerchantResponseBean;
 import com.merchant.testing.domain.enums.BusinessTypeEnum;
 import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import com.merchant.testing.repository.MerchantReadRepository;
 import com.merchant.testing.repository.MerchantRepository;
+import com.merchant.testing.repository.MerchantView;
 import com.merchant.testing.service.aws.DynamoDbService;
+import com.merchant.testing.service.aws.S3AsyncStorageService;
 import com.merchant.testing.service.aws.S3StorageService;
-import com.merchant.testing.service.external.DictionaryApiService;
+import com.merchant.testing.service.bulkhead.Bulkhead;
 import com.merchant.testing.service.merchant.bean.MerchantCreateBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,8 +44,9 @@ class MerchantServiceTest {
     private MerchantService merchantService;
     private S3Client mockedS3Client;
     private MerchantRepository mockedRepository;
+    private MerchantReadRepository mockedReadRepository;
+    private ApplicationEventPublisher mockedEventPublisher;
     private DynamoDbClient mockedDb;
-    private DictionaryApiService mockedDictionaryService;
 
     @BeforeEach
     void setUp() {
@@ -35,15 +54,36 @@ class MerchantServiceTest {
         mockedS3Client = mock(S3Client.class);
         mockedDb = mock(DynamoDbClient.class);
         mockedRepository = mock(MerchantRepository.class);
-        mockedDictionaryService = mock(DictionaryApiService.class);
+        mockedReadRepository = mock(MerchantReadRepository.class);
+        mockedEventPublisher = mock(ApplicationEventPublisher.class);
         ObjectMapper objectMapper = new ObjectMapper();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        DynamoDbService dynamoDbService = new DynamoDbService(mockedDb, new Bulkhead("dynamodb", 10, Duration.ZERO, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(dynamoDbService, "tableName", "merchant-table");
+        ReflectionTestUtils.setField(dynamoDbService, "emailIndexName", "MerchantEmailIndex");
         merchantService = new MerchantService(
-                new MerchantLoadServiceStrategy(
-                        new MerchantLoadServiceS3(new S3StorageService(mockedS3Client), objectMapper),
-                        new MerchantLoadServicePostgres(mockedRepository),
-                        new MerchantLoadServiceDynamoDB(new DynamoDbService(mockedDb))),
+                new MerchantLoadServiceCache(
+                        new MerchantLoadServiceStrategy(
+                                new MerchantLoadServiceS3(new MerchantSegmentStore(new S3StorageService(mockedS3Client, new Bulkhead("s3", 10, Duration.ZERO, new SimpleMeterRegistry())),
+                                        mock(S3AsyncStorageService.class), objectMapper, executor, 65536, 16)),
+                                new MerchantLoadServicePostgres(mockedReadRepository),
+                                new MerchantLoadServiceDynamoDB(dynamoDbService),
+                                mock(MerchantLoadServiceSnapshot.class),
+                                new MerchantTierFilters(mockedRepository, dynamoDbService, new SimpleMeterRegistry(), false, 100, 0.01),
+                                executor, MerchantLoadMode.SEQUENTIAL, Duration.ZERO,
+                                new MerchantTierMetrics(new SimpleMeterRegistry()),
+                                new MerchantTierOrdering(new SimpleMeterRegistry(), List.of(MerchantTier.values()), false, 0.05, 100, 0.1, 0),
+                                new MerchantTierGuards(new SimpleMeterRegistry(), Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofSeconds(5),
+                                        20, 0.5, Duration.ofSeconds(5), 3),
+                                Duration.ofSeconds(10), Duration.ofSeconds(10)),
+                        mock(MerchantLoadServiceAsync.class),
+                        new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), Duration.ofSeconds(10)),
                 mockedRepository,
-                new MerchantPhoneticService(mockedDictionaryService)
+                mockedReadRepository,
+                mockedEventPublisher,
+                3,
+                1000,
+                false
         );
     }
 
@@ -54,7 +94,6 @@ class MerchantServiceTest {
         String mail = "email@example.com";
         String name = "name";
         when(mockedRepository.existsByEmail(mail)).thenReturn(true);
-        noSpellingForName(name);
         MerchantCreateBean merchantCreateBean = new MerchantCreateBean(
                 name,
                 mail,
@@ -72,7 +111,6 @@ class MerchantServiceTest {
         // given
         String mail = "email@example.com";
         when(mockedRepository.existsByEmail(mail)).thenReturn(false);
-        noSpellingForName("name");
         MerchantCreateBean merchantCreateBean = new MerchantCreateBean(
                 "name",
                 mail,
@@ -92,31 +130,61 @@ class MerchantServiceTest {
                 .isNotNull()
                 .matches(m -> m.getId() != null)
                 .matches(m -> m.getName().equals(merchantCreateBean.name()))
-                .matches(m -> m.getEmail().equals(merchantCreateBean.email()));
+                .matches(m -> m.getEmail().equals(merchantCreateBean.email()))
+                .matches(m -> m.getBusinessType() == BusinessTypeEnum.MEDIUM);
         verify(mockedRepository).save(any(Merchant.class));
+        verify(mockedEventPublisher).publishEvent(MerchantCountChangedEvent.created(BusinessTypeEnum.MEDIUM));
 
 
     }
 
-    private void noSpellingForName(String name) {
-        when(mockedDictionaryService.getDictionary(name)).thenReturn(java.util.List.of());
-    }
-
     @Test
-    void shouldGetAllMerchants() {
+    void shouldGetMerchantsPage() {
         // given
-        Merchant merchant1 = new Merchant("John Doe", "john@example.com", BusinessTypeEnum.SMALL);
-        Merchant merchant2 = new Merchant("Jane Smith", "jane@example.com", BusinessTypeEnum.LARGE);
-        when(mockedRepository.findAll()).thenReturn(java.util.List.of(merchant1, merchant2));
+        MerchantView merchant1 = new MerchantView(11L, "John Doe", "john@example.com", BusinessTypeEnum.SMALL);
+        MerchantView merchant2 = new MerchantView(12L, "Jane Smith", "jane@example.com", BusinessTypeEnum.LARGE);
+        when(mockedReadRepository.findPage(10L, 2)).thenReturn(List.of(merchant1, merchant2));
 
         // when
-        List<Merchant> merchants = merchantService.getAllMerchants();
+        List<MerchantView> merchants = merchantService.getMerchantsPage(10L, null, 2);
 
         // then
         assertThat(merchants)
                 .hasSize(2)
                 .containsExactly(merchant1, merchant2);
-        verify(mockedRepository).findAll();
+        verify(mockedReadRepository).findPage(10L, 2);
+        verifyNoInteractions(mockedRepository);
+    }
+
+    @Test
+    void shouldStartFirstPageFromTheBeginning() {
+        // when
+        merchantService.getMerchantsPage(null, null, 50);
+
+        // then
+        verify(mockedReadRepository).findPage(0L, 50);
+    }
+
+    @Test
+    void shouldFilterMerchantsPageByBusinessType() {
+        // given
+        MerchantView merchant = new MerchantView(12L, "Jane Doe", "jane@example.com", BusinessTypeEnum.LARGE);
+        when(mockedReadRepository.findPageByBusinessType(BusinessTypeEnum.LARGE, 10L, 2)).thenReturn(List.of(merchant));
+
+        // when
+        List<MerchantView> merchants = merchantService.getMerchantsPage(10L, BusinessTypeEnum.LARGE, 2);
+
+        // then
+        assertThat(merchants).containsExactly(merchant);
+        verify(mockedReadRepository, never()).findPage(anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldRejectPageLimitAboveMaximum() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () ->
+                merchantService.getMerchantsPage(null, null, 1001)
+        );
     }
 
     @Test
@@ -153,7 +221,7 @@ class MerchantServiceTest {
         when(mockedDb.getItem(any(software.amazon.awssdk.services.dynamodb.model.GetItemRequest.class)))
                 .thenReturn(mockResponse);
 
-        when(mockedRepository.findById(merchantId)).thenReturn(Optional.of(merchant));
+        when(mockedReadRepository.findById(merchantId)).thenReturn(Optional.of(merchant));
 
         // when
         Optional<Merchant> result = merchantService.getMerchantById(merchantId);
@@ -163,7 +231,56 @@ class MerchantServiceTest {
                 .isPresent()
                 .contains(merchant);
         verify(mockedDb).getItem(any(software.amazon.awssdk.services.dynamodb.model.GetItemRequest.class));
-        verify(mockedRepository).findById(merchantId);
+        verify(mockedReadRepository).findById(merchantId);
+    }
+
+    @Test
+    void shouldGetMerchantByEmail_FromDynamoDBEmailIndex() {
+        // given
+        when(mockedDb.query(any(software.amazon.awssdk.services.dynamodb.model.QueryRequest.class)))
+                .thenReturn(software.amazon.awssdk.services.dynamodb.model.QueryResponse.builder()
+                        .items(dynamoDbItem(123L, "John Doe", "john@example.com", BusinessTypeEnum.MEDIUM))
+                        .build());
+
+        // when
+        Optional<Merchant> merchant = merchantService.getMerchantByEmail("john@example.com");
+
+        // then
+        assertThat(merchant)
+                .isPresent()
+                .get()
+                .matches(m -> m.getId().equals(123L))
+                .matches(m -> m.getEmail().equals("john@example.com"));
+        verify(mockedDb).query(argThat((software.amazon.awssdk.services.dynamodb.model.QueryRequest request) ->
+                request.indexName().equals("MerchantEmailIndex")
+                        && request.limit() == 1
+                        && request.expressionAttributeValues().get(":email").s().equals("john@example.com")));
+        verify(mockedReadRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void shouldServeValidatorsForAnEmailHitFromTheDynamoDBEmailIndex() {
+        // given
+        Merchant stored = MerchantBuilder.aMerchant()
+                .withId(123L)
+                .withName("John Doe")
+                .withEmail("john@example.com")
+                .withBusinessType(BusinessTypeEnum.MEDIUM)
+                .withPhonetics("JN T")
+                .withUpdatedAt(LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_456_000))
+                .build();
+        Map<String, AttributeValue> item = MerchantReplicator.toItem(stored);
+        when(mockedDb.query(any(QueryRequest.class))).thenAnswer(invocation ->
+                QueryResponse.builder().items(projected(invocation.getArgument(0), item)).build());
+        MerchantController controller = new MerchantController(merchantService, null, null, null, null, Duration.ofSeconds(10));
+
+        // when
+        ResponseEntity<MerchantResponseBean> response = controller.getMerchantByEmail("john@example.com").join();
+
+        // then
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(response.getHeaders().getETag()).isNotNull();
+        assertThat(response.getHeaders().getLastModified()).isPositive();
     }
 
     @Test
@@ -178,20 +295,48 @@ class MerchantServiceTest {
         when(mockedDb.getItem(any(software.amazon.awssdk.services.dynamodb.model.GetItemRequest.class)))
                 .thenReturn(mockResponse);
 
-        when(mockedRepository.findById(merchantId)).thenReturn(Optional.empty());
-        merchantNotExistsInS3(merchantId.toString());
+        when(mockedReadRepository.findById(merchantId)).thenReturn(Optional.empty());
 
-        // when & then
-        // Note: S3StorageService.downloadFile() doesn't handle exceptions, so NoSuchKeyException
-        // propagates up. In production, this should be caught and handled, but for this test
-        // we expect the exception to be thrown.
-        assertThrows(software.amazon.awssdk.core.exception.SdkClientException.class, () ->
-                merchantService.getMerchantById(merchantId)
-        );
+        // when
+        Optional<Merchant> merchant = merchantService.getMerchantById(merchantId);
 
+        // then
+        assertThat(merchant).isEmpty();
         verify(mockedDb).getItem(any(software.amazon.awssdk.services.dynamodb.model.GetItemRequest.class));
-        verify(mockedRepository).findById(merchantId);
-        verify(mockedS3Client).getObjectAsBytes(any(software.amazon.awssdk.services.s3.model.GetObjectRequest.class));
+        verify(mockedReadRepository).findById(merchantId);
+        // the S3 segment index has no entry for the id, so S3 is not asked
+        verifyNoInteractions(mockedS3Client);
+    }
+
+    @Test
+    void shouldGetMerchantsByIds_PassingOnlyMissingIdsToNextTier() {
+        // given
+        Merchant fromPostgres = new Merchant("Jane Smith", "jane@example.com", BusinessTypeEnum.LARGE);
+        fromPostgres.setId(2L);
+        when(mockedDb.batchGetItem(any(software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest.class)))
+                .thenReturn(software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse.builder()
+                        .responses(Map.of("merchant-table", List.of(dynamoDbItem(1L, "John Doe", "john@example.com", BusinessTypeEnum.MEDIUM))))
+                        .build());
+        when(mockedReadRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(fromPostgres));
+
+        // when
+        List<Merchant> merchants = merchantService.getMerchantsByIds(List.of(3L, 1L, 2L, 1L));
+
+        // then
+        assertThat(merchants)
+                .extracting(Merchant::getId)
+                .containsExactly(1L, 2L);
+        verify(mockedReadRepository).findAllById(List.of(3L, 2L));
+        verifyNoInteractions(mockedS3Client);
+    }
+
+    @Test
+    void shouldRejectBatchLargerThanLimit() {
+        // when & then
+        assertThrows(IllegalArgumentException.class, () ->
+                merchantService.getMerchantsByIds(List.of(1L, 2L, 3L, 4L))
+        );
+        verifyNoInteractions(mockedDb, mockedReadRepository, mockedS3Client);
     }
 
     @Test
@@ -203,7 +348,7 @@ class MerchantServiceTest {
 
         Merchant updatedDetails = new Merchant("New Name", "john@example.com", BusinessTypeEnum.LARGE);
 
-        when(mockedRepository.findById(merchantId)).thenReturn(Optional.of(existingMerchant));
+        when(mockedRepository.findByIdForUpdate(merchantId)).thenReturn(Optional.of(existingMerchant));
         when(mockedRepository.save(any(Merchant.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // when
@@ -214,10 +359,11 @@ class MerchantServiceTest {
                 .isNotNull()
                 .matches(m -> m.getName().equals("New Name"))
                 .matches(m -> m.getBusinessType().equals(BusinessTypeEnum.LARGE));
-        verify(mockedRepository).findById(merchantId);
+        verify(mockedRepository).findByIdForUpdate(merchantId);
         verify(mockedRepository).save(argThat(m ->
                 m.getName().equals("New Name") &&
                 m.getBusinessType().equals(BusinessTypeEnum.LARGE)));
+        verify(mockedEventPublisher).publishEvent(MerchantCountChangedEvent.retyped(BusinessTypeEnum.SMALL, BusinessTypeEnum.LARGE));
     }
 
     @Test
@@ -225,13 +371,13 @@ class MerchantServiceTest {
         // given
         Long merchantId = 999L;
         Merchant updatedDetails = new Merchant("New Name", "john@example.com", BusinessTypeEnum.LARGE);
-        when(mockedRepository.findById(merchantId)).thenReturn(Optional.empty());
+        when(mockedRepository.findByIdForUpdate(merchantId)).thenReturn(Optional.empty());
 
         // when & then
         assertThrows(IllegalArgumentException.class, () ->
                 merchantService.updateMerchant(merchantId, updatedDetails)
         );
-        verify(mockedRepository).findById(merchantId);
+        verify(mockedRepository).findByIdForUpdate(merchantId);
         verify(mockedRepository, never()).save(any());
     }
 
@@ -239,36 +385,62 @@ class MerchantServiceTest {
     void shouldDeleteMerchant() {
         // given
         Long merchantId = 123L;
+        Merchant existingMerchant = new Merchant("Name", "john@example.com", BusinessTypeEnum.SMALL);
+        existingMerchant.setId(merchantId);
+        when(mockedRepository.findByIdForUpdate(merchantId)).thenReturn(Optional.of(existingMerchant));
 
         // when
         merchantService.deleteMerchant(merchantId);
 
         // then
         verify(mockedRepository).deleteById(merchantId);
+        verify(mockedEventPublisher).publishEvent(MerchantCountChangedEvent.deleted(BusinessTypeEnum.SMALL));
+    }
+
+    @Test
+    void shouldNotCountDeletesOfMissingMerchants() {
+        // given
+        Long merchantId = 999L;
+        when(mockedRepository.findByIdForUpdate(merchantId)).thenReturn(Optional.empty());
+
+        // when
+        merchantService.deleteMerchant(merchantId);
+
+        // then
+        verify(mockedRepository).deleteById(merchantId);
+        verify(mockedEventPublisher, never()).publishEvent(any(MerchantCountChangedEvent.class));
     }
 
     private void merchantExistsInDynamoDB(Long merchantId, String name, String email, BusinessTypeEnum businessType) {
-        Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> item = Map.of(
-                "id", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(merchantId.toString()).build(),
-                "name", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(name).build(),
-                "email", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(email).build(),
-                "businessType", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(businessType.name()).build(),
-                "phonetics", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s("").build()
-        );
         software.amazon.awssdk.services.dynamodb.model.GetItemResponse response =
                 software.amazon.awssdk.services.dynamodb.model.GetItemResponse.builder()
-                        .item(item)
+                        .item(dynamoDbItem(merchantId, name, email, businessType))
                         .build();
         when(mockedDb.getItem(any(software.amazon.awssdk.services.dynamodb.model.GetItemRequest.class)))
                 .thenReturn(response);
     }
 
-    private void merchantNotExistsInS3(String merchantId) {
-        // Mock S3 to throw SdkClientException when object doesn't exist
-        when(mockedS3Client.getObjectAsBytes(any(software.amazon.awssdk.services.s3.model.GetObjectRequest.class)))
-                .thenThrow(software.amazon.awssdk.core.exception.SdkClientException.builder()
-                        .message("Object not found")
-                        .cause(software.amazon.awssdk.services.s3.model.NoSuchKeyException.builder().build())
-                        .build());
+    /**
+     * What DynamoDB returns for a query: only the attributes its projection names.
+     */
+    private static Map<String, AttributeValue> projected(QueryRequest request, Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> projected = new HashMap<>();
+        for (String attribute : request.projectionExpression().split(",\\s*")) {
+            String name = request.expressionAttributeNames().getOrDefault(attribute, attribute);
+            if (item.containsKey(name)) {
+                projected.put(name, item.get(name));
+            }
+        }
+        return projected;
+    }
+
+    private Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> dynamoDbItem(Long merchantId, String name, String email, BusinessTypeEnum businessType) {
+        return Map.of(
+                "id", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(merchantId.toString()).build(),
+                "name", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(name).build(),
+                "email", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(email).build(),
+                "businessType", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(businessType.name()).build(),
+                "phonetics", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s("").build()
+        );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.domain.enums.BusinessTypeEnum;
+import com.merchant.testing.entity.Merchant;
+import com.merchant.testing.entity.MerchantBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantSnapshotTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldReadBackEveryFieldByIdAndByEmail() throws IOException {
+        // given
+        Merchant full = MerchantBuilder.aMerchant()
+                .withId(1L)
+                .withName("Caffè Società")
+                .withEmail("caffe@example.com")
+                .withBusinessType(BusinessTypeEnum.MEDIUM)
+                .withPhonetics("/kafˈfɛ/")
+                .withCreatedAt(LocalDateTime.of(2024, 2, 29, 12, 30, 15, 123_456_000))
+                .withUpdatedAt(LocalDateTime.of(2024, 3, 1, 8, 0))
+                .build();
+        Merchant sparse = MerchantBuilder.aMerchant()
+                .withId(2L)
+                .withName("John Doe")
+                .withEmail("john@example.com")
+                .withCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+
+        // when
+        MerchantSnapshot snapshot = write(List.of(full, sparse), 7L);
+
+        // then
+        assertThat(snapshot.findById(1L)).get().usingRecursiveComparison().isEqualTo(full);
+        assertThat(snapshot.findById(2L)).get().usingRecursiveComparison().isEqualTo(sparse);
+        assertThat(snapshot.findByEmail("caffe@example.com")).map(Merchant::getId).contains(1L);
+        assertThat(snapshot.findByEmail("john@example.com")).map(Merchant::getId).contains(2L);
+        assertThat(snapshot.watermark()).isEqualTo(7L);
+        assertThat(snapshot.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMissUnknownIdsAndEmails() throws IOException {
+        // given
+        MerchantSnapshot snapshot = write(List.of(merchant(1L)), 0L);
+
+        // when / then
+        assertThat(snapshot.findById(2L)).isEmpty();
+        assertThat(snapshot.findByEmail("merchant2@example.com")).isEmpty();
+        assertThat(write(List.of(), 0L).findById(1L)).isEmpty();
+    }
+
+    @Test
+    void shouldFindEveryMerchantOfALargeSnapshot() throws IOException {
+        // given
+        List<Merchant> merchants = LongStream.rangeClosed(1, 5_000)
+                .map(id -> id * 1_024)
+                .mapToObj(MerchantSnapshotTest::merchant)
+                .toList();
+
+        // when
+        MerchantSnapshot snapshot = write(merchants, 0L);
+
+        // then
+        assertThat(merchants).allSatisfy(merchant -> {
+            assertThat(snapshot.findById(merchant.getId())).map(Merchant::getEmail).contains(merchant.getEmail());
+            assertThat(snapshot.findByEmail(merchant.getEmail())).map(Merchant::getId).contains(merchant.getId());
+        });
+    }
+
+    private MerchantSnapshot write(List<Merchant> merchants, long watermark) throws IOException {
+        try (MerchantSnapshot.Writer writer = new MerchantSnapshot.Writer(directory.resolve("merchants-" + System.nanoTime() + ".snapshot"))) {
+            for (Merchant merchant : merchants) {
+                writer.add(merchant);
+            }
+            return writer.finish(watermark);
+        }
+    }
+
+    private static Merchant merchant(long id) {
+        return MerchantBuilder.aMerchant()
+                .withId(id)
+                .withName("Merchant " + id)
+                .withEmail("merchant" + id + "@example.com")
+                .withBusinessType(BusinessTypeEnum.SMALL)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.repository.MerchantRepository;
+import com.merchant.testing.service.aws.DynamoDbService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class MerchantTierFiltersTest {
+
+    @Mock
+    private MerchantRepository mockedRepository;
+
+    @Mock
+    private DynamoDbService mockedDynamoDbService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MerchantTierFilters filters;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filters = new MerchantTierFilters(mockedRepository, mockedDynamoDbService, meterRegistry, true, 1000, 0.01);
+        filters.rebuild();
+    }
+
+    @Test
+    void shouldLetDynamoDbThroughOnlyOnceTheMerchantIsReplicated() {
+        // given
+        filters.onMerchantChanged(new MerchantChangedEvent(MerchantChangedEvent.ChangeType.CREATED, 1L, "old@example.com", "Acme"));
+        filters.onMerchantChanged(new MerchantChangedEvent(MerchantChangedEvent.ChangeType.UPDATED, 1L, "new@example.com", "Acme"));
+
+        // when
+        boolean dynamoBeforeReplication = filters.mightContainId(MerchantTier.DYNAMODB, "1");
+        filters.recordReplicated(MerchantTier.DYNAMODB, "1", "new@example.com");
+
+        // then
+        assertThat(filters.mightContainId(MerchantTier.POSTGRES, "1")).isTrue();
+        assertThat(filters.mightContainEmail(MerchantTier.POSTGRES, "new@example.com")).isTrue();
+        assertThat(dynamoBeforeReplication).isFalse();
+        assertThat(filters.mightContainId(MerchantTier.DYNAMODB, "1")).isTrue();
+    }
+
+    @Test
+    void shouldKeepAWriteCommittedAfterTheRebuildScanStarted() {
+        // given: a write put into the filter before the rebuild, committing after the scan
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            filters.onMerchantChanged(new MerchantChangedEvent(MerchantChangedEvent.ChangeType.CREATED, 1L, "acme@example.com", "Acme"));
+
+            // when
+            filters.rebuild();
+
+            // then
+            assertThat(filters.mightContainId(MerchantTier.POSTGRES, "1")).isTrue();
+            assertThat(filters.mightContainEmail(MerchantTier.POSTGRES, "acme@example.com")).isTrue();
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // once it has completed, rolled back here, the next rebuild only keeps what it scanned
+        filters.rebuild();
+        assertThat(filters.mightContainId(MerchantTier.POSTGRES, "1")).isFalse();
+    }
+
+    @Test
+    void shouldReportFalsePositivesOverLookupsOfAbsentKeys() {
+        // given
+        filters.onMerchantChanged(new MerchantChangedEvent(MerchantChangedEvent.ChangeType.CREATED, 1L, "acme@example.com", "Acme"));
+
+        // when
+        filters.mightContainId(MerchantTier.POSTGRES, "1");
+        filters.recordMiss(MerchantTier.POSTGRES);
+        filters.mightContainId(MerchantTier.POSTGRES, "2");
+        filters.mightContainId(MerchantTier.POSTGRES, "3");
+        filters.mightContainId(MerchantTier.POSTGRES, "4");
+
+        // then
+        assertThat(meterRegistry.get("merchant.filter.observed-false-positive-rate").tag("tier", "postgres").gauge().value())
+                .isEqualTo(0.25);
+    }
+}
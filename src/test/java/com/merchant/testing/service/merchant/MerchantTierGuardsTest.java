@@ -0,0 +1,95 @@
+package com.merchant.testing.service.merchant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantTierGuardsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldOpenOnceTheFailureRateOfTheWindowIsReached() {
+        // given
+        MerchantTierGuards guards = guards(Duration.ofMinutes(1));
+        record(guards, false, false, true, false);
+        assertThat(guards.state(MerchantTier.DYNAMODB)).isEqualTo(MerchantTierGuards.State.CLOSED);
+
+        // when
+        record(guards, true);
+
+        // then
+        assertThat(guards.state(MerchantTier.DYNAMODB)).isEqualTo(MerchantTierGuards.State.OPEN);
+        assertThat(guards.tryAcquire(MerchantTier.DYNAMODB)).isFalse();
+        assertThat(guards.tryAcquire(MerchantTier.POSTGRES)).isTrue();
+    }
+
+    @Test
+    void shouldCloseAfterEveryHalfOpenProbeSucceeds() {
+        // given
+        MerchantTierGuards guards = guards(Duration.ZERO);
+        record(guards, true, true, true, true);
+
+        // when
+        assertThat(guards.tryAcquire(MerchantTier.DYNAMODB)).isTrue();
+        assertThat(guards.tryAcquire(MerchantTier.DYNAMODB)).isTrue();
+        assertThat(guards.tryAcquire(MerchantTier.DYNAMODB)).isFalse();
+        assertThat(guards.state(MerchantTier.DYNAMODB)).isEqualTo(MerchantTierGuards.State.HALF_OPEN);
+        guards.onSuccess(MerchantTier.DYNAMODB);
+        guards.onSuccess(MerchantTier.DYNAMODB);
+
+        // then
+        assertThat(guards.state(MerchantTier.DYNAMODB)).isEqualTo(MerchantTierGuards.State.CLOSED);
+        assertThat(meterRegistry.get("merchant.tier.breaker.state").tags("tier", "dynamodb", "state", "closed").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("merchant.tier.breaker.skipped").tag("tier", "dynamodb").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReopenWhenAHalfOpenProbeFails() {
+        // given
+        MerchantTierGuards guards = new MerchantTierGuards(meterRegistry, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1),
+                4, 0.5, Duration.ofMillis(20), 2);
+        record(guards, true, true, true, true);
+
+        // when
+        await(Duration.ofMillis(30));
+        assertThat(guards.tryAcquire(MerchantTier.DYNAMODB)).isTrue();
+        guards.onFailure(MerchantTier.DYNAMODB);
+
+        // then
+        assertThat(guards.state(MerchantTier.DYNAMODB)).isEqualTo(MerchantTierGuards.State.OPEN);
+        assertThat(guards.tryAcquire(MerchantTier.DYNAMODB)).isFalse();
+    }
+
+    private MerchantTierGuards guards(Duration openDuration) {
+        return new MerchantTierGuards(meterRegistry, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1),
+                4, 0.5, openDuration, 2);
+    }
+
+    private static void record(MerchantTierGuards guards, boolean... failures) {
+        for (boolean failed : failures) {
+            if (failed) {
+                guards.onFailure(MerchantTier.DYNAMODB);
+            } else {
+                guards.onSuccess(MerchantTier.DYNAMODB);
+            }
+        }
+    }
+
+    private static void await(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
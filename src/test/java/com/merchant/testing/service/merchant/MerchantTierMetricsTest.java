@@ -0,0 +1,79 @@
+package com.merchant.testing.service.merchant;
+
+import com.merchant.testing.entity.Merchant;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantTierMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MerchantTierMetrics merchantTierMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        merchantTierMetrics = new MerchantTierMetrics(meterRegistry);
+    }
+
+    @Test
+    void shouldTagABatchByHowManyOfItsIdsWereFound() {
+        // given
+        Merchant merchant = new Merchant("John Doe", "john@example.com", null);
+
+        // when
+        merchantTierMetrics.recordBatch(MerchantTier.POSTGRES, List.of("1", "2"), () -> Map.of("1", merchant, "2", merchant));
+        merchantTierMetrics.recordBatch(MerchantTier.POSTGRES, List.of("1", "2", "3"), () -> Map.of("1", merchant));
+        merchantTierMetrics.recordBatch(MerchantTier.POSTGRES, List.of("4"), Map::of);
+
+        // then
+        assertThat(batchCalls("hit")).isEqualTo(1);
+        assertThat(batchCalls("partial")).isEqualTo(1);
+        assertThat(batchCalls("miss")).isEqualTo(1);
+        assertThat(batchKeys("hit")).isEqualTo(3);
+        assertThat(batchKeys("miss")).isEqualTo(3);
+    }
+
+    @Test
+    void shouldResolveMicrosecondLookupsInTheHistogram() {
+        // given: a registry that keeps the histogram buckets
+        PrometheusMeterRegistry prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        new MerchantTierMetrics(prometheusRegistry);
+        Timer timer = prometheusRegistry.get("merchant.tier.requests")
+                .tags("tier", "snapshot", "operation", "id", "result", "hit")
+                .timer();
+
+        // when
+        timer.record(Duration.ofNanos(20_000));
+        timer.record(Duration.ofNanos(200_000));
+
+        // then
+        assertThat(Arrays.stream(timer.takeSnapshot().histogramCounts())
+                .filter(bucket -> bucket.bucket(TimeUnit.MILLISECONDS) < 1)
+                .map(CountAtBucket::count)
+                .distinct())
+                .contains(0.0, 1.0, 2.0);
+    }
+
+    private long batchCalls(String result) {
+        return meterRegistry.get("merchant.tier.requests")
+                .tags("tier", "postgres", "operation", "batch", "result", result)
+                .timer().count();
+    }
+
+    private double batchKeys(String result) {
+        return meterRegistry.get("merchant.tier.batch.keys").tags("tier", "postgres", "result", result).counter().count();
+    }
+}
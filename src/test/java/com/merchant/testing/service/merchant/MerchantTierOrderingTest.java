@@ -0,0 +1,99 @@
+package com.merchant.testing.service.merchant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MerchantTierOrderingTest {
+    private static final List<MerchantTier> PINNED = List.of(MerchantTier.SNAPSHOT, MerchantTier.DYNAMODB, MerchantTier.POSTGRES, MerchantTier.S3);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldMoveAFasterTierAheadOnceBothHaveEnoughSamples() {
+        // given
+        MerchantTierOrdering ordering = ordering(true);
+        for (int i = 0; i < 10; i++) {
+            ordering.record(MerchantTier.DYNAMODB, 50_000_000, i % 2 == 0);
+            ordering.record(MerchantTier.POSTGRES, 2_000_000, true);
+        }
+
+        // when
+        ordering.reorder();
+
+        // then
+        assertThat(ordering.order()).containsExactly(MerchantTier.SNAPSHOT, MerchantTier.POSTGRES, MerchantTier.DYNAMODB, MerchantTier.S3);
+        assertThat(meterRegistry.get("merchant.load.reorders").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("merchant.tier.position").tag("tier", "postgres").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNeverMoveATierPinnedBehindPostgresAheadOfIt() {
+        // given
+        MerchantTierOrdering ordering = ordering(true);
+        for (int i = 0; i < 10; i++) {
+            ordering.record(MerchantTier.DYNAMODB, 50_000_000, true);
+            ordering.record(MerchantTier.POSTGRES, 20_000_000, true);
+            ordering.record(MerchantTier.S3, 1_000_000, true);
+        }
+
+        // when
+        ordering.reorder();
+
+        // then
+        assertThat(ordering.order()).containsExactly(MerchantTier.SNAPSHOT, MerchantTier.POSTGRES, MerchantTier.DYNAMODB, MerchantTier.S3);
+    }
+
+    @Test
+    void shouldKeepTheOrderWhenTheGainIsBelowTheMinimumImprovement() {
+        // given
+        MerchantTierOrdering ordering = ordering(true);
+        for (int i = 0; i < 10; i++) {
+            ordering.record(MerchantTier.DYNAMODB, 2_100_000, true);
+            ordering.record(MerchantTier.POSTGRES, 2_000_000, true);
+        }
+
+        // when
+        ordering.reorder();
+
+        // then
+        assertThat(ordering.order()).isEqualTo(PINNED);
+        assertThat(meterRegistry.get("merchant.load.reorders").counter().count()).isZero();
+    }
+
+    @Test
+    void shouldKeepThePinnedOrderWhenAdaptiveOrderingIsDisabled() {
+        // given
+        MerchantTierOrdering ordering = ordering(false);
+        for (int i = 0; i < 10; i++) {
+            ordering.record(MerchantTier.DYNAMODB, 50_000_000, false);
+            ordering.record(MerchantTier.POSTGRES, 2_000_000, true);
+        }
+
+        // when
+        ordering.reorder();
+
+        // then
+        assertThat(ordering.order()).isEqualTo(PINNED);
+    }
+
+    @Test
+    void shouldRejectAPinnedOrderMissingATier() {
+        assertThrows(IllegalArgumentException.class, () -> new MerchantTierOrdering(meterRegistry,
+                List.of(MerchantTier.DYNAMODB, MerchantTier.POSTGRES, MerchantTier.S3), true, 0.2, 10, 0.1, 0));
+    }
+
+    private MerchantTierOrdering ordering(boolean adaptive) {
+        return new MerchantTierOrdering(meterRegistry, PINNED, adaptive, 0.2, 10, 0.1, 0);
+    }
+}
@@ -58,12 +58,25 @@ resource "aws_dynamodb_table" "merchant_table" {
     type = "S"
   }
 
+  attribute {
+    name = "email"
+    type = "S"
+  }
+
   global_secondary_index {
     name            = "MerchantNameIndex"
     hash_key        = "merchantName"
     projection_type = "ALL"
   }
 
+  # Email lookups; projects only what the application reads back for a merchant
+  global_secondary_index {
+    name               = "MerchantEmailIndex"
+    hash_key           = "email"
+    projection_type    = "INCLUDE"
+    non_key_attributes = ["name", "businessType", "phonetics", "updatedAt"]
+  }
+
   tags = {
     Name        = "Merchant Table"
     Environment = var.environment